@@ -0,0 +1,66 @@
+package com.amarasapps;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of BlackjackClient.handleServerMessage parsing text protocol lines, with the terminal output thrown
+ * away. Messages whose handlers pause for the player to read (PLAYERHAND, BETTINGSTAGE and the ROUND payouts) are
+ * left out, as the pause would be all that was measured.
+ *
+ * @author Aiden Meikle
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ServerMessageBenchmark {
+
+    @Param({"S-DEALERHAND-20- JD-10C", "S-DEALERHAND-10- JD-XX", "S-PAYOUTSTAGE-HANDWIN-1",
+            "S-PLAYINGSTAGE-SPLITHAND", "S-ADVANCE-WAITINGOTHERS", "S-INSURANCE-NODEALERBJ"})
+    public String message;      //The line from the Server
+
+    private BlackjackClient client;
+    private PrintStream terminal;   //The real System.out, put back after the trial
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        terminal = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b){}
+
+            @Override
+            public void write(byte[] b, int off, int len){}
+        }));
+        client = new BlackjackClient(8080, "127.0.0.1", false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        System.setOut(terminal);
+    }
+
+    @Benchmark
+    public BlackjackClient handleServerMessage(){
+        client.handleServerMessage(message);
+        return client;
+    }
+}
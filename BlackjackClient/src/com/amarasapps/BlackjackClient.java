@@ -1,12 +1,10 @@
 package com.amarasapps;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.net.ConnectException;
 import java.net.Socket;
-import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Scanner;
 
@@ -21,23 +19,35 @@ public class BlackjackClient {
 
     private static final int DEFAULT_SERVER_PORT = 8080;                //Default Server Port
     private static final String DEFAULT_SERVER_ADDRESS = "127.0.0.1";   //Default Server Address
+    private static final String[] CARD_NAMES = cardNames();             //Card names by binary card code
+    private static final int RECONNECT_ATTEMPTS = 30;                   //Attempts made to reconnect after losing the Server
+    private static final long RECONNECT_DELAY = 1000;                   //Milliseconds between reconnect attempts
 
     //Move the below Members to a separate class, create a member of the new class
 
     private int serverPort;                                             //Port Used by the Server
     private String serverAddress;                                       //Address Used by Server
     private Socket serverSocket;                                        //Socket to Communicate with Server
-    private BufferedReader input;                                       //Input Stream from the Server
-    private PrintWriter output;                                         //Output Stream to the Server
+    private ServerInput input;                                          //Input Stream from the Server
+    private OutputStream output;                                        //Output Stream to the Server
+    private final boolean preferBinary;                                 //Whether to ask the Server for the binary protocol
+    private final String account;                                       //Account to play with, null to play with the starting money
+    private volatile boolean binaryRequested;                           //Whether messages to the Server are binary
+    private boolean binaryProtocol;                                     //Whether messages from the Server are binary
+
+    private String sessionToken;                                        //Token to resume this session with after a lost connection
+    private String fallbackToken;                                       //Session given to the new connection while resuming
+    private long receivedMessages;                                      //Game messages received in this session
+    private boolean resuming;                                           //Whether a new connection is resuming the session
 
     private GameState gameState;                                        //The Current State for the Player
     private Scanner terminalIn;                                         //Input Stream from the Terminal
     private final Thread inputThread = new Thread(new InputThread());   //Thread that manages input from the User
 
-    private double availBalance;                                        //The Balance Available to the User
-    private double tableMinBet;                                         //The Minimum Bet for the Table
+    private long availBalance;                                          //The Balance Available to the User, in cents
+    private long tableMinBet;                                           //The Minimum Bet for the Table, in cents
     private String gamePlayOptions;                                     //The possible options a player can choose from for the PlayStage
-    private double betAmount;                                           //The amount the player has bet for this round
+    private long betAmount;                                             //The amount the player has bet for this round, in cents
 
     /**
      * Main Method which creates a new Client object and begins the connection/initialization process
@@ -48,6 +58,11 @@ public class BlackjackClient {
         }
         int port = DEFAULT_SERVER_PORT;
         String address = DEFAULT_SERVER_ADDRESS;
+        boolean binary = true;
+        int bots = 0;
+        int rounds = 100;
+        BotStrategy strategy = BotStrategy.BASIC;
+        String account = null;
 
         for(int i=0; i<args.length; i+=2){
             try{
@@ -61,12 +76,49 @@ public class BlackjackClient {
                             throw new NumberFormatException();
                         }
                         address = args[i+1];
+                        break;
+                    case "--PROTOCOL":
+                        if(!args[i+1].equals("TEXT") && !args[i+1].equals("BINARY")){
+                            throw new NumberFormatException();
+                        }
+                        binary = args[i+1].equals("BINARY");
+                        break;
+                    case "--ACCOUNT":
+                        if(!args[i+1].matches("[A-Za-z0-9_]{1,32}")){
+                            throw new NumberFormatException();
+                        }
+                        account = args[i+1];
+                        break;
+                    case "--BOTS":
+                        bots = Integer.parseInt(args[i+1]);
+                        if(bots <= 0) throw new NumberFormatException();
+                        break;
+                    case "--ROUNDS":
+                        rounds = Integer.parseInt(args[i+1]);
+                        if(rounds <= 0) throw new NumberFormatException();
+                        break;
+                    case "--STRATEGY":
+                        try{
+                            strategy = BotStrategy.valueOf(args[i+1]);
+                        }catch (IllegalArgumentException e){
+                            throw new NumberFormatException();
+                        }
+                        break;
                 }
             }catch (NumberFormatException e){
                 expectedUsage();
             }
         }
-        BlackjackClient client = new BlackjackClient(port, address);
+        if(bots > 0){
+            try{
+                new BotFleet(address, port, bots, rounds, strategy, binary).run();
+            }catch (IOException | InterruptedException e){
+                e.printStackTrace();
+                System.exit(-1);
+            }
+            return;
+        }
+        BlackjackClient client = new BlackjackClient(port, address, binary, account);
         client.beginGame();
     }
 
@@ -76,18 +128,34 @@ public class BlackjackClient {
     private static void expectedUsage() {
         System.out.println("Usage: java -jar BlackjackClient.jar [OPTIONS]");
         System.out.println("Options:");
-        System.out.println("\t--PORT <PORT NUMBER>\n\t--ADDRESS <SERVER ADDRESS>");
+        System.out.println("\t--PORT <PORT NUMBER>\n\t--ADDRESS <SERVER ADDRESS>\n\t--PROTOCOL <TEXT|BINARY>");
+        System.out.println("\t--ACCOUNT <ACCOUNT NAME>");
+        System.out.println("\t--BOTS <NUMBER OF BOTS>\n\t--ROUNDS <ROUNDS PER BOT>\n\t--STRATEGY <BASIC|DEALER|STAND>");
         System.exit(-1);
     }
 
+    /**
+     * Constructor to Initialise the Blackjack Client, playing with the Server's starting money
+     * @param port      Port of the Server
+     * @param address   Address of the Server
+     * @param binary    Whether to use the binary protocol if the Server supports it
+     */
+    public BlackjackClient(int port, String address, boolean binary){
+        this(port, address, binary, null);
+    }
+
     /**
      * Constructor to Initialise the Blackjack Client
      * @param port      Port of the Server
      * @param address   Address of the Server
+     * @param binary    Whether to use the binary protocol if the Server supports it
+     * @param account   The account to play with, null to play with the starting money
      */
-    public BlackjackClient(int port, String address){
+    public BlackjackClient(int port, String address, boolean binary, String account){
         this.serverPort = port;
         this.serverAddress = address;
+        this.preferBinary = binary;
+        this.account = account;
         this.terminalIn = new Scanner(System.in);
     }
 
@@ -97,11 +165,7 @@ public class BlackjackClient {
     private void beginGame(){
         try{
             System.out.println("Connecting to Server...");
-            this.serverSocket = new Socket(this.serverAddress, this.serverPort);
-            this.serverSocket.setSoTimeout(500);
-            InputStreamReader isr = new InputStreamReader(serverSocket.getInputStream());
-            this.input = new BufferedReader(isr);
-            this.output = new PrintWriter(serverSocket.getOutputStream(), true);
+            connect();
 
             System.out.println("Successfully Connected to Server!");
             gameState = GameState.NOTSTARTED;
@@ -111,19 +175,24 @@ public class BlackjackClient {
 
             do{
                 try{
-                    String message = input.readLine();
-                    if(message == null){
-                        setGameOverState();
-                        input.close();
-                        output.close();
-                        serverSocket.close();
-                        System.out.println("Server Disconnected");
-                        System.exit(-1);
-                    }else {
-                        handleServerMessage(message);
+                    if(binaryProtocol){
+                        int opcode = input.readFrame();
+                        if(opcode < 0){
+                            connectionLost();
+                        }else{
+                            handleServerFrame(opcode);
+                        }
+                    }else{
+                        String message = input.readLine();
+                        if(message == null){
+                            connectionLost();
+                        }else {
+                            handleServerMessage(message);
+                        }
                     }
-                }catch(SocketTimeoutException ignored){}
-
+                }catch (IOException e){
+                    connectionLost();
+                }
             }while(gameState != GameState.GAMEOVER);
 
             try{
@@ -152,52 +221,121 @@ public class BlackjackClient {
     }
 
     /**
-     * Deals with Messages Received from Server
+     * Opens a new connection to the Server. Every connection starts out using the text protocol.
+     * @throws IOException If the Server cannot be reached
+     */
+    private void connect() throws IOException {
+        Socket socket = new Socket(this.serverAddress, this.serverPort);
+        socket.setTcpNoDelay(true);
+        synchronized (this){
+            this.serverSocket = socket;
+            this.input = new ServerInput(socket.getInputStream());
+            this.output = socket.getOutputStream();
+            this.binaryProtocol = false;
+            this.binaryRequested = false;
+        }
+    }
+
+    /**
+     * Handles the connection to the Server being lost. If the Server gave this client a session it reconnects and asks
+     * to resume it, otherwise the game is over.
+     */
+    private void connectionLost() throws IOException {
+        if(gameState == GameState.GAMEOVER){
+            return;
+        }
+        if(sessionToken == null){
+            serverDisconnected();
+            return;
+        }
+        System.out.println("Lost Connection to the Server. Reconnecting...");
+        try{
+            serverSocket.close();
+        }catch (IOException ignored){}
+        for(int attempt = 0; attempt < RECONNECT_ATTEMPTS; attempt++){
+            try{
+                Thread.sleep(RECONNECT_DELAY);
+                connect();
+                resuming = true;    //The Server's greeting is answered by asking to resume
+                return;
+            }catch (IOException | InterruptedException ignored){}
+        }
+        serverDisconnected();
+    }
+
+    /**
+     * Closes the connection and exits after the Server has disconnected
+     */
+    private void serverDisconnected() throws IOException {
+        setGameOverState();
+        input.close();
+        output.close();
+        serverSocket.close();
+        System.out.println("Server Disconnected");
+        System.exit(-1);
+    }
+
+    /**
+     * Builds the name of every card by its binary card code, rank * 4 + suit, matching the server's Card ordering
+     * @return The card names, Rank then Suit formatted
+     */
+    private static String[] cardNames(){
+        String[] ranks = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
+        String[] suits = {"S", "C", "H", "D"};
+        String[] names = new String[ranks.length * suits.length];
+        for(int rank = 0; rank < ranks.length; rank++){
+            for(int suit = 0; suit < suits.length; suit++){
+                names[rank * suits.length + suit] = String.format("%2s%s", ranks[rank], suits[suit]);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Deals with Messages Received from Server using the text protocol
      * @param message   The Message from the Server
      */
-    private void handleServerMessage(String message){
+    void handleServerMessage(String message){
         synchronized (this){
             String[] messageBits = message.split("-");
             if (messageBits.length < 2){
                 return;
             }
+            switch (messageBits[1]){
+                case "HELLO":
+                    handleServerHello(messageBits);
+                    return;
+                case "SESSION":
+                    if(resuming){
+                        fallbackToken = messageBits[2];
+                    }else{
+                        sessionToken = messageBits[2];
+                    }
+                    return;
+                case "RESUMED":
+                    handleResumed(Integer.parseInt(messageBits[2]));
+                    return;
+                case "RESUME":
+                    handleResumeRefused();
+                    return;
+                case "ACCOUNT":
+                    handleAccount(messageBits[2]);
+                    return;
+            }
+            receivedMessages++;     //Counts every game message, so a resumed session is sent only those missed
             switch (messageBits[1]){
                 case "ADVANCE":
-                    switch (messageBits[2]){
-                        case "BETTINGSTAGE":
-                            tableMinBet = Double.parseDouble(messageBits[3]);
-                            availBalance = Double.parseDouble(messageBits[4]);
-                            synchronized (inputThread){
-                                inputThread.notify();
-                            }
-                            handleBetStage();
-                            break;
-                        case "PLAYINGSTAGE":
-                            setPlayGameState();
-                            break;
-                        case "ROUNDOVER":
-                            setNotStartedState();
-                            break;
-                        case "WAITINGOTHERS":
-                            setWaitingState();
-                            break;
-                        case "PLAYAGAIN":
-                            synchronized (inputThread){
-                                inputThread.notify();
-                            }
-                            setPlayAgainState();
-                            break;
-
+                    if(messageBits[2].equals("BETTINGSTAGE")){
+                        handleAdvance(messageBits[2], Money.parse(messageBits[3]), Money.parse(messageBits[4]));
+                    }else{
+                        handleAdvance(messageBits[2], 0, 0);
                     }
                     break;
                 case "PLAYERHAND": {
-                    try {
-                        Thread.sleep(500);
-                    }catch (InterruptedException ignored){}
                     int handNumber = Integer.parseInt(messageBits[2]);
                     int handValue = Integer.parseInt(messageBits[3]);
                     String[] cards = Arrays.copyOfRange(messageBits, 4, messageBits.length);
-                    printPlayerHand(handNumber, handValue, cards);
+                    handlePlayerHand(handNumber, handValue, cards);
                     break;
                 }
                 case "DEALERHAND": {
@@ -207,135 +345,22 @@ public class BlackjackClient {
                     break;
                 }
                 case "PLAYERBALANCE":
-                    availBalance = Double.parseDouble(messageBits[2]);
-                    System.out.println(String.format("Available Balance: %.2f", availBalance));
+                    availBalance = Money.parse(messageBits[2]);
+                    System.out.println(String.format("Available Balance: %s", Money.format(availBalance)));
+                    break;
                 case "INSURANCE":
-                    switch(messageBits[2]){
-                        case "DEALERBJ":
-                            System.out.println("The Dealer has a BlackJack");
-                            break;
-                        case "NODEALERBJ":
-                            System.out.println("The Dealer did not have a BlackJack");
-                            break;
-                        case "WININSURANCE":
-                            System.out.println("Your Insurance has covered your bet. No Money won or Lost");
-                            break;
-                        case "LOSEINSURANCE":
-                            double insuranceAmount = Double.parseDouble(messageBits[3]);
-                            System.out.println(String.format("You have lost your insurance bet of %.2f", insuranceAmount));
-                            break;
-                        case "BJNOPAYOUT":
-                            System.out.println("Looks like you should have taken the Insurance you Bampot!");
-                            break;
-                        case "NOBJNOPAYOUT":
-                            System.out.println("Can you see the future? Good call not taking Insurance you Legend!");
-                            break;
-                    }
+                    handleInsurance(messageBits[2], messageBits.length > 3 ? Money.parse(messageBits[3]) : 0);
+                    break;
                 case "PLAYINGSTAGE":
-                    switch (messageBits[2]){
-                        case "OFFERINSURANCE":
-                            gameState = GameState.OFFERINSURANCE;
-                            synchronized (inputThread){
-                                inputThread.notify();
-                            }
-                            System.out.println("The Dealer Has an Ace Showing!");
-                            System.out.print("Do you want to buy insurance (Y/N): ");
-                            break;
-                        case "TOOPOORINSURANCE":
-                            synchronized (inputThread){
-                                inputThread.notify();
-                            }
-                            System.out.println("The Dealer Has an Ace Showing!");
-                            System.out.println("Sadly you don't have enough money to buy insurance.");
-                            System.out.println("Good Luck!");
-                            break;
-                        case "PLAYERBJ":
-                            System.out.println("You Have BlackJack! Well Done!");
-                            try{
-                                Thread.sleep(500);
-                            }catch(InterruptedException ignored){}
-                            break;
-                        case "PLAYERBUST":
-                            System.out.println("You Have Gone Bust! Nice One Ya Idgit!");
-                            try{
-                                Thread.sleep(500);
-                            }catch(InterruptedException ignored){}
-                            break;
-                        case "PLAYERMAXVAL":
-                            System.out.println("Your Hand Is Worth 21. Moving On...");
-                            try{
-                                Thread.sleep(500);
-                            }catch(InterruptedException ignored){}
-                            break;
-                        case "HITSTAND":
-                        case "HITSTANDDOUBLE":
-                        case "HITSTANDDOUBLESPLIT":
-                        case "HITSTANDSPLIT":
-                            synchronized (inputThread){
-                                inputThread.notify();
-                            }
-                            gamePlayOptions = messageBits[2];
-                            printPlayOptions();
-                            break;
-                        case "DD":
-                            betAmount *= 2;
-                            availBalance = Double.parseDouble(messageBits[3]);
-                            System.out.println(String.format("New Bet Amount: %.2f", betAmount));
-                            System.out.println(String.format("New Balance Amount: %.2f", availBalance));
-                            break;
-                        case "SPLITHAND":
-                            System.out.println("Hands Split");
-                            System.out.println("+--------------------+");
-                            break;
-                    }
+                    handlePlayingStage(messageBits[2], messageBits.length > 3 ? Money.parse(messageBits[3]) : 0);
                     break;
                 case "PAYOUTSTAGE":
-                    switch(messageBits[2]){
-                        case "DEALERBJ":
-                            System.out.println("Dealer Has BlackJack!");
-                            break;
-                        case "DEALERBUST":
-                            System.out.println("Dealer Has Bust!");
-                            break;
-                        case "HANDPUSH": {
-                            int thisHand = Integer.parseInt(messageBits[3]);
-                            System.out.printf("Hand %d Push!\n", thisHand);
-                            break;
-                        }
-                        case "HANDWIN": {
-                            int thisHand = Integer.parseInt(messageBits[3]);
-                            System.out.printf("Hand %d Wins!\n", thisHand);
-                            break;
-                        }
-                        case "HANDLOSE": {
-                            int thisHand = Integer.parseInt(messageBits[3]);
-                            System.out.printf("Hand %d Loses!\n", thisHand);
-                            break;
-                        }
-                        case "ROUNDLOSE": {
-                            try {
-                                Thread.sleep(500);
-                            }catch (InterruptedException ignored){}
-                            availBalance = Double.parseDouble(messageBits[3]);
-                            double payout = Double.parseDouble(messageBits[4]);
-                            System.out.println("+--------------------+");
-                            System.out.println("Round Update:");
-                            System.out.printf("\tNew Balance: %.2f\n", availBalance);
-                            System.out.printf("\tBalance Change: -%.2f\n", payout);
-                            break;
-                        }
-                        case "ROUNDWIN": {
-                            try {
-                                Thread.sleep(500);
-                            }catch (InterruptedException ignored){}
-                            availBalance = Double.parseDouble(messageBits[3]);
-                            double payout = Double.parseDouble(messageBits[4]);
-                            System.out.println("+--------------------+");
-                            System.out.println("Round Update:");
-                            System.out.printf("\tNew Balance: %.2f\n", availBalance);
-                            System.out.printf("\tBalance Change: +%.2f\n", payout);
-                            break;
-                        }
+                    if(messageBits[2].startsWith("HAND")){
+                        handlePayout(messageBits[2], Integer.parseInt(messageBits[3]), 0, 0);
+                    }else if(messageBits[2].startsWith("ROUND")){
+                        handlePayout(messageBits[2], 0, Money.parse(messageBits[3]), Money.parse(messageBits[4]));
+                    }else{
+                        handlePayout(messageBits[2], 0, 0, 0);
                     }
                     break;
                 case "LOWBALANCE":
@@ -349,6 +374,368 @@ public class BlackjackClient {
 
     }
 
+    /**
+     * Deals with a frame Received from Server using the binary protocol. Its values are read from the ServerInput.
+     * @param code  The opcode byte of the frame
+     */
+    private void handleServerFrame(int code){
+        synchronized (this){
+            receivedMessages++;
+            ServerOpcode opcode = ServerOpcode.fromCode((byte) code);
+            if(opcode == null){
+                return;
+            }
+            switch (opcode){
+                case ADVANCE_BETTINGSTAGE: {
+                    long minBet = input.nextMoney();
+                    long balance = input.nextMoney();
+                    handleAdvance(opcode.getSubType(), minBet, balance);
+                    break;
+                }
+                case PLAYERHAND: {
+                    int handNumber = input.nextByte();
+                    int handValue = input.nextByte();
+                    handlePlayerHand(handNumber, handValue, nextCards());
+                    break;
+                }
+                case DEALERHAND: {
+                    int handValue = input.nextByte();
+                    printDealerHand(handValue, nextCards());
+                    break;
+                }
+                case INSURANCE_LOSEINSURANCE:
+                    handleInsurance(opcode.getSubType(), input.nextMoney());
+                    break;
+                case PLAYINGSTAGE_DD:
+                    handlePlayingStage(opcode.getSubType(), input.nextMoney());
+                    break;
+                case PAYOUTSTAGE_HANDWIN:
+                case PAYOUTSTAGE_HANDLOSE:
+                case PAYOUTSTAGE_HANDPUSH:
+                    handlePayout(opcode.getSubType(), input.nextByte(), 0, 0);
+                    break;
+                case PAYOUTSTAGE_ROUNDWIN:
+                case PAYOUTSTAGE_ROUNDLOSE: {
+                    long balance = input.nextMoney();
+                    long payout = input.nextMoney();
+                    handlePayout(opcode.getSubType(), 0, balance, payout);
+                    break;
+                }
+                case LOWBALANCE:
+                    System.out.println("Your Balance is Less than the Table Minimum Bet.");
+                    break;
+                case GAMEOVER:
+                    setGameOverState();
+                    break;
+                default:
+                    switch (opcode.getType()){
+                        case "ADVANCE":
+                            handleAdvance(opcode.getSubType(), 0, 0);
+                            break;
+                        case "INSURANCE":
+                            handleInsurance(opcode.getSubType(), 0);
+                            break;
+                        case "PLAYINGSTAGE":
+                            handlePlayingStage(opcode.getSubType(), 0);
+                            break;
+                        case "PAYOUTSTAGE":
+                            handlePayout(opcode.getSubType(), 0, 0, 0);
+                            break;
+                    }
+            }
+        }
+    }
+
+    /**
+     * Reads a count byte and then that many card codes from the current frame
+     * @return The cards, Rank then Suit formatted
+     */
+    private String[] nextCards(){
+        String[] cards = new String[input.nextByte()];
+        for(int i = 0; i < cards.length; i++){
+            byte code = input.nextByte();
+            cards[i] = code == ServerOpcode.HIDDEN_CARD ? "XX" : CARD_NAMES[code];
+        }
+        return cards;
+    }
+
+    /**
+     * Handles the Server's greeting, which lists the protocol versions it speaks. If it offers the binary protocol
+     * and it was chosen, asks to switch. The Server acknowledges with S-HELLO-ACK, after which every message is binary.
+     * @param messageBits The hyphen separated parts of the greeting
+     */
+    private void handleServerHello(String[] messageBits){
+        if(messageBits.length > 2 && messageBits[2].equals("ACK")){
+            binaryProtocol = true;
+            return;
+        }
+        if(resuming){
+            sendLine("C-RESUME-" + sessionToken + "-" + receivedMessages);
+            return;
+        }
+        if(account != null){
+            sendLine("C-ACCOUNT-" + account);   //Named before asking for binary, as the Server answers in text
+        }
+        if(!preferBinary){
+            return;
+        }
+        for(int i = 2; i < messageBits.length; i++){
+            if(messageBits[i].equals(String.valueOf(ServerOpcode.BINARY_VERSION))){
+                sendLine("C-HELLO-" + ServerOpcode.BINARY_VERSION);
+                binaryRequested = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Handles the Server's answer to the account named when connecting
+     * @param answer The account's balance, or REFUSED if it is held by another client or cannot cover the minimum bet
+     */
+    private void handleAccount(String answer){
+        if(answer.equals("REFUSED")){
+            System.out.println(String.format("Account %s Could Not Be Used. Playing with the Starting Money.", account));
+            return;
+        }
+        availBalance = Money.parse(answer);
+        System.out.println(String.format("Playing as %s. Available Balance: %s", account, Money.format(availBalance)));
+    }
+
+    /**
+     * Handles the Server resuming this client's session on the new connection. The Server goes on in the protocol the
+     * session was using, replaying every game message missed while disconnected.
+     * @param version The protocol version the session uses
+     */
+    private void handleResumed(int version){
+        resuming = false;
+        binaryRequested = version == ServerOpcode.BINARY_VERSION;
+        binaryProtocol = binaryRequested;
+        System.out.println("Reconnected to the Server. Rejoining the Table...");
+        repeatPrompt();
+    }
+
+    /**
+     * Asks the Player again for the decision the game is waiting on, as an answer typed while disconnected may not
+     * have reached the Server. The Server ignores a repeated answer to a decision it already has.
+     */
+    private void repeatPrompt(){
+        switch (gameState){
+            case WAITINGBET:
+                System.out.print(String.format("Enter Your Bet (Min: %s): ", Money.format(tableMinBet)));
+                break;
+            case PLAYING:
+                if(gamePlayOptions == null){
+                    return;
+                }
+                printPlayOptions();
+                break;
+            case OFFERINSURANCE:
+                System.out.print("Would you like to buy insurance (Y/N): ");
+                break;
+            case PLAYAGAIN:
+                System.out.print("Would you like to Play Again (Y/N): ");
+                break;
+            default:
+                return;
+        }
+        synchronized (inputThread){
+            inputThread.notify();
+        }
+    }
+
+    /**
+     * Handles the Server being unable to resume this client's session, as it has ended. The client carries on as the
+     * new player the Server seated for the new connection.
+     */
+    private void handleResumeRefused(){
+        resuming = false;
+        sessionToken = fallbackToken;
+        receivedMessages = 0;
+        System.out.println("Your Seat Could Not Be Kept. Joining as a New Player.");
+        gameState = GameState.NOTSTARTED;
+        if(preferBinary){
+            sendLine("C-HELLO-" + ServerOpcode.BINARY_VERSION);
+            binaryRequested = true;
+        }
+    }
+
+    /**
+     * Handles the Server moving this Player onto a new stage of the round
+     * @param stage     The stage being advanced to
+     * @param minBet    The Table Minimum Bet, only sent with BETTINGSTAGE
+     * @param balance   The Player's Balance, only sent with BETTINGSTAGE
+     */
+    private void handleAdvance(String stage, long minBet, long balance){
+        switch (stage){
+            case "BETTINGSTAGE":
+                tableMinBet = minBet;
+                availBalance = balance;
+                synchronized (inputThread){
+                    inputThread.notify();
+                }
+                handleBetStage();
+                break;
+            case "PLAYINGSTAGE":
+                setPlayGameState();
+                break;
+            case "ROUNDOVER":
+                setNotStartedState();
+                break;
+            case "WAITINGOTHERS":
+                setWaitingState();
+                break;
+            case "PLAYAGAIN":
+                synchronized (inputThread){
+                    inputThread.notify();
+                }
+                setPlayAgainState();
+                break;
+        }
+    }
+
+    /**
+     * Handles one of the Player's Hands being sent
+     * @param handNumber    The Number of the Hand
+     * @param handValue     The Numeric Value of the Hand
+     * @param cards         An Array of Cards (Rank then Suit formatted)
+     */
+    private void handlePlayerHand(int handNumber, int handValue, String[] cards){
+        try {
+            Thread.sleep(500);
+        }catch (InterruptedException ignored){}
+        printPlayerHand(handNumber, handValue, cards);
+    }
+
+    /**
+     * Handles the outcome of the Insurance bet
+     * @param outcome           The outcome of the Insurance bet
+     * @param insuranceAmount   The amount of the Insurance bet, only sent with LOSEINSURANCE
+     */
+    private void handleInsurance(String outcome, long insuranceAmount){
+        switch(outcome){
+            case "DEALERBJ":
+                System.out.println("The Dealer has a BlackJack");
+                break;
+            case "NODEALERBJ":
+                System.out.println("The Dealer did not have a BlackJack");
+                break;
+            case "WININSURANCE":
+                System.out.println("Your Insurance has covered your bet. No Money won or Lost");
+                break;
+            case "LOSEINSURANCE":
+                System.out.println(String.format("You have lost your insurance bet of %s", Money.format(insuranceAmount)));
+                break;
+            case "BJNOPAYOUT":
+                System.out.println("Looks like you should have taken the Insurance you Bampot!");
+                break;
+            case "NOBJNOPAYOUT":
+                System.out.println("Can you see the future? Good call not taking Insurance you Legend!");
+                break;
+        }
+    }
+
+    /**
+     * Handles the Server's messages while the Player plays their Hands
+     * @param event     The event during the Playing Stage
+     * @param balance   The Player's new Balance, only sent with DD
+     */
+    private void handlePlayingStage(String event, long balance){
+        switch (event){
+            case "OFFERINSURANCE":
+                gameState = GameState.OFFERINSURANCE;
+                synchronized (inputThread){
+                    inputThread.notify();
+                }
+                System.out.println("The Dealer Has an Ace Showing!");
+                System.out.print("Do you want to buy insurance (Y/N): ");
+                break;
+            case "TOOPOORINSURANCE":
+                synchronized (inputThread){
+                    inputThread.notify();
+                }
+                System.out.println("The Dealer Has an Ace Showing!");
+                System.out.println("Sadly you don't have enough money to buy insurance.");
+                System.out.println("Good Luck!");
+                break;
+            case "PLAYERBJ":
+                System.out.println("You Have BlackJack! Well Done!");
+                try{
+                    Thread.sleep(500);
+                }catch(InterruptedException ignored){}
+                break;
+            case "PLAYERBUST":
+                System.out.println("You Have Gone Bust! Nice One Ya Idgit!");
+                try{
+                    Thread.sleep(500);
+                }catch(InterruptedException ignored){}
+                break;
+            case "PLAYERMAXVAL":
+                System.out.println("Your Hand Is Worth 21. Moving On...");
+                try{
+                    Thread.sleep(500);
+                }catch(InterruptedException ignored){}
+                break;
+            case "HITSTAND":
+            case "HITSTANDDOUBLE":
+            case "HITSTANDDOUBLESPLIT":
+            case "HITSTANDSPLIT":
+                synchronized (inputThread){
+                    inputThread.notify();
+                }
+                gamePlayOptions = event;
+                printPlayOptions();
+                break;
+            case "DD":
+                betAmount *= 2;
+                availBalance = balance;
+                System.out.println(String.format("New Bet Amount: %s", Money.format(betAmount)));
+                System.out.println(String.format("New Balance Amount: %s", Money.format(availBalance)));
+                break;
+            case "SPLITHAND":
+                System.out.println("Hands Split");
+                System.out.println("+--------------------+");
+                break;
+        }
+    }
+
+    /**
+     * Handles the results of the round
+     * @param outcome       The result being paid out
+     * @param handNumber    The Number of the Hand, only sent with the HAND results
+     * @param balance       The Player's new Balance, only sent with the ROUND results
+     * @param payout        The change in the Player's Balance, only sent with the ROUND results
+     */
+    private void handlePayout(String outcome, int handNumber, long balance, long payout){
+        switch(outcome){
+            case "DEALERBJ":
+                System.out.println("Dealer Has BlackJack!");
+                break;
+            case "DEALERBUST":
+                System.out.println("Dealer Has Bust!");
+                break;
+            case "HANDPUSH":
+                System.out.printf("Hand %d Push!\n", handNumber);
+                break;
+            case "HANDWIN":
+                System.out.printf("Hand %d Wins!\n", handNumber);
+                break;
+            case "HANDLOSE":
+                System.out.printf("Hand %d Loses!\n", handNumber);
+                break;
+            case "ROUNDLOSE":
+            case "ROUNDWIN":
+                try {
+                    Thread.sleep(500);
+                }catch (InterruptedException ignored){}
+                availBalance = balance;
+                System.out.println("+--------------------+");
+                System.out.println("Round Update:");
+                System.out.printf("\tNew Balance: %s\n", Money.format(availBalance));
+                System.out.printf("\tBalance Change: %s%s\n", outcome.equals("ROUNDWIN") ? "+" : "-", Money.format(payout));
+                break;
+        }
+    }
+
     /**
      * Handles Messages to be sent to the Server
      * @param message   Message to Be Sent to Server
@@ -356,9 +743,17 @@ public class BlackjackClient {
     private void handleMessage(String message){
         switch (gameState){
             case WAITINGBET:
-                double chosenBet = Double.parseDouble(message);
+                long chosenBet;
+                try{
+                    chosenBet = Money.parse(message);
+                }catch (NumberFormatException e){
+                    System.out.println();
+                    System.out.println("The bet entered is not an amount of money, such as 25 or 25.50!");
+                    System.out.print(String.format("Enter Bet (Min: %s): ", Money.format(tableMinBet)));
+                    break;
+                }
                 if(chosenBet >= tableMinBet && chosenBet <= availBalance){
-                    output.println(String.format("C-BET-%s", message));
+                    sendBet(message, chosenBet);
                     betAmount = chosenBet;
                     inputThreadSleep();
                 }else{
@@ -368,8 +763,8 @@ public class BlackjackClient {
                     }else if(chosenBet > availBalance){
                         System.out.println("The bet entered is greater than your Available Balance:");
                     }
-                    System.out.println(String.format("Available Balance: %.2f", availBalance));
-                    System.out.print(String.format("Enter Bet (Min: %.2f): ", tableMinBet));
+                    System.out.println(String.format("Available Balance: %s", Money.format(availBalance)));
+                    System.out.print(String.format("Enter Bet (Min: %s): ", Money.format(tableMinBet)));
                 }
                 break;
             case PLAYING:
@@ -393,7 +788,7 @@ public class BlackjackClient {
                     System.out.println("Invalid Choice!");
                     System.out.print("Would you like to buy insurance (Y/N): ");
                 }else{
-                    output.println("C-INSURANCE-" + message);
+                    sendChoice("INSURANCE", ServerOpcode.CLIENT_INSURANCE, message);
                     inputThreadSleep();
                 }
                 break;
@@ -402,7 +797,7 @@ public class BlackjackClient {
                     System.out.println("Invalid Choice!");
                     System.out.print("Would you like to Play Again (Y/N): ");
                 }else{
-                    output.println("C-PLAYAGAIN-" + message);
+                    sendChoice("PLAYAGAIN", ServerOpcode.CLIENT_PLAYAGAIN, message);
                     inputThreadSleep();
                 }
                 break;
@@ -424,8 +819,8 @@ public class BlackjackClient {
         }catch (InterruptedException ignored){}
         System.out.println("+--------------------+");
         System.out.println("New Round - It is your Turn to place a Bet");
-        System.out.println(String.format("Available Balance: %.2f", availBalance));
-        System.out.print(String.format("Enter Your Bet (Min: %.2f): ", tableMinBet));
+        System.out.println(String.format("Available Balance: %s", Money.format(availBalance)));
+        System.out.print(String.format("Enter Your Bet (Min: %s): ", Money.format(tableMinBet)));
     }
 
     /**
@@ -541,7 +936,7 @@ public class BlackjackClient {
             }
         }
         if(validOption){
-            output.println(String.format("C-PLAYING-%s",choice));
+            sendChoice("PLAYING", ServerOpcode.CLIENT_PLAYING, choice);
             inputThreadSleep();
         }else{
             System.out.println("Invalid Choice!");
@@ -549,6 +944,65 @@ public class BlackjackClient {
         }
     }
 
+    /**
+     * Sends a line of the text protocol to the Server
+     * @param line  The message, without its line terminator
+     */
+    private void sendLine(String line){
+        send((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends raw bytes to the Server
+     * @param bytes The encoded message
+     */
+    private synchronized void send(byte[] bytes){
+        try{
+            output.write(bytes);
+            output.flush();
+        }catch (IOException ignored){}   //A lost connection is noticed by the read loop
+    }
+
+    /**
+     * Sends the Player's bet, as typed by the Player in the text protocol, or as a varint of cents in the binary protocol
+     * @param typed     The bet as entered by the Player
+     * @param amount    The bet amount, in cents
+     */
+    private void sendBet(String typed, long amount){
+        if(!binaryRequested){
+            sendLine("C-BET-" + typed);
+            return;
+        }
+        byte[] buffer = new byte[13];
+        int length = 3;
+        long minorUnits = amount;
+        while((minorUnits & ~0x7FL) != 0){
+            buffer[length++] = (byte) ((minorUnits & 0x7F) | 0x80);
+            minorUnits >>>= 7;
+        }
+        buffer[length++] = (byte) minorUnits;
+        buffer[0] = (byte) ((length - 2) >>> 8);
+        buffer[1] = (byte) (length - 2);
+        buffer[2] = ServerOpcode.CLIENT_BET;
+        send(Arrays.copyOf(buffer, length));
+    }
+
+    /**
+     * Sends one of the Player's choices. The binary protocol sends only the first letter of the choice, so Split (SP)
+     * is sent as P.
+     * @param type      The message type in the text protocol
+     * @param opcode    The message opcode in the binary protocol
+     * @param choice    The Player's choice
+     */
+    private void sendChoice(String type, byte opcode, String choice){
+        if(!binaryRequested){
+            sendLine("C-" + type + "-" + choice);
+            return;
+        }
+        byte value = (byte) (choice.equals("SP") ? 'P' : choice.charAt(0));
+        send(new byte[]{0, 2, opcode, value});
+    }
+
     /**
      * Sub-Class Which is Thread Executable and Handles User Terminal Input
      */
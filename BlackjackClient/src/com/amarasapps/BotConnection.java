@@ -0,0 +1,411 @@
+package com.amarasapps;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One bot's connection to the Server, driven by a BotFleet event loop. It answers every prompt straight away, betting
+ * the minimum, declining insurance, playing its hands with a BotStrategy and playing again until it has played the
+ * rounds asked for. It speaks either protocol, switching to binary frames once the Server acknowledges the switch.
+ *
+ * Latencies are recorded per phase: the time from answering a prompt until the Server next asks this bot for a
+ * decision, which includes waiting for the other players at the table, and the time from one bet prompt to the next.
+ *
+ * @author Aiden Meikle
+ */
+public class BotConnection {
+
+    //Phases latencies are recorded for, indexes into the loop's histograms
+    public static final int BET = 0;
+    public static final int INSURANCE = 1;
+    public static final int PLAY = 2;
+    public static final int PLAYAGAIN = 3;
+    public static final int ROUND = 4;
+    public static final String[] PHASE_NAMES = {"BET", "INSURANCE", "PLAY", "PLAYAGAIN", "ROUND"};
+
+    private static final int NO_PHASE = -1;
+
+    private final SocketChannel channel;            //Non-blocking channel to the Server
+    private final BotStrategy strategy;             //Chooses the bot's plays
+    private final int rounds;                       //Rounds to play before leaving
+    private final boolean preferBinary;             //Whether to ask the Server for the binary protocol
+    private final LatencyHistogram[] latencies;     //Latencies of each phase, shared by every bot on the loop
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(4096);   //Bytes from the Server not yet handled
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(1024);  //Replies not yet written to the Server
+    private SelectionKey key;                       //The channel's registration with its loop
+    private boolean binaryRequested;                //Whether replies are sent as binary frames
+    private boolean binaryProtocol;                 //Whether the Server's messages are binary frames
+
+    private final int[] handRanks = new int[16];    //Ranks of the cards in the hand last sent, Ace being 1
+    private int handSize;                           //Cards in the hand last sent
+    private int handValue;                          //Value of the hand last sent
+    private int dealerUp;                           //Value of the dealer's up card, an Ace being 11
+
+    private int roundsPlayed;                       //Rounds this bot has finished
+    private int answeredPhase = NO_PHASE;           //Phase of the last prompt answered, until the next prompt
+    private long answeredAt;                        //When the last prompt was answered, in nanoseconds
+    private long roundStartedAt;                    //When the current round's bet prompt arrived, 0 before the first
+    private boolean greeted;                        //Whether the Server has greeted the bot, so has accepted it
+    private boolean done;                           //Whether the bot has finished, its channel closed
+
+    /**
+     * Constructor for a bot whose channel has begun connecting
+     * @param channel       The non-blocking channel to the Server
+     * @param strategy      Chooses the bot's plays
+     * @param rounds        Rounds to play before leaving
+     * @param preferBinary  Whether to ask the Server for the binary protocol
+     * @param latencies     Histograms of each phase's latency, indexed by phase
+     */
+    public BotConnection(SocketChannel channel, BotStrategy strategy, int rounds, boolean preferBinary,
+                         LatencyHistogram[] latencies){
+        this.channel = channel;
+        this.strategy = strategy;
+        this.rounds = rounds;
+        this.preferBinary = preferBinary;
+        this.latencies = latencies;
+    }
+
+    public void setKey(SelectionKey key){
+        this.key = key;
+    }
+
+    public boolean isGreeted(){
+        return greeted;
+    }
+
+    public boolean isDone(){
+        return done;
+    }
+
+    public int getRoundsPlayed(){
+        return roundsPlayed;
+    }
+
+    /**
+     * Finishes connecting to the Server once the channel is ready
+     */
+    public void finishConnect() throws IOException {
+        channel.finishConnect();
+        channel.socket().setTcpNoDelay(true);
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    /**
+     * Reads whatever the Server has sent and answers every complete message
+     */
+    public void read() throws IOException {
+        if(channel.read(readBuffer) < 0){
+            close();
+            return;
+        }
+        readBuffer.flip();
+        while(!done && (binaryProtocol ? nextFrame() : nextLine())){
+        }
+        readBuffer.compact();
+        flush();
+    }
+
+    /**
+     * Writes the replies which did not fit in the socket's buffer last time
+     */
+    public void flush() throws IOException {
+        if(done){
+            return;
+        }
+        writeBuffer.flip();
+        channel.write(writeBuffer);
+        boolean pending = writeBuffer.hasRemaining();
+        writeBuffer.compact();
+        key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    /**
+     * Closes the channel, finishing the bot
+     */
+    public void close(){
+        done = true;
+        key.cancel();
+        try{
+            channel.close();
+        }catch (IOException ignored){}
+    }
+
+    //**Text Protocol**//
+
+    /**
+     * Handles the next complete line in the read buffer
+     * @return True if a line was handled, false if the rest of the line has not arrived
+     */
+    private boolean nextLine(){
+        int start = readBuffer.position();
+        for(int i = start; i < readBuffer.limit(); i++){
+            if(readBuffer.get(i) == '\n'){
+                int end = i > start && readBuffer.get(i - 1) == '\r' ? i - 1 : i;
+                String line = new String(readBuffer.array(), start, end - start, StandardCharsets.UTF_8);
+                readBuffer.position(i + 1);
+                handleLine(line.split("-"));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Handles a line of the text protocol
+     * @param bits The hyphen separated parts of the line
+     */
+    private void handleLine(String[] bits){
+        if(bits.length < 2){
+            return;
+        }
+        switch (bits[1]){
+            case "HELLO":
+                greeted = true;
+                if(bits.length > 2 && bits[2].equals("ACK")){
+                    binaryProtocol = true;
+                }else if(preferBinary){
+                    sendLine("C-HELLO-2");
+                    binaryRequested = true;
+                }
+                break;
+            case "ADVANCE":
+                if(bits[2].equals("BETTINGSTAGE")){
+                    betStage(Money.parse(bits[3]));
+                }else if(bits[2].equals("PLAYAGAIN")){
+                    playAgainStage();
+                }
+                break;
+            case "PLAYERHAND":
+                handValue = Integer.parseInt(bits[3]);
+                handSize = 0;
+                for(int i = 4; i < bits.length && handSize < handRanks.length; i++){
+                    handRanks[handSize++] = rankOf(bits[i]);
+                }
+                break;
+            case "DEALERHAND":
+                dealerUp = upCardValue(rankOf(bits[3]));
+                break;
+            case "PLAYINGSTAGE":
+                playingStage(bits[2]);
+                break;
+            case "GAMEOVER":
+                prompted();
+                close();
+                break;
+        }
+    }
+
+    /**
+     * Reads the rank of a card as sent in the text protocol, such as " JD" or "10C"
+     * @param card The card's name
+     * @return The rank, Ace being 1 and King 13
+     */
+    private static int rankOf(String card){
+        String rank = card.trim();
+        switch (rank.substring(0, rank.length() - 1)){
+            case "A":
+                return 1;
+            case "J":
+                return 11;
+            case "Q":
+                return 12;
+            case "K":
+                return 13;
+            default:
+                return Integer.parseInt(rank.substring(0, rank.length() - 1));
+        }
+    }
+
+    //**Binary Protocol**//
+
+    /**
+     * Handles the next complete frame in the read buffer
+     * @return True if a frame was handled, false if the rest of the frame has not arrived
+     */
+    private boolean nextFrame(){
+        if(readBuffer.remaining() < 2){
+            return false;
+        }
+        int start = readBuffer.position();
+        int length = ((readBuffer.get(start) & 0xFF) << 8) | (readBuffer.get(start + 1) & 0xFF);
+        if(readBuffer.remaining() < 2 + length){
+            return false;
+        }
+        readBuffer.position(start + 2);
+        int end = start + 2 + length;
+        handleFrame(ServerOpcode.fromCode(readBuffer.get()));
+        readBuffer.position(end);
+        return true;
+    }
+
+    /**
+     * Handles a frame of the binary protocol, its values read from the read buffer
+     * @param opcode The frame's opcode, null if unknown
+     */
+    private void handleFrame(ServerOpcode opcode){
+        if(opcode == null){
+            return;
+        }
+        switch (opcode){
+            case ADVANCE_BETTINGSTAGE:
+                betStage(nextMoney());
+                break;
+            case ADVANCE_PLAYAGAIN:
+                playAgainStage();
+                break;
+            case PLAYERHAND:
+                readBuffer.get();   //Hand number
+                handValue = readBuffer.get();
+                handSize = Math.min(readBuffer.get(), handRanks.length);
+                for(int i = 0; i < handSize; i++){
+                    handRanks[i] = readBuffer.get() / 4 + 1;
+                }
+                break;
+            case DEALERHAND:
+                readBuffer.get();   //Hand value
+                readBuffer.get();   //Card count
+                dealerUp = upCardValue(readBuffer.get() / 4 + 1);
+                break;
+            case GAMEOVER:
+                prompted();
+                close();
+                break;
+            default:
+                if(opcode.getType().equals("PLAYINGSTAGE")){
+                    playingStage(opcode.getSubType());
+                }
+        }
+    }
+
+    /**
+     * Reads a money value, a varint of minor units
+     * @return The amount of money, in cents
+     */
+    private long nextMoney(){
+        long minorUnits = 0;
+        int shift = 0;
+        byte b;
+        do{
+            b = readBuffer.get();
+            minorUnits |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }while((b & 0x80) != 0);
+        return minorUnits;
+    }
+
+    //**Answering Prompts**//
+
+    /**
+     * Bets the minimum at the start of a round
+     * @param minimumBet The Table's minimum bet, in cents
+     */
+    private void betStage(long minimumBet){
+        prompted();
+        long now = System.nanoTime();
+        if(roundStartedAt != 0){
+            latencies[ROUND].record(now - roundStartedAt);
+        }
+        roundStartedAt = now;
+        if(binaryRequested){
+            long minorUnits = minimumBet;
+            byte[] varint = new byte[10];
+            int length = 0;
+            while((minorUnits & ~0x7FL) != 0){
+                varint[length++] = (byte) ((minorUnits & 0x7F) | 0x80);
+                minorUnits >>>= 7;
+            }
+            varint[length++] = (byte) minorUnits;
+            writeBuffer.put((byte) 0).put((byte) (length + 1)).put(ServerOpcode.CLIENT_BET).put(varint, 0, length);
+        }else{
+            sendLine("C-BET-" + Money.format(minimumBet));
+        }
+        answered(BET);
+    }
+
+    /**
+     * Answers the Server's messages during the play stage, declining insurance and playing each hand offered
+     * @param event The event during the play stage
+     */
+    private void playingStage(String event){
+        switch (event){
+            case "OFFERINSURANCE":
+                prompted();
+                sendChoice("INSURANCE", ServerOpcode.CLIENT_INSURANCE, "N");
+                answered(INSURANCE);
+                break;
+            case "HITSTAND":
+            case "HITSTANDDOUBLE":
+            case "HITSTANDSPLIT":
+            case "HITSTANDDOUBLESPLIT":
+                prompted();
+                String choice = strategy.play(handValue, handRanks, handSize, dealerUp,
+                        event.contains("DOUBLE"), event.endsWith("SPLIT"));
+                sendChoice("PLAYING", ServerOpcode.CLIENT_PLAYING, choice);
+                answered(PLAY);
+                break;
+        }
+    }
+
+    /**
+     * Plays again until the bot has played the rounds asked for
+     */
+    private void playAgainStage(){
+        prompted();
+        roundsPlayed++;
+        sendChoice("PLAYAGAIN", ServerOpcode.CLIENT_PLAYAGAIN, roundsPlayed < rounds ? "Y" : "N");
+        answered(PLAYAGAIN);
+    }
+
+    /**
+     * Records the latency of the last answer now the Server has asked for another decision
+     */
+    private void prompted(){
+        if(answeredPhase != NO_PHASE){
+            latencies[answeredPhase].record(System.nanoTime() - answeredAt);
+            answeredPhase = NO_PHASE;
+        }
+    }
+
+    /**
+     * Notes that a prompt has been answered, timing until the next
+     * @param phase The phase of the prompt answered
+     */
+    private void answered(int phase){
+        answeredPhase = phase;
+        answeredAt = System.nanoTime();
+    }
+
+    /**
+     * Returns the value of the dealer's up card
+     * @param rank The card's rank, Ace being 1 and King 13
+     * @return The value, an Ace being 11
+     */
+    private static int upCardValue(int rank){
+        return rank == 1 ? 11 : Math.min(rank, 10);
+    }
+
+    /**
+     * Queues a line of the text protocol
+     * @param line The message, without its line terminator
+     */
+    private void sendLine(String line){
+        writeBuffer.put((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Queues one of the bot's choices, as a line or as a frame holding the first letter of the choice
+     * @param type      The message type in the text protocol
+     * @param opcode    The message opcode in the binary protocol
+     * @param choice    The choice
+     */
+    private void sendChoice(String type, byte opcode, String choice){
+        if(!binaryRequested){
+            sendLine("C-" + type + "-" + choice);
+            return;
+        }
+        writeBuffer.put((byte) 0).put((byte) 2).put(opcode).put((byte) (choice.equals("SP") ? 'P' : choice.charAt(0)));
+    }
+}
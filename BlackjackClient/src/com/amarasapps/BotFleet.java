@@ -0,0 +1,245 @@
+package com.amarasapps;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Runs many headless bots from one JVM to put load on the Server. The bots are shared across a few event loop threads,
+ * each watching its bots' non-blocking channels with a Selector, so thousands of connections need only a handful of
+ * threads. Once every bot has finished it prints the rounds played per second and the latency percentiles of each
+ * phase of a round.
+ *
+ * Each loop only has a few bots connecting at once, opening the next as the Server greets each one, so the Server's
+ * accept backlog never overflows. Bots left waiting for a table to fill are stopped once no round has been played
+ * for IDLE_TIMEOUT.
+ *
+ * @author Aiden Meikle
+ */
+public class BotFleet {
+
+    private static final long PROGRESS_INTERVAL = 5000;    //Milliseconds between progress reports
+    private static final long IDLE_TIMEOUT = 30000;         //Milliseconds without a round played before stopping
+    private static final int CONNECTING_PER_LOOP = 16;      //Bots each loop has waiting for the Server's greeting
+
+    private final InetSocketAddress server;     //Address of the Server
+    private final int botCount;                 //Bots to connect
+    private final int rounds;                   //Rounds each bot plays
+    private final BotStrategy strategy;         //How every bot plays its hands
+    private final boolean preferBinary;         //Whether bots ask for the binary protocol
+    private final List<BotLoop> loops = new ArrayList<>();  //Event loops the bots are shared between
+
+    /**
+     * Constructor to set up a fleet of bots
+     * @param address       Address of the Server
+     * @param port          Port of the Server
+     * @param botCount      Bots to connect
+     * @param rounds        Rounds each bot plays
+     * @param strategy      How every bot plays its hands
+     * @param preferBinary  Whether bots ask for the binary protocol
+     */
+    public BotFleet(String address, int port, int botCount, int rounds, BotStrategy strategy, boolean preferBinary){
+        this.server = new InetSocketAddress(address, port);
+        this.botCount = botCount;
+        this.rounds = rounds;
+        this.strategy = strategy;
+        this.preferBinary = preferBinary;
+    }
+
+    /**
+     * Connects every bot, waits for them all to finish and prints the results
+     */
+    public void run() throws IOException, InterruptedException {
+        int loopCount = Math.max(1, Math.min(botCount, Runtime.getRuntime().availableProcessors()));
+        for(int i = 0; i < loopCount; i++){
+            loops.add(new BotLoop());
+        }
+        System.out.println(String.format("Connecting %d Bots to %s:%d on %d Event Loops...", botCount,
+                server.getHostString(), server.getPort(), loopCount));
+        long start = System.nanoTime();
+        for(int i = 0; i < botCount; i++){
+            loops.get(i % loopCount).botsToConnect++;
+        }
+        List<Thread> threads = new ArrayList<>();
+        for(int i = 0; i < loopCount; i++){
+            Thread thread = new Thread(loops.get(i), "Bot-Loop-" + (i + 1));
+            thread.start();
+            threads.add(thread);
+        }
+        long lastRounds = 0;
+        long lastProgress = System.currentTimeMillis();
+        for(Thread thread: threads){
+            while(thread.isAlive()){
+                thread.join(PROGRESS_INTERVAL);
+                if(!thread.isAlive()){
+                    break;
+                }
+                long rounds = roundsPlayed();
+                System.out.println(String.format("Rounds Played: %d", rounds));
+                if(rounds != lastRounds){
+                    lastRounds = rounds;
+                    lastProgress = System.currentTimeMillis();
+                }else if(System.currentTimeMillis() - lastProgress >= IDLE_TIMEOUT){
+                    System.out.println("No Rounds Played Recently, Stopping the Bots Still Waiting");
+                    for(BotLoop loop: loops){
+                        loop.stop();
+                    }
+                }
+            }
+        }
+        printResults((System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Returns the rounds finished so far by every bot
+     * @return The number of rounds
+     */
+    private long roundsPlayed(){
+        long total = 0;
+        for(BotLoop loop: loops){
+            total += loop.roundsPlayed;
+        }
+        return total;
+    }
+
+    /**
+     * Prints the rounds played per second and the latency percentiles of each phase
+     * @param seconds The time taken by the whole fleet
+     */
+    private void printResults(double seconds){
+        LatencyHistogram[] latencies = new LatencyHistogram[BotConnection.PHASE_NAMES.length];
+        int failed = 0;
+        int stopped = 0;
+        for(int phase = 0; phase < latencies.length; phase++){
+            latencies[phase] = new LatencyHistogram();
+        }
+        for(BotLoop loop: loops){
+            failed += loop.failedBots;
+            stopped += loop.stoppedBots;
+            for(int phase = 0; phase < latencies.length; phase++){
+                latencies[phase].add(loop.latencies[phase]);
+            }
+        }
+        long rounds = roundsPlayed();
+        System.out.println("+--------------------+");
+        System.out.println(String.format("Bots: %d (Failed to Connect: %d, Stopped Waiting: %d)", botCount, failed, stopped));
+        System.out.println(String.format("Rounds Played: %d in %.2fs (%.1f Rounds/s)", rounds, seconds, rounds / seconds));
+        System.out.println(String.format("%-10s %10s %10s %10s %10s %10s %10s", "Phase", "Count", "p50 (ms)", "p90 (ms)",
+                "p99 (ms)", "p99.9 (ms)", "Max (ms)"));
+        for(int phase = 0; phase < latencies.length; phase++){
+            LatencyHistogram histogram = latencies[phase];
+            System.out.println(String.format("%-10s %10d %10.3f %10.3f %10.3f %10.3f %10.3f", BotConnection.PHASE_NAMES[phase],
+                    histogram.count(), histogram.percentile(0.5) / 1000.0, histogram.percentile(0.9) / 1000.0,
+                    histogram.percentile(0.99) / 1000.0, histogram.percentile(0.999) / 1000.0, histogram.max() / 1000.0));
+        }
+    }
+
+    /**
+     * An event loop driving its share of the bots until every one has finished
+     */
+    private class BotLoop implements Runnable {
+
+        private final Selector selector;            //Watches the loop's channels
+        private final List<BotConnection> bots = new ArrayList<>();     //Bots driven by this loop
+        private final LatencyHistogram[] latencies = new LatencyHistogram[BotConnection.PHASE_NAMES.length];
+        private volatile long roundsPlayed;         //Rounds finished by the loop's bots, read for progress reports
+        private volatile boolean stopping;          //Whether the fleet has given up on the loop's remaining bots
+        private int botsToConnect;                  //Bots still to be opened
+        private int connecting;                     //Bots opened which the Server has not yet greeted
+        private int failedBots;                     //Bots which could not connect
+        private int stoppedBots;                    //Bots still running when the loop was stopped
+
+        BotLoop() throws IOException {
+            selector = Selector.open();
+            for(int phase = 0; phase < latencies.length; phase++){
+                latencies[phase] = new LatencyHistogram();
+            }
+        }
+
+        /**
+         * Stops every bot still running, from the fleet's thread
+         */
+        void stop(){
+            stopping = true;
+            selector.wakeup();
+        }
+
+        /**
+         * Starts connecting a new bot
+         */
+        void connect() throws IOException {
+            botsToConnect--;
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            BotConnection bot = new BotConnection(channel, strategy, rounds, preferBinary, latencies);
+            int interest = channel.connect(server) ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT;
+            bot.setKey(channel.register(selector, interest, bot));
+            bots.add(bot);
+            connecting++;
+        }
+
+        @Override
+        public void run() {
+            int running = botsToConnect;
+            try{
+                while(running > 0 && !stopping){
+                    while(botsToConnect > 0 && connecting < CONNECTING_PER_LOOP){
+                        try{
+                            connect();
+                        }catch (IOException e){
+                            failedBots++;
+                            running--;
+                        }
+                    }
+                    selector.select();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while(keys.hasNext()){
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        BotConnection bot = (BotConnection) key.attachment();
+                        int playedBefore = bot.getRoundsPlayed();
+                        boolean greetedBefore = bot.isGreeted();
+                        try{
+                            if(key.isConnectable()){
+                                bot.finishConnect();
+                            }else{
+                                if(key.isReadable()){
+                                    bot.read();
+                                }
+                                if(!bot.isDone() && key.isValid() && key.isWritable()){
+                                    bot.flush();
+                                }
+                            }
+                        }catch (IOException e){
+                            if(key.isConnectable()){
+                                failedBots++;
+                            }
+                            bot.close();
+                        }
+                        roundsPlayed += bot.getRoundsPlayed() - playedBefore;
+                        if(!greetedBefore && (bot.isGreeted() || bot.isDone())){
+                            connecting--;
+                        }
+                        if(bot.isDone()){
+                            running--;
+                        }
+                    }
+                }
+                for(BotConnection bot: bots){
+                    if(!bot.isDone()){
+                        stoppedBots++;
+                        bot.close();
+                    }
+                }
+                selector.close();
+            }catch (IOException e){
+                e.printStackTrace();
+            }
+        }
+    }
+}
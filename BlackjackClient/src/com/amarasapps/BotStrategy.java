@@ -0,0 +1,54 @@
+package com.amarasapps;
+
+/**
+ * How a bot answers the Server's play options, from the value and card ranks of its hand and the dealer's up card.
+ * BASIC plays the BasicStrategyChart shared with the Server, DEALER hits below 17 like the dealer, and STAND never
+ * draws. Bots always decline insurance.
+ *
+ * @author Aiden Meikle
+ */
+public enum BotStrategy {
+    BASIC, DEALER, STAND;
+
+    /**
+     * Chooses a play for the hand
+     * @param handValue The value of the hand, as sent by the Server
+     * @param ranks     The rank of each card in the hand, Ace being 1 and King 13
+     * @param count     The number of cards in the hand
+     * @param dealerUp  The value of the dealer's up card, an Ace being 11
+     * @param canDouble Whether the Server offered doubling down
+     * @param canSplit  Whether the Server offered splitting
+     * @return The choice as sent to the Server: H, S, D or SP
+     */
+    public String play(int handValue, int[] ranks, int count, int dealerUp, boolean canDouble, boolean canSplit){
+        switch (this){
+            case STAND:
+                return "S";
+            case DEALER:
+                return handValue < 17 ? "H" : "S";
+            default:
+                return basic(handValue, ranks, count, dealerUp, canDouble, canSplit);
+        }
+    }
+
+    /**
+     * Plays basic strategy from the chart shared with the Server
+     */
+    private static String basic(int handValue, int[] ranks, int count, int up, boolean canDouble, boolean canSplit){
+        int hardTotal = 0;
+        for(int i = 0; i < count; i++){
+            hardTotal += Math.min(ranks[i], 10);
+        }
+        boolean soft = handValue != hardTotal;     //An Ace is being counted as 11
+        switch (BasicStrategyChart.play(handValue, soft, up, canDouble, canSplit, Math.min(ranks[0], 10))){
+            case SPLIT:
+                return "SP";
+            case DOUBLE:
+                return "D";
+            case STAND:
+                return "S";
+            default:
+                return "H";
+        }
+    }
+}
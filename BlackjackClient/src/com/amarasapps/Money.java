@@ -0,0 +1,75 @@
+package com.amarasapps;
+
+/**
+ * Money is held as a long of whole cents, as the server holds it, so the balance shown always matches the server's.
+ * Amounts are converted here to and from the decimals typed by the user and sent in the text protocol, without going
+ * through a double.
+ *
+ * @author Aiden Meikle
+ */
+public final class Money {
+
+    public static final long CENTS_PER_UNIT = 100;
+    private static final int MAX_UNIT_DIGITS = 15;     //Keeps every amount parsed well inside a long of cents
+
+    private Money(){}
+
+    /**
+     * Reads an amount written with at most two decimal places, such as 25, 25.5 or 25.50
+     * @param amount    The amount as text
+     * @return The amount in cents
+     * @throws NumberFormatException If the text is not an amount of money, or is negative
+     */
+    public static long parse(String amount){
+        int point = amount.indexOf('.');
+        int unitsEnd = point < 0 ? amount.length() : point;
+        int decimals = point < 0 ? 0 : amount.length() - point - 1;
+        if(unitsEnd == 0 || unitsEnd > MAX_UNIT_DIGITS || decimals > 2 || (point >= 0 && decimals == 0)){
+            throw new NumberFormatException("Not an amount of money: " + amount);
+        }
+        long cents = 0;
+        for(int i = 0; i < amount.length(); i++){
+            if(i == point){
+                continue;
+            }
+            char c = amount.charAt(i);
+            if(c < '0' || c > '9'){
+                throw new NumberFormatException("Not an amount of money: " + amount);
+            }
+            cents = cents * 10 + (c - '0');
+        }
+        for(int i = decimals; i < 2; i++){
+            cents *= 10;
+        }
+        return cents;
+    }
+
+    /**
+     * Writes an amount with two decimal places, such as 25.50 or -3.05
+     * @param cents The amount in cents
+     * @return The amount as text
+     */
+    public static String format(long cents){
+        StringBuilder text = new StringBuilder(24);
+        return append(text, cents).toString();
+    }
+
+    /**
+     * Appends an amount with two decimal places to a message being built
+     * @param text  The message being built
+     * @param cents The amount in cents
+     * @return The message
+     */
+    public static StringBuilder append(StringBuilder text, long cents){
+        if(cents < 0){
+            text.append('-');
+            cents = -cents;
+        }
+        long fraction = cents % CENTS_PER_UNIT;
+        text.append(cents / CENTS_PER_UNIT).append('.');
+        if(fraction < 10){
+            text.append('0');
+        }
+        return text.append(fraction);
+    }
+}
@@ -0,0 +1,114 @@
+package com.amarasapps;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads server messages as text lines or as binary frames. Unlike a BufferedReader it never decodes bytes past the
+ * end of the current message, so the stream can switch from text to binary once the server acknowledges the switch.
+ *
+ * @author Aiden Meikle
+ */
+public class ServerInput {
+
+    private final InputStream input;            //Buffered stream from the server
+    private byte[] frame = new byte[64];        //Body of the last frame read
+    private int frameLength;                    //Number of bytes in the last frame
+    private int position;                       //Next byte of the frame to be read
+    private byte[] lineBuffer = new byte[128];  //Bytes of the line being read
+
+    /**
+     * Constructor to wrap the server's input stream
+     * @param input The raw stream from the socket
+     */
+    public ServerInput(InputStream input){
+        this.input = new BufferedInputStream(input);
+    }
+
+    /**
+     * Reads the next line of the text protocol
+     * @return The line without its terminator, or null if the server has disconnected
+     */
+    public String readLine() throws IOException {
+        int length = 0;
+        int b;
+        while((b = input.read()) != '\n'){
+            if(b < 0){
+                return null;
+            }
+            if(length == lineBuffer.length){
+                byte[] larger = new byte[lineBuffer.length * 2];
+                System.arraycopy(lineBuffer, 0, larger, 0, length);
+                lineBuffer = larger;
+            }
+            lineBuffer[length++] = (byte) b;
+        }
+        if(length > 0 && lineBuffer[length - 1] == '\r'){
+            length--;
+        }
+        return new String(lineBuffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the next frame of the binary protocol, leaving its values to be read with nextByte and nextMoney
+     * @return The frame's opcode byte, or -1 if the server has disconnected
+     */
+    public int readFrame() throws IOException {
+        int high = input.read();
+        int low = input.read();
+        if(high < 0 || low < 0){
+            return -1;
+        }
+        frameLength = (high << 8) | low;
+        if(frameLength == 0){
+            throw new IOException("Empty frame from server");
+        }
+        if(frameLength > frame.length){
+            frame = new byte[frameLength];
+        }
+        int read = 0;
+        while(read < frameLength){
+            int count = input.read(frame, read, frameLength - read);
+            if(count < 0){
+                throw new EOFException("Server disconnected part way through a frame");
+            }
+            read += count;
+        }
+        position = 1;
+        return frame[0] & 0xFF;
+    }
+
+    /**
+     * Reads the next single byte value of the current frame
+     * @return The byte value
+     */
+    public byte nextByte(){
+        return frame[position++];
+    }
+
+    /**
+     * Reads the next money value of the current frame, a varint of minor units
+     * @return The amount of money, in cents
+     */
+    public long nextMoney(){
+        long minorUnits = 0;
+        int shift = 0;
+        byte b;
+        do{
+            b = frame[position++];
+            minorUnits |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }while((b & 0x80) != 0);
+        return minorUnits;
+    }
+
+    /**
+     * Closes the stream from the server
+     */
+    public void close() throws IOException {
+        input.close();
+    }
+}
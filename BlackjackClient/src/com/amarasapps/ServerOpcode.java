@@ -0,0 +1,99 @@
+package com.amarasapps;
+
+/**
+ * Every message the server can send when using the binary protocol, with the type and sub-type the same message
+ * has in the text protocol (for example S-PAYOUTSTAGE-HANDWIN is PAYOUTSTAGE and HANDWIN)
+ *
+ * @author Aiden Meikle
+ */
+public enum ServerOpcode {
+    ADVANCE_BETTINGSTAGE(0x01, "ADVANCE", "BETTINGSTAGE"),
+    ADVANCE_PLAYINGSTAGE(0x02, "ADVANCE", "PLAYINGSTAGE"),
+    ADVANCE_ROUNDOVER(0x03, "ADVANCE", "ROUNDOVER"),
+    ADVANCE_WAITINGOTHERS(0x04, "ADVANCE", "WAITINGOTHERS"),
+    ADVANCE_PLAYAGAIN(0x05, "ADVANCE", "PLAYAGAIN"),
+
+    PLAYERHAND(0x10, "PLAYERHAND", ""),
+    DEALERHAND(0x11, "DEALERHAND", ""),
+
+    INSURANCE_DEALERBJ(0x20, "INSURANCE", "DEALERBJ"),
+    INSURANCE_NODEALERBJ(0x21, "INSURANCE", "NODEALERBJ"),
+    INSURANCE_WININSURANCE(0x22, "INSURANCE", "WININSURANCE"),
+    INSURANCE_LOSEINSURANCE(0x23, "INSURANCE", "LOSEINSURANCE"),
+    INSURANCE_BJNOPAYOUT(0x24, "INSURANCE", "BJNOPAYOUT"),
+    INSURANCE_NOBJNOPAYOUT(0x25, "INSURANCE", "NOBJNOPAYOUT"),
+
+    PLAYINGSTAGE_OFFERINSURANCE(0x30, "PLAYINGSTAGE", "OFFERINSURANCE"),
+    PLAYINGSTAGE_TOOPOORINSURANCE(0x31, "PLAYINGSTAGE", "TOOPOORINSURANCE"),
+    PLAYINGSTAGE_PLAYERBJ(0x32, "PLAYINGSTAGE", "PLAYERBJ"),
+    PLAYINGSTAGE_PLAYERBUST(0x33, "PLAYINGSTAGE", "PLAYERBUST"),
+    PLAYINGSTAGE_PLAYERMAXVAL(0x34, "PLAYINGSTAGE", "PLAYERMAXVAL"),
+    PLAYINGSTAGE_HITSTAND(0x35, "PLAYINGSTAGE", "HITSTAND"),
+    PLAYINGSTAGE_HITSTANDDOUBLE(0x36, "PLAYINGSTAGE", "HITSTANDDOUBLE"),
+    PLAYINGSTAGE_HITSTANDSPLIT(0x37, "PLAYINGSTAGE", "HITSTANDSPLIT"),
+    PLAYINGSTAGE_HITSTANDDOUBLESPLIT(0x38, "PLAYINGSTAGE", "HITSTANDDOUBLESPLIT"),
+    PLAYINGSTAGE_DD(0x39, "PLAYINGSTAGE", "DD"),
+    PLAYINGSTAGE_SPLITHAND(0x3A, "PLAYINGSTAGE", "SPLITHAND"),
+
+    PAYOUTSTAGE_DEALERBJ(0x40, "PAYOUTSTAGE", "DEALERBJ"),
+    PAYOUTSTAGE_DEALERBUST(0x41, "PAYOUTSTAGE", "DEALERBUST"),
+    PAYOUTSTAGE_HANDWIN(0x42, "PAYOUTSTAGE", "HANDWIN"),
+    PAYOUTSTAGE_HANDLOSE(0x43, "PAYOUTSTAGE", "HANDLOSE"),
+    PAYOUTSTAGE_HANDPUSH(0x44, "PAYOUTSTAGE", "HANDPUSH"),
+    PAYOUTSTAGE_ROUNDWIN(0x45, "PAYOUTSTAGE", "ROUNDWIN"),
+    PAYOUTSTAGE_ROUNDLOSE(0x46, "PAYOUTSTAGE", "ROUNDLOSE"),
+
+    LOWBALANCE(0x50, "LOWBALANCE", ""),
+    GAMEOVER(0x51, "GAMEOVER", "");
+
+    //Opcodes of the messages the client sends using the binary protocol
+    public static final byte CLIENT_BET = (byte) 0x81;
+    public static final byte CLIENT_PLAYING = (byte) 0x82;
+    public static final byte CLIENT_INSURANCE = (byte) 0x83;
+    public static final byte CLIENT_PLAYAGAIN = (byte) 0x84;
+
+    public static final int TEXT_VERSION = 1;           //Hyphen separated text lines
+    public static final int BINARY_VERSION = 2;         //Length prefixed binary frames
+    public static final byte HIDDEN_CARD = (byte) 0xFF; //Card code sent in place of the dealer's hole card
+
+    private static final ServerOpcode[] BY_CODE = new ServerOpcode[256];    //Opcode lookup by code
+
+    static {
+        for(ServerOpcode opcode: values()){
+            BY_CODE[opcode.code & 0xFF] = opcode;
+        }
+    }
+
+    private final byte code;        //Opcode byte in the binary protocol
+    private final String type;      //Message type in the text protocol
+    private final String subType;   //Message sub-type in the text protocol
+
+    /**
+     * Initialise the Opcode with its code and text protocol names
+     * @param code      The opcode byte
+     * @param type      The message type
+     * @param subType   The message sub-type, empty if there is none
+     */
+    ServerOpcode(int code, String type, String subType){
+        this.code = (byte) code;
+        this.type = type;
+        this.subType = subType;
+    }
+
+    /**
+     * Finds the opcode with the given code
+     * @param code The opcode byte read from a frame
+     * @return The matching opcode, or null if the code is unknown
+     */
+    public static ServerOpcode fromCode(byte code){
+        return BY_CODE[code & 0xFF];
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getSubType() {
+        return subType;
+    }
+}
@@ -0,0 +1,93 @@
+package com.amarasapps;
+
+/**
+ * The basic strategy chart for the Server's rules: the dealer stands on every 17, any pair may be split with doubling
+ * allowed afterwards, doubling down needs a hand worth 9, 10 or 11 and there is no surrender. The Server's simulations
+ * and the client's bots both play from this chart, each describing the hand in its own terms.
+ *
+ * @author Aiden Meikle
+ */
+public final class BasicStrategyChart {
+
+    /**
+     * The choices the chart makes
+     */
+    public enum Choice {
+        HIT, STAND, DOUBLE, SPLIT
+    }
+
+    private BasicStrategyChart(){}
+
+    /**
+     * Chooses a play for the hand
+     * @param value     The value of the hand
+     * @param soft      Whether an Ace in the hand is being counted as 11
+     * @param up        The value of the dealer's up card, an Ace being 11
+     * @param canDouble Whether the hand may be doubled down
+     * @param canSplit  Whether the hand is a pair which may be split
+     * @param pairCard  The value of each card in the pair, an Ace being 1, ignored unless the hand may be split
+     * @return The choice for the hand, DOUBLE and SPLIT only being chosen when they are allowed
+     */
+    public static Choice play(int value, boolean soft, int up, boolean canDouble, boolean canSplit, int pairCard){
+        if(canSplit && splitsPair(pairCard, up)){
+            return Choice.SPLIT;
+        }
+        if(soft){
+            return playSoft(value, up);
+        }
+        if(value >= 17){
+            return Choice.STAND;
+        }
+        if(value >= 13){
+            return up <= 6 ? Choice.STAND : Choice.HIT;
+        }
+        if(value == 12){
+            return up >= 4 && up <= 6 ? Choice.STAND : Choice.HIT;
+        }
+        boolean doubles = (value == 11 && up <= 10) || (value == 10 && up <= 9) || (value == 9 && up >= 3 && up <= 6);
+        return doubles && canDouble ? Choice.DOUBLE : Choice.HIT;
+    }
+
+    /**
+     * Plays a hand with an Ace counted as 11. A soft hand is worth at least 12, so it can never be doubled down under
+     * these rules, and the soft doubles of the usual chart are hit instead.
+     * @param value The hand's value
+     * @param up    The value of the dealer's up card, an Ace being 11
+     * @return The choice for the hand
+     */
+    private static Choice playSoft(int value, int up){
+        if(value >= 19){
+            return Choice.STAND;
+        }
+        if(value == 18){
+            return up <= 8 ? Choice.STAND : Choice.HIT;
+        }
+        return Choice.HIT;
+    }
+
+    /**
+     * Checks whether a pair should be split
+     * @param card  The value of each card in the pair, an Ace being 1
+     * @param up    The value of the dealer's up card, an Ace being 11
+     * @return True if the pair is split
+     */
+    private static boolean splitsPair(int card, int up){
+        switch (card){
+            case 1:
+            case 8:
+                return true;
+            case 2:
+            case 3:
+            case 7:
+                return up <= 7;
+            case 4:
+                return up == 5 || up == 6;
+            case 6:
+                return up <= 6;
+            case 9:
+                return up <= 9 && up != 7;
+            default:
+                return false;   //5s are played as a 10, 10s stand
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.amarasapps;
+
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * JMH benchmarks of building, shuffling and dealing from CardShoes and Decks. Dealing is measured both as a whole shoe
+ * dealt to its end and as the deal and return of a single card in a continuously shuffled shoe.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CardShoeBenchmark {
+
+    @Param({"1", "8"})
+    public int decks;           //Decks in each shoe
+
+    private ShuffleRandom random;       //Generator for every shoe, as a Table has its own
+    private CardShoe dealtShoe;         //Fresh shoe for each call of dealShoe
+    private CardShoe continuousShoe;    //Shoe cards are dealt from and returned to
+
+    @Setup(Level.Trial)
+    public void setUpTrial(){
+        random = new SplittableRandom(42)::nextInt;
+        continuousShoe = new CardShoe(decks, random);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpShoe(){
+        dealtShoe = new CardShoe(decks, random);
+    }
+
+    @Benchmark
+    public CardShoe buildShoe(){
+        return new CardShoe(decks, random);
+    }
+
+    @Benchmark
+    public void dealShoe(Blackhole blackhole){
+        CardShoe shoe = dealtShoe;
+        while(shoe.cardsLeft() > 0){
+            blackhole.consume(shoe.dealCard());
+        }
+    }
+
+    @Benchmark
+    public Card dealAndReturnCard(){
+        Card card = continuousShoe.dealCard();
+        continuousShoe.returnCard(card.getCode());
+        return card;
+    }
+
+    @Benchmark
+    public Deck shuffleDeck(){
+        Deck deck = new Deck();
+        deck.shuffleDeck(random);
+        return deck;
+    }
+}
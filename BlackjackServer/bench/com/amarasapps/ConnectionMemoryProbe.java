@@ -0,0 +1,112 @@
+package com.amarasapps;
+
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Measures the memory each idle, seated connection costs when using the blocking transport, with Players running on
+ * either platform or virtual threads. Opens the given number of loopback connections to an in-process Lobby whose
+ * Tables never fill, so every Player stays seated and idle, then reports the heap and resident set growth per connection.
+ *
+ * Usage: java com.amarasapps.ConnectionMemoryProbe [PLATFORM|VIRTUAL] [CONNECTIONS]
+ */
+public class ConnectionMemoryProbe {
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0].toUpperCase() : "PLATFORM";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        PrintStream report = System.out;
+        System.setOut(new PrintStream(new OutputStream(){ public void write(int b){} }));   //Silence the per-client Lobby log
+
+        TableSettings settings = new TableSettings(10000, 8, 80, connections + 1, 50000);
+        Lobby lobby = new Lobby(settings, ServerThreads.forMode(mode));
+        ServerSocket serverSocket = new ServerSocket(0, connections, InetAddress.getLoopbackAddress());
+        AtomicInteger seated = new AtomicInteger();
+
+        Thread acceptor = new Thread(() -> {
+            try{
+                while(true){
+                    lobby.seatPlayer(serverSocket.accept());
+                    seated.incrementAndGet();
+                }
+            }catch (IOException ignored){}
+        }, "Acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        long heapBefore = usedHeap();
+        long rssBefore = residentSetKb();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        ArrayList<Socket> clients = new ArrayList<>();
+        for(int i = 0; i < connections; i++){
+            clients.add(new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort()));
+        }
+        while(seated.get() < connections){
+            Thread.sleep(50);
+        }
+        Thread.sleep(2000);     //Let every Player thread reach its idle loop
+
+        long heapAfter = usedHeap();
+        long rssAfter = residentSetKb();
+        int threadsAfter = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        report.printf("Mode: %s%nConnections: %d%n", mode, connections);
+        report.printf("Platform Threads Added: %d%n", threadsAfter - threadsBefore);
+        report.printf("Heap Per Connection: %.1f KB%n", (heapAfter - heapBefore) / 1024.0 / connections);
+        if(rssBefore >= 0){
+            report.printf("Resident Memory Per Connection: %.1f KB%n", (rssAfter - rssBefore) / (double) connections);
+        }
+
+        for(Socket client: clients){
+            client.close();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Returns the heap in use after asking for a full collection
+     * @return Used heap in bytes
+     */
+    private static long usedHeap() throws InterruptedException {
+        for(int i = 0; i < 3; i++){
+            System.gc();
+            Thread.sleep(100);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Reads the resident set size of this process, which includes the native stacks of platform threads
+     * @return Resident memory in KB, or -1 where /proc is not available
+     */
+    private static long residentSetKb() throws IOException {
+        Path status = Paths.get("/proc/self/status");
+        if(!Files.exists(status)){
+            return -1;
+        }
+        for(String line: Files.readAllLines(status)){
+            if(line.startsWith("VmRSS:")){
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,91 @@
+package com.amarasapps;
+
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * JMH benchmarks of building a BJHand card by card and valuing it. The cards come from a shuffled shoe laid out in
+ * an array beforehand, so every hand is different but no dealing is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandBenchmark {
+
+    private static final int CARDS = 8 * Card.DECK_SIZE;    //Cards laid out, an 8 deck shoe
+
+    private final Card[] cards = new Card[CARDS];   //Cards hands are built from, in shuffled order
+    private final BJHand hand = new BJHand();       //Hand reused by every call
+    private final BJHand dealtHand = new BJHand();  //Three card hand valued by handValue
+    private int next;                               //Position of the next card to add
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        CardShoe shoe = new CardShoe(8, new SplittableRandom(42)::nextInt);
+        for(int i = 0; i < CARDS; i++){
+            cards[i] = shoe.dealCard();
+        }
+        for(int i = 0; i < 3; i++){
+            dealtHand.addCard(cards[i]);
+        }
+    }
+
+    /**
+     * Returns the next card laid out, going back to the first after the last
+     * @return The card
+     */
+    private Card nextCard(){
+        Card card = cards[next];
+        next = next + 1 == CARDS ? 0 : next + 1;
+        return card;
+    }
+
+    @Benchmark
+    public int addCards(){
+        hand.clear();
+        hand.addCard(nextCard());
+        hand.addCard(nextCard());
+        hand.addCard(nextCard());
+        return hand.size();
+    }
+
+    @Benchmark
+    public int addCardsAndValue(){
+        hand.clear();
+        hand.addCard(nextCard());
+        hand.addCard(nextCard());
+        int value = hand.handValue();
+        hand.addCard(nextCard());
+        return value + hand.handValue();
+    }
+
+    @Benchmark
+    public int handValue(){
+        return dealtHand.handValue();
+    }
+
+    @Benchmark
+    public int evaluate(){
+        return HandEvaluator.evaluate(dealtHand);
+    }
+}
@@ -0,0 +1,68 @@
+package com.amarasapps;
+
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * JMH benchmarks of encoding the messages sent most often in a round, as Player.sendPlayerHandState and the dealer's
+ * Broadcasts do, in each protocol.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProtocolBenchmark {
+
+    @Param({"TEXT", "BINARY"})
+    public String protocolName;     //Protocol the messages are encoded in
+
+    @Param({"2", "5"})
+    public int handSize;            //Cards in the encoded hands
+
+    private Protocol protocol;
+    private final BJHand hand = new BJHand();
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        protocol = protocolName.equals("TEXT") ? TextProtocol.INSTANCE : BinaryProtocol.INSTANCE;
+        CardShoe shoe = new CardShoe(1, new SplittableRandom(42)::nextInt);
+        for(int i = 0; i < handSize; i++){
+            hand.addCard(shoe.dealCard());
+        }
+    }
+
+    @Benchmark
+    public byte[] encodePlayerHand(){
+        return protocol.encodePlayerHand(1, hand);
+    }
+
+    @Benchmark
+    public byte[] encodeDealerHand(){
+        return protocol.encodeDealerHand(hand.handValue(), hand, true);
+    }
+
+    @Benchmark
+    public byte[] encodeRoundPayout(){
+        return protocol.encodeMoney(Opcode.PAYOUTSTAGE_ROUNDWIN, 65000, 15000);
+    }
+}
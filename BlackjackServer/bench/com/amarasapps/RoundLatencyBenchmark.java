@@ -0,0 +1,218 @@
+package com.amarasapps;
+
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Measures whole rounds end to end. Starts a Lobby and the NIO transport in-process and connects scripted text protocol
+ * clients over loopback, which bet the minimum, decline insurance, hit below 17 and play again until they have played
+ * the given number of rounds. Each Table times its stages through a RoundObserver, so the latches, event loops and
+ * sockets between the Table and its clients are all part of what is measured. The first rounds at each Table warm up
+ * the JIT and are left out.
+ *
+ * Prints one JSON object: the rounds played per second across every Table, and for each RoundPhase the number of
+ * times it was played and its p50, p99, p999 and longest time in microseconds.
+ *
+ * Usage: java com.amarasapps.RoundLatencyBenchmark [TABLES] [PLAYERS] [ROUNDS] [WARMUP ROUNDS]
+ */
+public class RoundLatencyBenchmark {
+
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p99", "p999"};
+
+    public static void main(String[] args) throws Exception {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        int warmup = Math.max(1, args.length > 3 ? Integer.parseInt(args[3]) : Math.min(500, rounds / 4));
+
+        PrintStream report = System.out;
+        System.setOut(new PrintStream(new OutputStream(){ public void write(int b){} }));   //Silence the Table and Lobby log
+
+        TableSettings settings = new TableSettings(10000, 8, 80, players, players, 100000000000L,
+                TableSettings.DEFAULT_BET_TIMEOUT, TableSettings.DEFAULT_INSURANCE_TIMEOUT,
+                TableSettings.DEFAULT_PLAY_TIMEOUT, TableSettings.DEFAULT_PLAY_AGAIN_TIMEOUT);
+        Lobby lobby = new Lobby(settings, ServerThreads.platformThreads(),
+                new SessionRegistry(0), new RandomSource(RandomSource.FAST));
+        PhaseRecorder recorder = new PhaseRecorder(warmup);
+        lobby.setRoundObserver(recorder);
+
+        NioTransport transport = new NioTransport(0, Runtime.getRuntime().availableProcessors(), lobby);
+        Thread acceptor = new Thread(() -> {
+            try{
+                transport.acceptClients();
+            }catch (IOException ignored){}
+        }, "Acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        ArrayList<Thread> clients = new ArrayList<>();
+        for(int i = 0; i < tables * players; i++){
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), transport.getLocalPort());
+            socket.setTcpNoDelay(true);
+            Thread client = new Thread(new ScriptedClient(socket, rounds), "Client-" + (i + 1));
+            client.start();
+            clients.add(client);
+        }
+        for(Thread client: clients){
+            client.join();
+        }
+        while(lobby.runningTableCount() > 0){
+            Thread.sleep(10);       //Let each Table finish its last round once its players have left
+        }
+
+        report.println(recorder.toJson(tables, players, rounds, warmup));
+        System.exit(0);
+    }
+
+    /**
+     * Records the time each Table spends in every stage of its rounds, once it has played its warm up rounds
+     */
+    private static class PhaseRecorder implements RoundObserver {
+
+        private final int warmup;       //Rounds each Table plays before it is measured
+        private final Map<Integer, TableTimings> timings = new ConcurrentHashMap<>();
+
+        PhaseRecorder(int warmup){
+            this.warmup = warmup;
+        }
+
+        @Override
+        public void phaseEnded(int tableId, RoundPhase phase, long nanos) {
+            TableTimings table = timings.computeIfAbsent(tableId, id -> new TableTimings());
+            if(table.rounds >= warmup){
+                table.phases[phase.ordinal()].record(nanos);
+            }
+        }
+
+        @Override
+        public void roundEnded(int tableId) {
+            TableTimings table = timings.computeIfAbsent(tableId, id -> new TableTimings());
+            table.rounds++;
+            if(table.rounds == warmup){
+                table.measuredFrom = System.nanoTime();
+            }else if(table.rounds > warmup){
+                table.measuredTo = System.nanoTime();
+            }
+        }
+
+        /**
+         * Combines every Table's timings into the report
+         * @return The report as a single line of JSON
+         */
+        String toJson(int tables, int players, int rounds, int warmup){
+            LatencyHistogram[] phases = newHistograms();
+            double roundsPerSecond = 0;
+            long measuredRounds = 0;
+            for(TableTimings table: timings.values()){
+                for(int i = 0; i < phases.length; i++){
+                    phases[i].add(table.phases[i]);
+                }
+                long tableRounds = table.rounds - warmup;
+                if(tableRounds > 0){
+                    measuredRounds += tableRounds;
+                    roundsPerSecond += tableRounds / ((table.measuredTo - table.measuredFrom) / 1e9);
+                }
+            }
+
+            StringBuilder json = new StringBuilder();
+            json.append(String.format("{\"tables\":%d,\"playersPerTable\":%d,\"roundsPerPlayer\":%d,\"warmupRounds\":%d,",
+                    tables, players, rounds, warmup));
+            json.append(String.format("\"measuredRounds\":%d,\"roundsPerSecond\":%.1f,\"phases\":{",
+                    measuredRounds, roundsPerSecond));
+            for(RoundPhase phase: RoundPhase.values()){
+                LatencyHistogram histogram = phases[phase.ordinal()];
+                json.append(phase.ordinal() == 0 ? "" : ",");
+                json.append(String.format("\"%s\":{\"count\":%d", phase, histogram.count()));
+                for(int i = 0; i < PERCENTILES.length; i++){
+                    json.append(String.format(",\"%sMicros\":%d", PERCENTILE_NAMES[i], histogram.percentile(PERCENTILES[i])));
+                }
+                json.append(String.format(",\"maxMicros\":%d}", histogram.max()));
+            }
+            return json.append("}}").toString();
+        }
+    }
+
+    /**
+     * The timings of one Table, only written by that Table's thread
+     */
+    private static class TableTimings {
+        final LatencyHistogram[] phases = newHistograms();
+        int rounds;                 //Rounds the Table has finished
+        long measuredFrom;          //When the last warm up round finished
+        long measuredTo;            //When the last measured round finished
+    }
+
+    private static LatencyHistogram[] newHistograms(){
+        LatencyHistogram[] histograms = new LatencyHistogram[RoundPhase.values().length];
+        for(int i = 0; i < histograms.length; i++){
+            histograms[i] = new LatencyHistogram();
+        }
+        return histograms;
+    }
+
+    /**
+     * A client speaking the text protocol which answers every prompt straight away
+     */
+    private static class ScriptedClient implements Runnable {
+
+        private final Socket socket;
+        private final int rounds;       //Rounds to play before leaving the Table
+
+        ScriptedClient(Socket socket, int rounds){
+            this.socket = socket;
+            this.rounds = rounds;
+        }
+
+        @Override
+        public void run() {
+            try(Socket s = socket){
+                BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8);
+                int handValue = 0;
+                int played = 0;
+                String line;
+                while((line = in.readLine()) != null){
+                    if(line.startsWith("S-ADVANCE-BETTINGSTAGE-")){
+                        send(out, "C-BET-" + line.substring("S-ADVANCE-BETTINGSTAGE-".length()));
+                    }else if(line.startsWith("S-PLAYERHAND-")){
+                        handValue = Integer.parseInt(line.split("-")[3]);
+                    }else if(line.startsWith("S-PLAYINGSTAGE-HITSTAND")){
+                        send(out, handValue < 17 ? "C-PLAYING-H" : "C-PLAYING-S");
+                    }else if(line.equals("S-PLAYINGSTAGE-OFFERINSURANCE")){
+                        send(out, "C-INSURANCE-N");
+                    }else if(line.equals("S-ADVANCE-PLAYAGAIN")){
+                        played++;
+                        send(out, played < rounds ? "C-PLAYAGAIN-Y" : "C-PLAYAGAIN-N");
+                    }else if(line.equals("S-GAMEOVER")){
+                        return;
+                    }
+                }
+            }catch (IOException e){
+                e.printStackTrace();
+            }
+        }
+
+        private static void send(Writer out, String message) throws IOException {
+            out.write(message);
+            out.write('\n');
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.amarasapps;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Measures how many shoes a second can be built and shuffled with each random source, with one thread per Table all
+ * shuffling at once. Each thread is given its own generator by the RandomSource, as a Table would be. SHARED is the
+ * shuffle the server used before, Collections.shuffle over a list of Cards with the JVM's one shared Random, three
+ * times over, for comparison.
+ *
+ * Usage: java com.amarasapps.ShuffleBenchmark [THREADS] [DECKS] [SECONDS]
+ */
+public class ShuffleBenchmark {
+
+    private static final String[] SOURCES = {"SHARED", "THREADLOCAL", RandomSource.FAST, RandomSource.SEEDED, RandomSource.SECURE};
+    private static final Random SHARED_RANDOM = new Random();  //Stands in for the Random behind Collections.shuffle
+
+    static volatile int sink;   //Keeps the shuffled shoes from being optimised away
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int decks = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 3;
+
+        System.out.printf("Threads: %d%nDecks: %d%n", threads, decks);
+        System.out.printf("%-12s %15s %15s%n", "Source", "Shoes/s", "ns/Shoe/Thread");
+        for(String source: SOURCES){
+            run(source, threads, decks, seconds / 3);     //Warm up
+            long shoes = run(source, threads, decks, seconds);
+            double perSecond = shoes / seconds;
+            System.out.printf("%-12s %15.0f %15.0f%n", source, perSecond, threads * 1e9 / perSecond);
+        }
+    }
+
+    /**
+     * Shuffles shoes on every thread for the given time
+     * @param source    The random source to shuffle with
+     * @param threads   The number of Tables shuffling at once
+     * @param decks     The decks in each shoe
+     * @param seconds   How long to shuffle for
+     * @return The number of shoes shuffled
+     */
+    private static long run(String source, int threads, int decks, double seconds) throws InterruptedException {
+        RandomSource randomSource = source.equals(RandomSource.SEEDED) ? new RandomSource(42) :
+                new RandomSource(source.equals(RandomSource.SECURE) ? RandomSource.SECURE : RandomSource.FAST);
+        AtomicLong shoes = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + (long) (seconds * 1e9) + 100_000_000L;
+        ArrayList<Thread> workers = new ArrayList<>();
+        for(int t = 0; t < threads; t++){
+            ShuffleRandom random = source.equals("THREADLOCAL") ? RandomSource.threadLocal() : randomSource.newTableRandom();
+            Thread worker = new Thread(() -> {
+                long shuffled = 0;
+                int dealt = 0;
+                try{
+                    start.await();
+                }catch (InterruptedException e){
+                    return;
+                }
+                while(System.nanoTime() < deadline){
+                    if(source.equals("SHARED")){
+                        dealt += sharedShuffle(decks).get(0).getCode();
+                    }else{
+                        dealt += new CardShoe(decks, random).dealCode();
+                    }
+                    shuffled++;
+                }
+                shoes.addAndGet(shuffled);
+                sink = dealt;
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        Thread.sleep(100);
+        start.countDown();
+        for(Thread worker: workers){
+            worker.join();
+        }
+        return shoes.get();
+    }
+
+    /**
+     * Builds a shoe the way the server did before it held shoes as card codes
+     * @param decks The decks in the shoe
+     * @return The shuffled cards
+     */
+    private static ArrayList<Card> sharedShuffle(int decks){
+        ArrayList<Card> shoe = new ArrayList<>(decks * Card.DECK_SIZE);
+        for(int d = 0; d < decks; d++){
+            ArrayList<Card> deck = new ArrayList<>(Card.DECK_SIZE);
+            for(Card.Rank rank: Card.Rank.values()){
+                for(Card.Suit suit: Card.Suit.values()){
+                    deck.add(Card.of(rank, suit));
+                }
+            }
+            Collections.shuffle(deck, SHARED_RANDOM);
+            shoe.addAll(deck);
+        }
+        for(int i = 0; i < 3; i++){
+            Collections.shuffle(shoe, SHARED_RANDOM);
+        }
+        return shoe;
+    }
+}
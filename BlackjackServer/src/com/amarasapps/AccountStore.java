@@ -0,0 +1,71 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Keeps the balance of each named player account between sessions. A client names its account when it connects, and
+ * plays with the balance kept for it instead of the starting money; every change to its balance is then saved to the
+ * account as the round is settled. Only one connection can hold an account at a time.
+ *
+ * Saving a balance must never keep a Table waiting, so update only records the change and returns, the balance being
+ * written out afterwards.
+ */
+public interface AccountStore {
+
+    int MAX_NAME_LENGTH = 32;       //Longest account name allowed
+
+    AccountStore NONE = new AccountStore() {
+        @Override
+        public Long claim(String account, long startingMoney) {
+            return null;
+        }
+
+        @Override
+        public void update(String account, long balance) {}
+
+        @Override
+        public void release(String account) {}
+
+        @Override
+        public void close() {}
+    };
+
+    /**
+     * Checks an account name can be used: letters, digits and underscores only, as names are sent in hyphen
+     * separated messages
+     * @param account   The account name
+     * @return True if the name is allowed
+     */
+    static boolean isValidName(String account){
+        return account != null && account.length() > 0 && account.length() <= MAX_NAME_LENGTH
+                && account.matches("[A-Za-z0-9_]+");
+    }
+
+    /**
+     * Claims an account for a newly connected Player, opening it with the starting money if it is new
+     * @param account       The name of the account
+     * @param startingMoney The balance a new account is opened with, in cents
+     * @return The account's balance in cents, or null if it is held by another connection or accounts are off
+     */
+    Long claim(String account, long startingMoney);
+
+    /**
+     * Saves an account's new balance. Returns straight away, never waiting on the disk.
+     * @param account   The name of the account
+     * @param balance   The account's balance, in cents
+     */
+    void update(String account, long balance);
+
+    /**
+     * Lets go of an account once its Player has left, so another connection can claim it
+     * @param account   The name of the account
+     */
+    void release(String account);
+
+    /**
+     * Writes out every balance saved so far, once the server is stopping
+     */
+    void close();
+}
@@ -1,7 +1,6 @@
 package com.amarasapps;
 
-import java.util.ArrayList;
-import java.util.Optional;
+import java.util.Arrays;
 
 /**
  * Multiplayer Blackjack Game
@@ -9,12 +8,18 @@ import java.util.Optional;
  * Github: AMeikle99
  *
  * A class which is used to to represent a Playing Hand in the game of BlackJack as used by a player.
+ * The cards are held as their single byte codes, alongside a running hard total (every Ace counting 1) and a count of
+ * Aces, both kept up to date as cards are added and removed so the hand's value is known without going over its cards.
  */
 public class BJHand {
 
-    private ArrayList<Card> cards;  //All cards which define the Hand
-    private boolean hasFullValueAce;  //Tracks if the hand has a full value Ace
-    private double handBet;                //The amount that a player has bet on this hand
+    private static final int INITIAL_CAPACITY = 8;  //Cards held before the array must grow, enough for most hands
+
+    private byte[] cards;           //Codes of all cards which define the Hand
+    private int size;               //Number of cards in the Hand
+    private int hardTotal;          //Value of the Hand with every Ace counted as 1
+    private int aceCount;           //Number of Aces in the Hand
+    private long handBet;                  //The amount that a player has bet on this hand, in cents
     private boolean isDoubledDown;          //Tracks if the player has doubled down on this hand
     private boolean hasInsurance;
 
@@ -22,43 +27,60 @@ public class BJHand {
      * Constructor to initialise an empty playing hand
      */
     public BJHand(){
-        cards = new ArrayList<>();
-        hasFullValueAce = false;
+        cards = new byte[INITIAL_CAPACITY];
+        size = 0;
+        hardTotal = 0;
+        aceCount = 0;
         handBet = 0;
         isDoubledDown = false;
         hasInsurance = false;
     }
 
     /**
-     * Adds a new card to the playing hand, handles appropriately if the card is an ACE
-     * @param card
+     * Adds a new card to the playing hand, updating the hand's running total
+     * @param card The card dealt to the hand
      */
     public void addCard(Card card){
-        cards.add(card);
-
-        if(card.getRank() == Card.Rank.ACE && canPromoteAce()){
-            hasFullValueAce = true;
+        if(size == cards.length){
+            cards = Arrays.copyOf(cards, 2 * size);
         }
-
-        if(isBust() && hasFullValueAce){
-            hasFullValueAce = false;
+        cards[size++] = card.getCode();
+        hardTotal += card.value();
+        if(card.isAce()){
+            aceCount++;
         }
     }
 
     /**
-     * Returns the value of the hand, handles any cases where an ACE may be worth 11 not 1
+     * Returns the value of the hand, where one ACE is worth 11 rather than 1 if that does not bust the hand
      * @return The value of the player's hand
      */
     public int handValue(){
-        int value = 0;
-        for(Card card: cards){
-            value += card.value();
-        }
+        return isSoft() ? hardTotal + 10 : hardTotal;
+    }
 
-        if(hasFullValueAce){
-            value += 10;
-        }
-        return value;
+    /**
+     * Returns the value of the hand with every ACE counted as 1
+     * @return The hard total of the hand
+     */
+    public int hardTotal(){
+        return hardTotal;
+    }
+
+    /**
+     * Checks whether the hand holds any ACE
+     * @return True if there is an ACE in the hand
+     */
+    public boolean hasAce(){
+        return aceCount > 0;
+    }
+
+    /**
+     * Checks whether the hand holds an ACE which is being counted as 11
+     * @return True if the hand's value is soft
+     */
+    public boolean isSoft(){
+        return aceCount > 0 && hardTotal <= 11;
     }
 
     /**
@@ -66,7 +88,7 @@ public class BJHand {
      * @return True if the player has a blackjack, false otherwise
      */
     public boolean hasBlackjack() {
-        return cards.size() == 2 && handValue() == 21;
+        return size == 2 && handValue() == 21;
     }
 
     /**
@@ -77,33 +99,38 @@ public class BJHand {
         return handValue() > 21;
     }
 
-    /**
-     * Determines if an ACE added to the hand should be worth 11 or 1
-     * @return True if the ACE can be treated as 11, false otherwise
-     */
-    private boolean canPromoteAce(){
-        return !hasFullValueAce && handValue() < 12;
-    }
-
     /**
      * Gets the Card in the player's hand at the specified index
      * @param index The numerical position in the hand of the card to return
      * @return The Card at the position index
      */
     public Card getCard(int index){
-        return cards.get(index);
+        return Card.fromCode(getCode(index));
+    }
+
+    /**
+     * Gets the code of the Card in the player's hand at the specified index
+     * @param index The numerical position in the hand of the card
+     * @return The code of the Card at the position index
+     */
+    public byte getCode(int index){
+        if(index >= size){
+            throw new IndexOutOfBoundsException("Card " + index + " of a hand of " + size);
+        }
+        return cards[index];
     }
 
     /**
      * Checks if the player is able to double down on their bet
      * @return True if the hand is eligible to Double Down
      */
-    public boolean canDouble(double playerBalance, double totalBets){
-        return handValue() >= 9 && handValue() <= 11 && size() == 2 && playerBalance >= totalBets + handBet;
+    public boolean canDouble(long playerBalance, long totalBets){
+        int value = handValue();
+        return value >= 9 && value <= 11 && size == 2 && playerBalance >= totalBets + handBet;
     }
 
     public boolean canSplit(){
-        return size() == 2 && getCard(0).getRank() == getCard(1).getRank();
+        return size == 2 && Card.rankOf(cards[0]) == Card.rankOf(cards[1]);
     }
 
     /**
@@ -111,14 +138,14 @@ public class BJHand {
      * @return The number of cards held by the player
      */
     public int size(){
-        return cards.size();
+        return size;
     }
 
     /**
      * Returns the amount the player has bet on this hand
      * @return The amount bet on the hand
      */
-    public double getHandBet() {
+    public long getHandBet() {
         return handBet;
     }
 
@@ -126,7 +153,7 @@ public class BJHand {
      * Sets the amount to be bet on this hand
      * @param handBet The amount to be bet on the hand
      */
-    public void setHandBet(double handBet) {
+    public void setHandBet(long handBet) {
         this.handBet = handBet;
     }
 
@@ -153,18 +180,24 @@ public class BJHand {
      */
     public Card removeCard(int i){
         Card card = getCard(i);
-        cards.remove(i);
+        System.arraycopy(cards, i + 1, cards, i, size - i - 1);
+        size--;
+        hardTotal -= card.value();
+        if(card.isAce()){
+            aceCount--;
+        }
         return card;
     }
 
     /**
-     * Empties the Players Playing Hand and resets the FullRank Ace boolean to false
+     * Empties the Players Playing Hand and resets its running total
      */
     public void clear(){
-        hasFullValueAce = false;
+        hardTotal = 0;
+        aceCount = 0;
         isDoubledDown = false;
         hasInsurance = false;
-        cards.clear();
+        size = 0;
     }
 
 }
@@ -0,0 +1,31 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Basic strategy for this server's rules, played from the BasicStrategyChart shared with the client's bots. Insurance
+ * is always declined.
+ */
+public final class BasicStrategy implements PlayStrategy {
+
+    public static final BasicStrategy INSTANCE = new BasicStrategy();
+
+    private BasicStrategy(){}
+
+    @Override
+    public Play play(BJHand hand, Card dealerUpCard, boolean canDouble, boolean canSplit){
+        int up = dealerUpCard.isAce() ? 11 : dealerUpCard.value();
+        switch (BasicStrategyChart.play(hand.handValue(), hand.isSoft(), up, canDouble, canSplit, hand.getCard(0).value())){
+            case SPLIT:
+                return Play.SPLIT;
+            case DOUBLE:
+                return Play.DOUBLE;
+            case STAND:
+                return Play.STAND;
+            default:
+                return Play.HIT;
+        }
+    }
+}
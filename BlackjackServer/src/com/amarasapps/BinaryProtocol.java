@@ -0,0 +1,166 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * A compact protocol where every message is a frame of a two byte big-endian length followed by that many bytes:
+ * a one byte opcode and then its values. Cards are sent as their single byte code, hand numbers and values as a
+ * single byte, and money as a varint holding the amount in minor units (cents).
+ *
+ * Frames sent by the client use the same layout, with the CLIENT_ opcodes from Opcode:
+ *   BET        money
+ *   PLAYING    one byte choice: H, S, D or P (split)
+ *   INSURANCE  one byte choice: Y or N
+ *   PLAYAGAIN  one byte choice: Y or N
+ */
+public class BinaryProtocol implements Protocol {
+
+    public static final BinaryProtocol INSTANCE = new BinaryProtocol();
+
+    public static final byte HIDDEN_CARD = (byte) 0xFF;     //Card code sent in place of the dealer's hole card
+
+    private static final int HEADER_LENGTH = 3;             //Two length bytes and the opcode
+    private static final int MAX_MONEY_LENGTH = 10;         //Most bytes a varint of a long can take
+
+    private final byte[][] encodedOpcodes;  //Messages which carry no values, encoded once by opcode ordinal
+
+    private BinaryProtocol(){
+        encodedOpcodes = new byte[Opcode.values().length][];
+        for(Opcode opcode: Opcode.values()){
+            byte[] frame = new byte[HEADER_LENGTH];
+            header(frame, opcode, HEADER_LENGTH);
+            encodedOpcodes[opcode.ordinal()] = frame;
+        }
+    }
+
+    @Override
+    public int getVersion() {
+        return BINARY_VERSION;
+    }
+
+    @Override
+    public byte[] encode(Opcode opcode) {
+        return encodedOpcodes[opcode.ordinal()];
+    }
+
+    @Override
+    public byte[] encodeHandNumber(Opcode opcode, int handNumber) {
+        byte[] frame = new byte[HEADER_LENGTH + 1];
+        header(frame, opcode, frame.length);
+        frame[HEADER_LENGTH] = (byte) handNumber;
+        return frame;
+    }
+
+    @Override
+    public byte[] encodeMoney(Opcode opcode, long amount) {
+        byte[] buffer = new byte[HEADER_LENGTH + MAX_MONEY_LENGTH];
+        int length = writeMoney(buffer, HEADER_LENGTH, amount);
+        return finish(buffer, opcode, length);
+    }
+
+    @Override
+    public byte[] encodeMoney(Opcode opcode, long first, long second) {
+        byte[] buffer = new byte[HEADER_LENGTH + 2 * MAX_MONEY_LENGTH];
+        int length = writeMoney(buffer, HEADER_LENGTH, first);
+        length = writeMoney(buffer, length, second);
+        return finish(buffer, opcode, length);
+    }
+
+    @Override
+    public byte[] encodePlayerHand(int handNumber, BJHand hand) {
+        byte[] frame = new byte[HEADER_LENGTH + 3 + hand.size()];
+        header(frame, Opcode.PLAYERHAND, frame.length);
+        frame[3] = (byte) handNumber;
+        frame[4] = (byte) hand.handValue();
+        frame[5] = (byte) hand.size();
+        for(int i = 0; i < hand.size(); i++){
+            frame[6 + i] = hand.getCode(i);
+        }
+        return frame;
+    }
+
+    @Override
+    public byte[] encodeDealerHand(int handValue, BJHand hand, boolean hideHoleCard) {
+        int cardCount = hideHoleCard ? 2 : hand.size();
+        byte[] frame = new byte[HEADER_LENGTH + 2 + cardCount];
+        header(frame, Opcode.DEALERHAND, frame.length);
+        frame[3] = (byte) handValue;
+        frame[4] = (byte) cardCount;
+        if(hideHoleCard){
+            frame[5] = hand.getCode(0);
+            frame[6] = HIDDEN_CARD;
+        }else{
+            for(int i = 0; i < cardCount; i++){
+                frame[5 + i] = hand.getCode(i);
+            }
+        }
+        return frame;
+    }
+
+    /**
+     * Reads a money value from a frame sent by a client
+     * @param frame     The frame body
+     * @param offset    Position of the varint in the frame
+     * @param length    The number of bytes in the frame
+     * @return The amount of money in cents, or -1 if the varint runs past the frame or is longer than a long allows
+     */
+    public static long readMoney(byte[] frame, int offset, int length){
+        long minorUnits = 0;
+        int shift = 0;
+        byte b;
+        do{
+            if(offset >= length || shift >= MAX_MONEY_LENGTH * 7){
+                return -1;
+            }
+            b = frame[offset++];
+            minorUnits |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }while((b & 0x80) != 0);
+        return minorUnits;
+    }
+
+    /**
+     * Writes the frame length and opcode at the start of a frame
+     * @param frame     The frame being built
+     * @param opcode    The message being encoded
+     * @param length    The full length of the frame, including the length bytes
+     */
+    private static void header(byte[] frame, Opcode opcode, int length){
+        int bodyLength = length - 2;
+        frame[0] = (byte) (bodyLength >>> 8);
+        frame[1] = (byte) bodyLength;
+        frame[2] = opcode.getCode();
+    }
+
+    /**
+     * Completes a frame built in an oversized buffer, trimming it to the bytes used
+     * @param buffer    The buffer holding the frame's values after the header
+     * @param opcode    The message being encoded
+     * @param length    The number of bytes of the buffer used
+     * @return The finished frame
+     */
+    private static byte[] finish(byte[] buffer, Opcode opcode, int length){
+        byte[] frame = new byte[length];
+        System.arraycopy(buffer, HEADER_LENGTH, frame, HEADER_LENGTH, length - HEADER_LENGTH);
+        header(frame, opcode, length);
+        return frame;
+    }
+
+    /**
+     * Writes an amount of money as a varint of minor units
+     * @param buffer        The buffer to write into
+     * @param offset        The position to write at
+     * @param minorUnits    The amount of money, in cents
+     * @return The position after the written varint
+     */
+    private static int writeMoney(byte[] buffer, int offset, long minorUnits){
+        while((minorUnits & ~0x7FL) != 0){
+            buffer[offset++] = (byte) ((minorUnits & 0x7F) | 0x80);
+            minorUnits >>>= 7;
+        }
+        buffer[offset++] = (byte) minorUnits;
+        return offset;
+    }
+}
@@ -11,11 +11,15 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
 
 
 /**
- * This is the executable class, it will create a new Table Object Thread
- * This class manages initial socket connections with clients
+ * This is the executable class, it keeps accepting client connections and hands each one to the Lobby,
+ * which seats them across as many concurrently running Tables as are needed
  */
 
 public class BlackjackServer {
@@ -24,11 +28,30 @@ public class BlackjackServer {
     private static int SERVER_PORT = 8080;        //Server Port
     private static String SERVER_ADDRESS;               //IP Address of Server
 
-    private static int PLAYERS_PER_TABLE = 2;     //Number of Connected Clients
-    private static double MINIMUM_BET = 100.00;         //Minimum Allowed Bet
+    private static int PLAYERS_PER_TABLE = 2;     //Number of Connected Clients needed to start each Table
+    private static int SEATS_PER_TABLE = 7;       //Most Clients seated at each Table once it is playing
+    private static long MINIMUM_BET = 10000;       //Minimum Allowed Bet, in cents
     private static int DECKS_USED = 8;            //Decks Kept in the Shoe
     private static int CARDS_BEFORE_SHUFFLE = 80; //Cards remaining in the deck before a re-shuffle
-    private static double STARTING_MONEY = 500.00;      //Money that Each Player Would STart With
+    private static long STARTING_MONEY = 50000;  //Money that Each Player Would STart With, in cents
+    private static String TRANSPORT = "NIO";            //NIO to serve clients from Event Loops, BLOCKING for a thread per Player
+    private static int EVENT_LOOPS = Runtime.getRuntime().availableProcessors();    //Event Loop threads used by NIO
+    private static String THREADS = "PLATFORM";         //PLATFORM or VIRTUAL threads for Tables and Players
+    private static long BET_TIMEOUT = TableSettings.DEFAULT_BET_TIMEOUT;                //Milliseconds allowed to place a bet
+    private static long INSURANCE_TIMEOUT = TableSettings.DEFAULT_INSURANCE_TIMEOUT;    //Milliseconds allowed to answer insurance
+    private static long PLAY_TIMEOUT = TableSettings.DEFAULT_PLAY_TIMEOUT;              //Milliseconds allowed for each play decision
+    private static long PLAY_AGAIN_TIMEOUT = TableSettings.DEFAULT_PLAY_AGAIN_TIMEOUT;  //Milliseconds allowed to choose to play again
+    private static long GRACE_PERIOD = SessionRegistry.DEFAULT_GRACE_PERIOD;            //Milliseconds a lost client can resume within
+    private static String RNG = RandomSource.SECURE;     //FAST, SECURE or SEEDED generator for shuffling each Table's shoes
+    private static Long SEED = null;                    //Seed for the SEEDED generator, null if not given
+    private static String SHUFFLE = "CUTCARD";          //CUTCARD to reshuffle at the cut card, CONTINUOUS for a shuffling machine
+    private static long SIMULATE_ROUNDS = 0;            //Rounds to simulate instead of serving clients, 0 to serve clients
+    private static String STRATEGY = PlayStrategy.BASIC;    //BASIC, DEALER or STAND strategy played by simulated seats
+    private static Path JOURNAL_DIRECTORY = null;       //Folder each Table's round journal is kept in, null to keep none
+    private static Path PRINT_JOURNAL = null;           //Journal segment to print instead of serving clients, null if none
+    private static Path REPLAY_JOURNAL = null;          //Journal to replay instead of serving clients, null if none
+    private static long REPLAY_ROUND = 0;               //Round to stop the replay after, 0 to replay the whole journal
+    private static Path ACCOUNTS_DIRECTORY = null;      //Folder player accounts are kept in, null to keep none
 
     public static void main(String[] args) {
         try{
@@ -53,15 +76,22 @@ public class BlackjackServer {
                                 throw new NumberFormatException();
                             }
                             break;
+                        case "--SEATS":
+                            SEATS_PER_TABLE = Integer.parseInt(args[i+1]);
+                            if(SEATS_PER_TABLE <= 0){
+                                System.out.println("Invalid Number of Seats. Must be greater than 0.");
+                                throw new NumberFormatException();
+                            }
+                            break;
                         case "--MONEY":
-                            STARTING_MONEY = Integer.parseInt(args[i+1]);
+                            STARTING_MONEY = Money.parse(args[i+1]);
                             if(STARTING_MONEY <= 0){
                                 System.out.println("Invalid Amount of Starting Money. Must be greater than 0.");
                                 throw new NumberFormatException();
                             }
                             break;
                         case "--BET":
-                            MINIMUM_BET = Integer.parseInt(args[i+1]);
+                            MINIMUM_BET = Money.parse(args[i+1]);
                             if(MINIMUM_BET <= 0){
                                 System.out.println("Invalid Minimum Bet. Must be greater than 0.");
                                 throw new NumberFormatException();
@@ -74,6 +104,92 @@ public class BlackjackServer {
                                 throw new NumberFormatException();
                             }
                             break;
+                        case "--TRANSPORT":
+                            TRANSPORT = args[i+1].toUpperCase();
+                            if(!TRANSPORT.equals("NIO") && !TRANSPORT.equals("BLOCKING")){
+                                System.out.println("Invalid Transport. Must be NIO or BLOCKING.");
+                                expectedUsage();
+                            }
+                            break;
+                        case "--EVENTLOOPS":
+                            EVENT_LOOPS = Integer.parseInt(args[i+1]);
+                            if(EVENT_LOOPS <= 0){
+                                System.out.println("Invalid Number of Event Loops. Must be greater than 0.");
+                                throw new NumberFormatException();
+                            }
+                            break;
+                        case "--THREADS":
+                            THREADS = args[i+1].toUpperCase();
+                            if(!THREADS.equals("PLATFORM") && !THREADS.equals("VIRTUAL")){
+                                System.out.println("Invalid Thread Mode. Must be PLATFORM or VIRTUAL.");
+                                expectedUsage();
+                            }
+                            break;
+                        case "--BETTIME":
+                            BET_TIMEOUT = parseTimeout(args[i+1]);
+                            break;
+                        case "--INSURANCETIME":
+                            INSURANCE_TIMEOUT = parseTimeout(args[i+1]);
+                            break;
+                        case "--PLAYTIME":
+                            PLAY_TIMEOUT = parseTimeout(args[i+1]);
+                            break;
+                        case "--PLAYAGAINTIME":
+                            PLAY_AGAIN_TIMEOUT = parseTimeout(args[i+1]);
+                            break;
+                        case "--GRACE":
+                            GRACE_PERIOD = parseTimeout(args[i+1]);
+                            break;
+                        case "--RNG":
+                            RNG = args[i+1].toUpperCase();
+                            if(!RNG.equals(RandomSource.FAST) && !RNG.equals(RandomSource.SECURE) && !RNG.equals(RandomSource.SEEDED)){
+                                System.out.println("Invalid Random Generator. Must be FAST, SECURE or SEEDED.");
+                                expectedUsage();
+                            }
+                            break;
+                        case "--SEED":
+                            SEED = Long.parseLong(args[i+1]);
+                            break;
+                        case "--SHUFFLE":
+                            SHUFFLE = args[i+1].toUpperCase();
+                            if(!SHUFFLE.equals("CUTCARD") && !SHUFFLE.equals("CONTINUOUS")){
+                                System.out.println("Invalid Shuffle. Must be CUTCARD or CONTINUOUS.");
+                                expectedUsage();
+                            }
+                            break;
+                        case "--SIMULATE":
+                            SIMULATE_ROUNDS = Long.parseLong(args[i+1]);
+                            if(SIMULATE_ROUNDS <= 0){
+                                System.out.println("Invalid Number of Rounds. Must be greater than 0.");
+                                throw new NumberFormatException();
+                            }
+                            break;
+                        case "--STRATEGY":
+                            STRATEGY = args[i+1].toUpperCase();
+                            if(!STRATEGY.equals(PlayStrategy.BASIC) && !STRATEGY.equals(PlayStrategy.DEALER) && !STRATEGY.equals(PlayStrategy.STAND)){
+                                System.out.println("Invalid Strategy. Must be BASIC, DEALER or STAND.");
+                                expectedUsage();
+                            }
+                            break;
+                        case "--JOURNAL":
+                            JOURNAL_DIRECTORY = Paths.get(args[i+1]);
+                            break;
+                        case "--PRINTJOURNAL":
+                            PRINT_JOURNAL = Paths.get(args[i+1]);
+                            break;
+                        case "--ACCOUNTS":
+                            ACCOUNTS_DIRECTORY = Paths.get(args[i+1]);
+                            break;
+                        case "--REPLAY":
+                            REPLAY_JOURNAL = Paths.get(args[i+1]);
+                            break;
+                        case "--ROUND":
+                            REPLAY_ROUND = Long.parseLong(args[i+1]);
+                            if(REPLAY_ROUND <= 0){
+                                System.out.println("Invalid Round. Must be greater than 0.");
+                                throw new NumberFormatException();
+                            }
+                            break;
                         default:
                             expectedUsage();
                     }
@@ -85,41 +201,81 @@ public class BlackjackServer {
                 System.out.println("Starting Money must be greater than/equal to the Minimum Bet");
                 expectedUsage();
             }
+            SEATS_PER_TABLE = Math.max(SEATS_PER_TABLE, PLAYERS_PER_TABLE);
+            if(REPLAY_JOURNAL != null && SEED == null){
+                System.out.println("Replaying needs the --SEED the server was started with.");
+                expectedUsage();
+            }
+            if(SEED != null){
+                RNG = RandomSource.SEEDED;      //A seed is only any use to the seeded generator
+            }else if(RNG.equals(RandomSource.SEEDED)){
+                System.out.println("The SEEDED Random Generator needs a --SEED.");
+                expectedUsage();
+            }
             if(CARDS_BEFORE_SHUFFLE > 0.2*(52 * DECKS_USED)){
                 CARDS_BEFORE_SHUFFLE = (int) Math.floor(0.2 * 52 * DECKS_USED);
             }
 
+            TableSettings settings = new TableSettings(MINIMUM_BET, DECKS_USED, CARDS_BEFORE_SHUFFLE, PLAYERS_PER_TABLE, SEATS_PER_TABLE,
+                    STARTING_MONEY, BET_TIMEOUT, INSURANCE_TIMEOUT, PLAY_TIMEOUT, PLAY_AGAIN_TIMEOUT, SHUFFLE.equals("CONTINUOUS"));
+            RandomSource randomSource = SEED == null ? new RandomSource(RNG) : new RandomSource(SEED);
+            if(PRINT_JOURNAL != null){
+                JournalReader.print(PRINT_JOURNAL, System.out);
+                return;
+            }
+            if(REPLAY_JOURNAL != null){
+                replay(settings);
+                return;
+            }
+            if(SIMULATE_ROUNDS > 0){
+                simulate(settings, randomSource);
+                return;
+            }
+
             System.out.println("Server Starting...");
 
-            ServerSocket serverSocket = new ServerSocket(SERVER_PORT);  //Initialise Server on specified Port
             SERVER_ADDRESS = InetAddress.getLocalHost().getHostAddress();    //Get the IP Address of Server
 
             System.out.println(String.format("Server Running:\n\tPort: %d\n\tIP Address: %s", SERVER_PORT, SERVER_ADDRESS));
-            System.out.println(String.format("\tNumber of Players: %d\n\tDecks Used: %d\n\tCards Before Shuffle: %d" +
-                    "\n\tStarting Money: %.2f\n\tMinimum Bet: %.2f",
-                    PLAYERS_PER_TABLE, DECKS_USED, CARDS_BEFORE_SHUFFLE, STARTING_MONEY, MINIMUM_BET));
-
-            int connectedClients = 0;   //Number of Currently connected players
-            Table playingTable = new Table(MINIMUM_BET, DECKS_USED, CARDS_BEFORE_SHUFFLE);
-            System.out.println("Waiting for Clients to Connect...");
-
-            do{
-                Socket playerSocket = serverSocket.accept();    //Connect new client
-                connectedClients++;
-
-                int clientPort = playerSocket.getPort();    //Extract Server Port and IP Address
-                String clientAddress = playerSocket.getInetAddress().getHostAddress();
+            System.out.println(String.format("\tNumber of Players: %d\n\tSeats: %d\n\tDecks Used: %d\n\tCards Before Shuffle: %d" +
+                    "\n\tStarting Money: %s\n\tMinimum Bet: %s\n\tTransport: %s\n\tThreads: %s",
+                    PLAYERS_PER_TABLE, SEATS_PER_TABLE, DECKS_USED, SHUFFLE.equals("CONTINUOUS") ? 0 : CARDS_BEFORE_SHUFFLE, Money.format(STARTING_MONEY), Money.format(MINIMUM_BET), TRANSPORT, THREADS));
+            System.out.println(String.format("\tDecision Deadlines (s): Bet %.1f, Insurance %.1f, Play %.1f, Play Again %.1f",
+                    BET_TIMEOUT / 1000.0, INSURANCE_TIMEOUT / 1000.0, PLAY_TIMEOUT / 1000.0, PLAY_AGAIN_TIMEOUT / 1000.0));
+            System.out.println(String.format("\tReconnect Grace Period (s): %.1f", GRACE_PERIOD / 1000.0));
+            System.out.println(String.format("\tShuffle Generator: %s", SEED == null ? RNG : RNG + " " + SEED));
+            System.out.println(String.format("\tShuffle: %s", SHUFFLE));
+            if(JOURNAL_DIRECTORY != null){
+                JOURNAL_DIRECTORY = MappedRoundJournal.runDirectory(JOURNAL_DIRECTORY);
+                System.out.println(String.format("\tRound Journals: %s", JOURNAL_DIRECTORY));
+            }
 
-                Player player = new Player(playerSocket, playingTable, STARTING_MONEY);
-                playingTable.addPlayer(player);
-                new Thread(player).start();
-                System.out.println(String.format("Client %d Connected:\n\tPort: %s\n\tIP Address: %s", connectedClients, clientPort, clientAddress));
+            ServerMetrics.INSTANCE.register();
+            ThreadFactory threadFactory;
+            try{
+                threadFactory = ServerThreads.forMode(THREADS);
+            }catch (UnsupportedOperationException e){
+                System.out.println(e.getMessage());
+                System.exit(-1);
+                return;
+            }
+            Lobby lobby = new Lobby(settings, threadFactory, new SessionRegistry(GRACE_PERIOD), randomSource);
+            lobby.setJournalDirectory(JOURNAL_DIRECTORY);
+            lobby.setAccountStore(openAccounts());
 
-            }while(connectedClients < PLAYERS_PER_TABLE);
+            if(TRANSPORT.equals("NIO")){
+                NioTransport transport = new NioTransport(SERVER_PORT, EVENT_LOOPS, lobby);   //Initialise Server on specified Port
+                System.out.println("Waiting for Clients to Connect...");
+                transport.acceptClients();
+            }else{
+                ServerSocket serverSocket = new ServerSocket(SERVER_PORT);  //Initialise Server on specified Port
+                System.out.println("Waiting for Clients to Connect...");
 
-            System.out.println("All Clients Connected");
-            playingTable.run();
-            System.out.println("Playing Table Finished!");
+                while(true){
+                    Socket playerSocket = serverSocket.accept();    //Connect new client and seat them at a Table
+                    lobby.seatPlayer(playerSocket);
+                }
+            }
         }catch (IOException e){
             e.printStackTrace();
             System.exit(-1);
@@ -131,10 +287,85 @@ public class BlackjackServer {
     private static void expectedUsage(){
         System.out.println("Usage: java -jar BlackjackServer.jar [OPTIONS]");
         System.out.println("Options:");
-        System.out.println("\t--PORT <PORT NUMBER>\n\t--PLAYERS <PLAYERS PER TABLE>\n\t--MONEY <STARTING MONEY>");
+        System.out.println("\t--PORT <PORT NUMBER>\n\t--PLAYERS <PLAYERS PER TABLE>\n\t--SEATS <MOST PLAYERS PER TABLE>\n\t--MONEY <STARTING MONEY>");
         System.out.println("\t--BET <MIN BET>\n\t--DECKS <NUMBER OF DECKS USED IN GAME>");
+        System.out.println("\t--TRANSPORT <NIO|BLOCKING>\n\t--EVENTLOOPS <NUMBER OF NIO EVENT LOOP THREADS>");
+        System.out.println("\t--THREADS <PLATFORM|VIRTUAL>");
+        System.out.println("\t--BETTIME <SECONDS>\n\t--INSURANCETIME <SECONDS>\n\t--PLAYTIME <SECONDS>\n\t--PLAYAGAINTIME <SECONDS>");
+        System.out.println("\t--GRACE <SECONDS>\n\t--RNG <FAST|SECURE|SEEDED>\n\t--SEED <SEED>\n\t--SHUFFLE <CUTCARD|CONTINUOUS>");
+        System.out.println("\t--SIMULATE <ROUNDS>\n\t--STRATEGY <BASIC|DEALER|STAND>");
+        System.out.println("\t--JOURNAL <DIRECTORY>\n\t--PRINTJOURNAL <JOURNAL FILE>\n\t--ACCOUNTS <DIRECTORY>\n\t--REPLAY <JOURNAL FILE>\n\t--ROUND <ROUND TO STOP AFTER>");
         System.exit(-1);
     }
 
+    /**
+     * Plays the rounds asked for with --SIMULATE on every core, with no clients, and prints the results
+     * @param settings      The settings each simulated table is played with
+     * @param randomSource  Gives each simulated table its generator
+     */
+    private static void simulate(TableSettings settings, RandomSource randomSource){
+        System.out.println("Simulation Starting...");
+        System.out.println(String.format("\tRounds: %d\n\tSeats: %d\n\tStrategy: %s\n\tDecks Used: %d\n\tCards Before Shuffle: %d" +
+                "\n\tMinimum Bet: %s\n\tShuffle: %s\n\tShuffle Generator: %s\n\tWorker Threads: %d",
+                SIMULATE_ROUNDS, PLAYERS_PER_TABLE, STRATEGY, DECKS_USED, SHUFFLE.equals("CONTINUOUS") ? 0 : CARDS_BEFORE_SHUFFLE,
+                Money.format(MINIMUM_BET), SHUFFLE, SEED == null ? RNG : RNG + " " + SEED, ForkJoinPool.getCommonPoolParallelism()));
+
+        long start = System.nanoTime();
+        SimulationResult result = Simulation.run(settings, PLAYERS_PER_TABLE, PlayStrategy.forName(STRATEGY), randomSource,
+                SIMULATE_ROUNDS);
+        result.print((System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Opens the accounts kept in the folder given with --ACCOUNTS, recovering their balances, and saves every balance
+     * when the server is stopped
+     * @return The store, or AccountStore.NONE if no folder was given
+     * @throws IOException If the accounts cannot be recovered
+     */
+    private static AccountStore openAccounts() throws IOException {
+        if(ACCOUNTS_DIRECTORY == null){
+            return AccountStore.NONE;
+        }
+        long start = System.nanoTime();
+        LoggedAccountStore accounts = new LoggedAccountStore(ACCOUNTS_DIRECTORY, LoggedAccountStore.DEFAULT_SNAPSHOT_INTERVAL);
+        System.out.println(String.format("\tAccounts: %s, %d Recovered in %.2fs", ACCOUNTS_DIRECTORY,
+                accounts.accountCount(), (System.nanoTime() - start) / 1e9));
+        Runtime.getRuntime().addShutdownHook(new Thread(accounts::close, "Account-Store-Close"));
+        return accounts;
+    }
+
+    /**
+     * Replays the journal given with --REPLAY from the seed, up to the round given with --ROUND, and prints how far it
+     * matched and the state of the Table it stopped at
+     * @param settings  The settings the Table was played with
+     * @throws IOException If the journal cannot be read
+     */
+    private static void replay(TableSettings settings) throws IOException {
+        System.out.println("Replay Starting...");
+        System.out.println(String.format("\tJournal: %s\n\tStop After Round: %s\n\tDecks Used: %d\n\tCards Before Shuffle: %d" +
+                "\n\tMinimum Bet: %s\n\tShuffle: %s\n\tShuffle Generator: %s %d",
+                REPLAY_JOURNAL, REPLAY_ROUND == 0 ? "Last" : String.valueOf(REPLAY_ROUND), DECKS_USED,
+                SHUFFLE.equals("CONTINUOUS") ? 0 : CARDS_BEFORE_SHUFFLE, Money.format(MINIMUM_BET), SHUFFLE, RNG, SEED));
+
+        long start = System.nanoTime();
+        ReplayEngine replay = new ReplayEngine(settings, SEED, REPLAY_JOURNAL);
+        replay.replay(REPLAY_ROUND);
+        replay.print((System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Reads a decision deadline given in seconds, where 0 means wait forever
+     * @param seconds The deadline from the command line
+     * @return The deadline in milliseconds
+     */
+    private static long parseTimeout(String seconds){
+        double timeout = Double.parseDouble(seconds);
+        if(timeout < 0){
+            System.out.println("Invalid Deadline. Must be 0 (no deadline) or greater.");
+            throw new NumberFormatException();
+        }
+        return Math.round(timeout * 1000);
+    }
+
 
 }
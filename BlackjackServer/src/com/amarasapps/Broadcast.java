@@ -0,0 +1,37 @@
+package com.amarasapps;
+
+
+import java.util.function.Function;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * A message every Player at a Table is sent, such as the dealer's hand. It is encoded once for each protocol when it
+ * is created, and the same bytes are then written to every seat, so the cost of a broadcast does not grow with the
+ * number of Players. The encoded bytes are shared and must not be modified.
+ */
+public class Broadcast {
+
+    private final byte[] text;      //The message encoded for the text protocol
+    private final byte[] binary;    //The message encoded for the binary protocol
+
+    /**
+     * Encodes the message for every protocol
+     * @param encoder Encodes the message using the protocol it is given
+     */
+    public Broadcast(Function<Protocol, byte[]> encoder){
+        this.text = encoder.apply(TextProtocol.INSTANCE);
+        this.binary = encoder.apply(BinaryProtocol.INSTANCE);
+    }
+
+    /**
+     * Returns the message as encoded for a Player's protocol
+     * @param protocol The protocol the Player's client is using
+     * @return The encoded message
+     */
+    public byte[] encodedFor(Protocol protocol){
+        return protocol == BinaryProtocol.INSTANCE ? binary : text;
+    }
+}
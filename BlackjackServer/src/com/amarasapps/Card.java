@@ -5,23 +5,74 @@ package com.amarasapps;
  * @author Aiden Meikle
  * Github: AMeikle99
  *
- * An object that represents an individual playing card
+ * An object that represents an individual playing card. There are only ever 52 Cards, one for each rank and suit,
+ * shared by every deck, shoe and hand. Each has a single byte code, rank * 4 + suit, so cards can be stored and sent
+ * as bytes and turned back into their Card with fromCode.
  */
 
 public class Card {
 
-    private Rank rank;      //Card's Rank
-    private Suit suit;      //Card's Suit
+    public static final int DECK_SIZE = 52;     //Cards in a single deck, one of each code
+    private static final Card[] CARDS_BY_CODE = new Card[DECK_SIZE];    //The only Card for each code
+
+    static {
+        for(Rank rank: Rank.values()){
+            for(Suit suit: Suit.values()){
+                Card card = new Card(rank, suit);
+                CARDS_BY_CODE[card.code] = card;
+            }
+        }
+    }
+
+    private final Rank rank;    //Card's Rank
+    private final Suit suit;    //Card's Suit
+    private final byte code;    //Single byte code for the card
+    private final int value;    //Numeric value of the card, an Ace counting as 1
+    private final String name;  //Rank then Suit, as sent to clients
 
     /**
-     * Constuctor for a Card Object
+     * Constuctor for a Card Object, only used to build the 52 shared Cards
      *
      * @param rank The Rank for the given card
      * @param suit The Suit for the given card
      */
-    public Card(Rank rank, Suit suit){
+    private Card(Rank rank, Suit suit){
         this.rank = rank;
         this.suit = suit;
+        this.code = (byte) (rank.ordinal() * Suit.values().length + suit.ordinal());
+        this.value = rank.getNumericValue();
+        this.name = String.format("%2s%s", rank.toString(), suit.toString());
+    }
+
+    /**
+     * Returns the Card with the given code
+     *
+     * @param code The Card's code, from 0 to 51
+     * @return The shared Card
+     */
+    public static Card fromCode(byte code){
+        return CARDS_BY_CODE[code];
+    }
+
+    /**
+     * Returns the Card of the given rank and suit
+     *
+     * @param rank The Rank of the card
+     * @param suit The Suit of the card
+     * @return The shared Card
+     */
+    public static Card of(Rank rank, Suit suit){
+        return CARDS_BY_CODE[rank.ordinal() * Suit.values().length + suit.ordinal()];
+    }
+
+    /**
+     * Returns the position of a card's rank from its code, without looking up the Card
+     *
+     * @param code The Card's code, from 0 to 51
+     * @return The ordinal of the Card's Rank
+     */
+    public static int rankOf(byte code){
+        return code / Suit.values().length;
     }
 
     public boolean isAce(){
@@ -34,7 +85,7 @@ public class Card {
      * @return value The Numeric Card Value
      */
     public int value(){
-        return this.rank.getNumericValue();
+        return this.value;
     }
 
     /**
@@ -45,9 +96,17 @@ public class Card {
         return rank;
     }
 
+    /**
+     * Returns the single byte code for the card, the rank's position multiplied by 4 plus the suit's position
+     * @return code The Card's code, from 0 to 51
+     */
+    public byte getCode() {
+        return code;
+    }
+
     @Override
     public String toString() {
-        return String.format("%2s%s", this.rank.toString(), this.suit.toString());
+        return this.name;
     }
 
     public enum Rank {
@@ -1,79 +1,110 @@
 package com.amarasapps;
 
 
-import java.util.ArrayList;
-import java.util.Collections;
-
 /**
  * Multiplayer Blackjack Game
  * @author Aiden Meikle
  * Github: AMeikle99
  *
- * The object which represents the card shoe, holds 1 or more decks used in gameplay
+ * The object which represents the card shoe, holds 1 or more decks used in gameplay.
+ *
+ * The cards are held as their single byte codes in one array, shuffled in place, with a cursor marking the next card
+ * to be dealt. Dealing just moves the cursor on, so it never shifts the cards left or allocates.
+ *
+ * A shoe in a continuous shuffling machine never reaches a cut card, instead the cards from each round are put back
+ * with returnCard. Each returned card takes the place just before the cursor and is then swapped with a random card
+ * still to be dealt, which inserts it at a random position without moving any other card.
  */
 public class CardShoe {
 
-    private ArrayList<Card> cardShoe;       //Array of cards from 1 or more Deck ready to be dealt to players
+    private final byte[] cards;     //Codes of the cards from 1 or more Deck, in the order they are dealt
+    private int nextCard = 0;       //Position of the next card to be dealt
+    private final ShuffleRandom random; //Generator the shoe was shuffled with, also used to place returned cards
 
     /**
-     * Default Constructor to Initialise Card Array
+     * Default Constructor to Initialise an empty Card Shoe
      */
     public CardShoe(){
-        cardShoe = new ArrayList<>();
+        cards = new byte[0];
+        random = RandomSource.threadLocal();
     }
 
     /**
-     * Constructor to Initialise Card Array with specified number of decks
+     * Constructor to Initialise Card Array with specified number of decks, shuffled together
      *
      * @param deckCount The number of decks to add to the card shoe
      */
     public CardShoe(int deckCount){
-        this();
-        for(int i = 0; i<deckCount; i++){
-            Deck newDeck = new Deck();
-            newDeck.shuffleDeck();
-            addDeck(newDeck);
-        }
-        for(int i = 0; i < 3; i++) this.shuffleCardShoe();
+        this(deckCount, RandomSource.threadLocal());
     }
 
     /**
-     * Adds a new deck to the Card Shoe
+     * Constructor to Initialise Card Array with specified number of decks, shuffled together by the given generator
      *
-     * @param deck Deck Object storing an Array of Cards
+     * @param deckCount The number of decks to add to the card shoe
+     * @param random    The generator the shoe is shuffled with
      */
-    private void addDeck(Deck deck){
-        while(deck.size() > 0){
-            this.cardShoe.add(deck.dealCard());
+    public CardShoe(int deckCount, ShuffleRandom random){
+        this.random = random;
+        cards = new byte[deckCount * Card.DECK_SIZE];
+        for(int i = 0; i < cards.length; i++){
+            cards[i] = (byte) (i % Card.DECK_SIZE);
         }
+        shuffleCardShoe();
     }
 
     /**
-     * Gets the first card in the CardShoe and returns it
+     * Gets the next card in the CardShoe and returns it
      *
-     * @return dealtCard The first card in the Array
+     * @return dealtCard The next card in the shoe
      */
     public Card dealCard(){
-        Card dealtCard = this.cardShoe.get(0);
-        this.cardShoe.remove(0);
+        return Card.fromCode(dealCode());
+    }
+
+    /**
+     * Gets the code of the next card in the CardShoe
+     *
+     * @return The dealt card's code
+     */
+    public byte dealCode(){
+        return cards[nextCard++];
+    }
 
-        return dealtCard;
+    /**
+     * Puts a card which has been dealt back into the shoe, at a random position among the cards still to be dealt
+     *
+     * @param code The code of the card being returned
+     */
+    public void returnCard(byte code){
+        if(nextCard == 0){
+            throw new IllegalStateException("No cards have been dealt from this shoe to be returned");
+        }
+        int slot = --nextCard;
+        int swapWith = slot + random.nextInt(cards.length - slot);
+        cards[slot] = cards[swapWith];
+        cards[swapWith] = code;
     }
 
     /**
      * Returns how many cards are left in the shoe
      *
-     * @return size The number of cards left in card array
+     * @return size The number of cards left to be dealt
      */
     public int cardsLeft(){
-        return this.cardShoe.size();
+        return cards.length - nextCard;
     }
 
     /**
-     * Shuffles the order of all cards in the CardShoe
+     * Shuffles the order of all cards in the CardShoe, a Fisher-Yates shuffle of the card codes in place
      */
     private void shuffleCardShoe(){
-        Collections.shuffle(this.cardShoe);
+        for(int i = cards.length - 1; i > 0; i--){
+            int j = random.nextInt(i + 1);
+            byte swapped = cards[i];
+            cards[i] = cards[j];
+            cards[j] = swapped;
+        }
     }
 
 
@@ -0,0 +1,43 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * The outbound side of a connection to a client. A Player only ever talks to its client through this, so it does
+ * not need to know whether the connection is served by its own thread or by a shared event loop.
+ *
+ * Messages are buffered as they are sent and only go out on the network when flush is called, so the Table can send
+ * everything one stage of the round produces as a single write.
+ */
+public interface ClientConnection {
+
+    /**
+     * Buffers a single encoded protocol message to be sent to the client on the next flush
+     * @param message The bytes of the message, a text line or a binary frame
+     */
+    void send(byte[] message);
+
+    /**
+     * Writes every buffered message to the client
+     */
+    void flush();
+
+    /**
+     * Flushes any buffered messages and then closes the connection
+     */
+    void close();
+
+    /**
+     * Directs messages read from this connection to the given Player, used when a client resumes an earlier session
+     * @param player The Player the client is talking to
+     */
+    void attach(Player player);
+
+    /**
+     * Describes the remote end of the connection for the server log
+     * @return The client's address and port
+     */
+    String describe();
+}
@@ -0,0 +1,97 @@
+package com.amarasapps;
+
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Reads client messages from a blocking stream, as text lines or as binary frames. Unlike a BufferedReader it never
+ * decodes bytes past the end of the current message, so a client can switch from text to binary mid-stream.
+ */
+public class ClientInput {
+
+    private final InputStream input;                            //Buffered stream from the client
+    private byte[] frame = new byte[32];                        //Body of the last frame read
+    private final byte[] lineBuffer = new byte[TextProtocol.MAX_LINE_LENGTH];  //Bytes of the line being read
+
+    /**
+     * Constructor to wrap a client's input stream
+     * @param input The raw stream from the client's socket
+     */
+    public ClientInput(InputStream input){
+        this.input = new BufferedInputStream(input, 512);
+    }
+
+    /**
+     * Reads the next line of the text protocol
+     * @return The line without its terminator, or null if the client has disconnected
+     * @throws ProtocolException If the line is longer than TextProtocol.MAX_LINE_LENGTH
+     * @throws IOException If the stream fails
+     */
+    public String readLine() throws IOException {
+        int length = 0;
+        int b;
+        while((b = input.read()) != '\n'){
+            if(b < 0){
+                return null;
+            }
+            if(length == lineBuffer.length){
+                throw new ProtocolException("Line longer than " + TextProtocol.MAX_LINE_LENGTH + " bytes");
+            }
+            lineBuffer[length++] = (byte) b;
+        }
+        if(length > 0 && lineBuffer[length - 1] == '\r'){
+            length--;
+        }
+        return new String(lineBuffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the next frame of the binary protocol. The returned array is reused by the next call.
+     * @return The number of bytes in the frame body, or -1 if the client has disconnected
+     * @throws IOException If the stream fails or ends part way through a frame
+     */
+    public int readFrame() throws IOException {
+        int high = input.read();
+        int low = input.read();
+        if(high < 0 || low < 0){
+            return -1;
+        }
+        int length = (high << 8) | low;
+        if(length > frame.length){
+            frame = new byte[length];
+        }
+        int read = 0;
+        while(read < length){
+            int count = input.read(frame, read, length - read);
+            if(count < 0){
+                throw new EOFException("Client disconnected part way through a frame");
+            }
+            read += count;
+        }
+        return length;
+    }
+
+    /**
+     * Returns the body of the frame last read by readFrame
+     * @return The frame buffer, starting with the opcode
+     */
+    public byte[] getFrame(){
+        return frame;
+    }
+
+    /**
+     * Closes the stream from the client
+     */
+    public void close() throws IOException {
+        input.close();
+    }
+}
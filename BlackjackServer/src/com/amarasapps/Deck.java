@@ -12,6 +12,7 @@ import java.util.Collections;
 public class Deck {
 
     private ArrayList<Card> deck;   //Array of cards representing the deck
+    private int nextCard = 0;       //Position of the next card to be dealt
 
     /**
      * Constructor which initialises a Playing Deck
@@ -21,37 +22,37 @@ public class Deck {
 
         for(Card.Rank rank: Card.Rank.values()){
             for(Card.Suit suit: Card.Suit.values()){
-                deck.add(new Card(rank, suit));
+                deck.add(Card.of(rank, suit));
             }
         }
     }
 
     /**
-     * Removes the first card in the deck and returns it
+     * Deals the next card in the deck and returns it
      *
-     * @return card The first card in the deck to be 'dealt'
+     * @return card The next card in the deck to be 'dealt'
      */
     public Card dealCard(){
-        Card card = this.deck.get(0);
-        this.deck.remove(0);
-
-        return card;
+        return this.deck.get(nextCard++);
     }
 
     /**
      * Returns the size of the deck
      *
-     * @return size The number of cards in the deck
+     * @return size The number of cards left in the deck
      */
     public int size(){
-        return this.deck.size();
+        return this.deck.size() - nextCard;
     }
 
     /**
-     * Shuffles the order of cards in the Deck
+     * Shuffles the order of the cards left in the Deck
+     * @param random The generator the deck is shuffled with
      */
-    protected void shuffleDeck(){
-        Collections.shuffle(this.deck);
+    protected void shuffleDeck(ShuffleRandom random){
+        for(int i = this.deck.size() - 1; i > nextCard; i--){
+            Collections.swap(this.deck, i, nextCard + random.nextInt(i - nextCard + 1));
+        }
     }
 
 
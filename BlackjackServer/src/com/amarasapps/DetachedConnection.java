@@ -0,0 +1,33 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Stands in for the connection of a Player whose client has moved on to resume an earlier session. Everything sent
+ * to it is dropped, as the client is now talking to the Player it resumed.
+ */
+public class DetachedConnection implements ClientConnection {
+
+    public static final DetachedConnection INSTANCE = new DetachedConnection();
+
+    private DetachedConnection(){}
+
+    @Override
+    public void send(byte[] message) {}
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+
+    @Override
+    public void attach(Player player) {}
+
+    @Override
+    public String describe() {
+        return "detached";
+    }
+}
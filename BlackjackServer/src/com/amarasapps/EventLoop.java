@@ -0,0 +1,124 @@
+package com.amarasapps;
+
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * A single selector thread which serves many client connections. It reads from every connection which has data,
+ * dispatching complete lines to their Players, and writes out messages that Tables and Players have queued. The
+ * thread only wakes when there is I/O to do, so idle connections cost nothing.
+ */
+public class EventLoop implements Runnable {
+
+    private final Selector selector;                                            //Selector watching every connection
+    private final ConcurrentLinkedQueue<NioConnection> pendingRegistrations;    //Connections waiting to be registered
+    private final ConcurrentLinkedQueue<NioConnection> pendingFlushes;          //Connections with output to write
+    private volatile Thread loopThread;                                         //The thread running this loop
+
+    /**
+     * Constructor to open the selector used by the Event Loop
+     * @throws IOException If the selector cannot be opened
+     */
+    public EventLoop() throws IOException {
+        this.selector = Selector.open();
+        this.pendingRegistrations = new ConcurrentLinkedQueue<>();
+        this.pendingFlushes = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Hands a newly accepted connection to this Event Loop to be served
+     * @param connection The connection to register
+     */
+    public void register(NioConnection connection){
+        pendingRegistrations.add(connection);
+        selector.wakeup();
+    }
+
+    /**
+     * Asks the Event Loop to write out a connection's queued messages
+     * @param connection The connection with output waiting
+     */
+    void requestFlush(NioConnection connection){
+        pendingFlushes.add(connection);
+        if(Thread.currentThread() != loopThread){
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Executed when this Class is Run as a new Thread
+     */
+    @Override
+    public void run() {
+        loopThread = Thread.currentThread();
+        while(!Thread.currentThread().isInterrupted()){
+            try{
+                selector.select();
+                registerPending();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while(keys.hasNext()){
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    NioConnection connection = (NioConnection) key.attachment();
+                    try{
+                        if(key.isValid() && key.isReadable()){
+                            connection.read();
+                        }
+                        if(key.isValid() && key.isWritable()){
+                            connection.writeQueued();
+                        }
+                    }catch (RuntimeException e){
+                        dropConnection(connection, e);
+                    }
+                }
+
+                NioConnection connection;
+                while((connection = pendingFlushes.poll()) != null){
+                    try{
+                        connection.writeQueued();
+                    }catch (RuntimeException e){
+                        dropConnection(connection, e);
+                    }
+                }
+            }catch (IOException e){
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Disconnects a client whose messages could not be handled, so the other connections on this loop carry on
+     * @param connection    The connection being served when it failed
+     * @param e             What went wrong
+     */
+    private void dropConnection(NioConnection connection, RuntimeException e){
+        System.out.println(String.format("Dropping Client %s: %s", connection.describe(), e));
+        connection.disconnected();
+    }
+
+    /**
+     * Registers every connection handed over since the last pass of the loop
+     */
+    private void registerPending(){
+        NioConnection connection;
+        while((connection = pendingRegistrations.poll()) != null){
+            try{
+                SocketChannel channel = connection.getChannel();
+                connection.registered(channel.register(selector, SelectionKey.OP_READ, connection));
+            }catch (ClosedChannelException e){
+                connection.disconnected();
+            }
+        }
+    }
+}
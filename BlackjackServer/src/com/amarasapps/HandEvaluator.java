@@ -0,0 +1,176 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Answers every question about a hand with one array lookup, using tables built once when the class loads. A hand is
+ * looked up by its hard total, whether it holds an Ace and how many cards it has (one, two, or more), giving an outcome
+ * packed into an int: the hand's value and whether it is bust, a blackjack, soft, may be doubled down (balance aside), or
+ * would be hit by the dealer. A second table settles a player's outcome against the dealer's.
+ *
+ * Splitting depends on the ranks of the two cards rather than their total, so is still checked by BJHand.canSplit.
+ */
+public final class HandEvaluator {
+
+    //Results of settling a hand against the dealer's
+    public static final int LOSE = 0;
+    public static final int PUSH = 1;
+    public static final int WIN = 2;
+    public static final int BLACKJACK_WIN = 3;
+
+    private static final int VALUE_MASK = 0x1F;     //Bits of an outcome holding the hand's value
+    private static final int BUST = 1 << 5;
+    private static final int BLACKJACK = 1 << 6;
+    private static final int SOFT = 1 << 7;
+    private static final int DOUBLE = 1 << 8;       //Two cards worth 9, 10 or 11, which may be doubled down
+    private static final int DEALER_HITS = 1 << 9;  //The dealer must draw to this hand, standing on every 17
+
+    private static final int MAX_HARD_TOTAL = 31;   //Any higher hard total is bust all the same
+    private static final int COUNT_BUCKETS = 3;     //One card, two cards, or more
+    private static final int BUST_STATE = 22;       //Settling state of a bust hand, after the values 0 to 21
+    private static final int BLACKJACK_STATE = 23;  //Settling state of a blackjack
+    private static final int STATES = 24;
+
+    private static final int[] OUTCOMES = new int[(MAX_HARD_TOTAL + 1) * 2 * COUNT_BUCKETS];
+    private static final byte[] SETTLEMENTS = new byte[STATES * STATES];    //Result by player state then dealer state
+
+    static {
+        for(int hardTotal = 0; hardTotal <= MAX_HARD_TOTAL; hardTotal++){
+            for(int ace = 0; ace < 2; ace++){
+                for(int count = 1; count <= COUNT_BUCKETS; count++){
+                    OUTCOMES[index(hardTotal, ace == 1, count)] = outcomeOf(hardTotal, ace == 1, count);
+                }
+            }
+        }
+        for(int player = 0; player < STATES; player++){
+            for(int dealer = 0; dealer < STATES; dealer++){
+                SETTLEMENTS[player * STATES + dealer] = (byte) settlementOf(player, dealer);
+            }
+        }
+    }
+
+    private HandEvaluator(){}
+
+    /**
+     * Looks up the outcome of a hand
+     * @param hand The hand to evaluate
+     * @return The packed outcome, read with the other methods of this class
+     */
+    public static int evaluate(BJHand hand){
+        return OUTCOMES[index(Math.min(hand.hardTotal(), MAX_HARD_TOTAL), hand.hasAce(), hand.size())];
+    }
+
+    public static int value(int outcome){
+        return outcome & VALUE_MASK;
+    }
+
+    public static boolean isBust(int outcome){
+        return (outcome & BUST) != 0;
+    }
+
+    public static boolean isBlackjack(int outcome){
+        return (outcome & BLACKJACK) != 0;
+    }
+
+    public static boolean isSoft(int outcome){
+        return (outcome & SOFT) != 0;
+    }
+
+    public static boolean canDouble(int outcome){
+        return (outcome & DOUBLE) != 0;
+    }
+
+    public static boolean dealerHits(int outcome){
+        return (outcome & DEALER_HITS) != 0;
+    }
+
+    /**
+     * Settles a player's hand against the dealer's. Hands of equal value push, even a blackjack against a dealer's
+     * three card 21, otherwise a blackjack pays 3:2, and the higher hand or a dealer bust wins.
+     * @param playerOutcome The outcome of the player's hand
+     * @param dealerOutcome The outcome of the dealer's hand
+     * @return LOSE, PUSH, WIN or BLACKJACK_WIN
+     */
+    public static int settle(int playerOutcome, int dealerOutcome){
+        return SETTLEMENTS[state(playerOutcome) * STATES + state(dealerOutcome)];
+    }
+
+    /**
+     * Returns the position of a hand in the outcome table
+     * @param hardTotal The hand's value with every Ace counted as 1, at most MAX_HARD_TOTAL
+     * @param hasAce    Whether the hand holds an Ace
+     * @param count     The number of cards in the hand
+     * @return The index into OUTCOMES
+     */
+    private static int index(int hardTotal, boolean hasAce, int count){
+        int bucket = Math.min(Math.max(count, 1), COUNT_BUCKETS) - 1;
+        return (hardTotal * 2 + (hasAce ? 1 : 0)) * COUNT_BUCKETS + bucket;
+    }
+
+    /**
+     * Works out the outcome of a hand, used to build the outcome table
+     * @param hardTotal The hand's value with every Ace counted as 1
+     * @param hasAce    Whether the hand holds an Ace
+     * @param count     The number of cards in the hand, where COUNT_BUCKETS stands for that many or more
+     * @return The packed outcome
+     */
+    private static int outcomeOf(int hardTotal, boolean hasAce, int count){
+        boolean soft = hasAce && hardTotal <= 11;
+        int value = soft ? hardTotal + 10 : hardTotal;
+        int outcome = Math.min(value, VALUE_MASK);
+        if(value > 21){
+            outcome |= BUST;
+        }
+        if(soft){
+            outcome |= SOFT;
+        }
+        if(count == 2 && value == 21){
+            outcome |= BLACKJACK;
+        }
+        if(count == 2 && value >= 9 && value <= 11){
+            outcome |= DOUBLE;
+        }
+        if(value < 17 && (outcome & BLACKJACK) == 0){
+            outcome |= DEALER_HITS;
+        }
+        return outcome;
+    }
+
+    /**
+     * Reduces an outcome to what matters when settling: its value, or whether it is bust or a blackjack
+     * @param outcome The packed outcome
+     * @return The settling state, from 0 to STATES - 1
+     */
+    private static int state(int outcome){
+        if(isBust(outcome)){
+            return BUST_STATE;
+        }
+        return isBlackjack(outcome) ? BLACKJACK_STATE : value(outcome);
+    }
+
+    /**
+     * Works out the result of a player's state against the dealer's, used to build the settlement table
+     * @param player    The player's settling state
+     * @param dealer    The dealer's settling state
+     * @return LOSE, PUSH, WIN or BLACKJACK_WIN
+     */
+    private static int settlementOf(int player, int dealer){
+        if(player == BUST_STATE){
+            return LOSE;
+        }
+        int playerValue = player == BLACKJACK_STATE ? 21 : player;
+        int dealerValue = dealer == BLACKJACK_STATE ? 21 : dealer;
+        if(dealer != BUST_STATE && playerValue == dealerValue){
+            return PUSH;
+        }
+        if(player == BLACKJACK_STATE){
+            return BLACKJACK_WIN;
+        }
+        if(dealer == BUST_STATE || playerValue > dealerValue){
+            return WIN;
+        }
+        return LOSE;
+    }
+}
@@ -0,0 +1,205 @@
+package com.amarasapps;
+
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Reads the records of one segment of a RoundJournal, in the order they were written. Each call to next moves on to
+ * the next record, whose values are then read with the getters; values a record type does not have are left as 0.
+ */
+public class JournalReader {
+
+    private final ByteBuffer buffer;    //The segment's contents, positioned after the last record read
+    private final int tableId;          //Id of the Table the segment records
+    private final int segmentNumber;    //Number of the segment in the Table's journal
+
+    private byte type;                  //Type of the current record
+    private int seat;
+    private int handNumber;
+    private long value;                 //Round number, amount in cents, card code, choice or whether insurance was taken
+    private long time;                  //Start time of a ROUND, in epoch milliseconds
+    private String sessionToken;        //Session token of a SEAT, or account name of an ACCOUNT
+
+    /**
+     * Constructor to open a segment file and check its header
+     * @param file  The segment file
+     * @throws IOException If the file cannot be read or is not a journal segment
+     */
+    public JournalReader(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if(buffer.remaining() < MappedRoundJournal.HEADER_SIZE || buffer.getInt() != MappedRoundJournal.MAGIC){
+            throw new IOException("Not a round journal: " + file);
+        }
+        if(buffer.get() != MappedRoundJournal.VERSION){
+            throw new IOException("Unknown round journal version: " + file);
+        }
+        buffer.position(buffer.position() + 3);
+        tableId = buffer.getInt();
+        segmentNumber = buffer.getInt();
+    }
+
+    /**
+     * Moves on to the next record
+     * @return True if there was another record, false at the end of the segment
+     * @throws IOException If the record is cut short or of an unknown type
+     */
+    public boolean next() throws IOException {
+        if(!buffer.hasRemaining() || (type = buffer.get()) == 0){
+            return false;
+        }
+        seat = handNumber = 0;
+        value = time = 0;
+        sessionToken = null;
+        try{
+            switch (type){
+                case RoundJournal.ROUND:
+                    value = buffer.getLong();
+                    time = buffer.getLong();
+                    break;
+                case RoundJournal.SEAT:
+                case RoundJournal.ACCOUNT:
+                    seat = buffer.getInt();
+                    value = buffer.getLong();
+                    byte[] token = new byte[buffer.get()];
+                    buffer.get(token);
+                    sessionToken = new String(token, StandardCharsets.US_ASCII);
+                    break;
+                case RoundJournal.LEAVE:
+                    seat = buffer.getInt();
+                    break;
+                case RoundJournal.BET:
+                case RoundJournal.BALANCE:
+                    seat = buffer.getInt();
+                    value = buffer.getLong();
+                    break;
+                case RoundJournal.CARD:
+                case RoundJournal.PLAY:
+                    seat = buffer.getInt();
+                    handNumber = buffer.get();
+                    value = buffer.get();
+                    break;
+                case RoundJournal.INSURANCE:
+                    seat = buffer.getInt();
+                    value = buffer.get();
+                    break;
+                case RoundJournal.PAYOUT:
+                    seat = buffer.getInt();
+                    handNumber = buffer.get();
+                    value = buffer.getLong();
+                    break;
+                default:
+                    throw new IOException("Unknown round journal record: " + type);
+            }
+        }catch (RuntimeException e){
+            throw new IOException("Round journal record cut short", e);
+        }
+        return true;
+    }
+
+    /**
+     * Prints every record of a segment file, one to a line
+     * @param file  The segment file
+     * @param out   Where to print the records
+     * @throws IOException If the file cannot be read or is not a journal segment
+     */
+    public static void print(Path file, PrintStream out) throws IOException {
+        JournalReader reader = new JournalReader(file);
+        SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        out.printf("Table %d, Segment %d\n", reader.getTableId(), reader.getSegmentNumber());
+        while(reader.next()){
+            String record = describe(reader.getType(), reader.getSeat(), reader.getHandNumber(), reader.getValue());
+            if(reader.getType() == RoundJournal.ROUND){
+                record += " " + timeFormat.format(new Date(reader.getTime()));
+            }else if(reader.getType() == RoundJournal.SEAT || reader.getType() == RoundJournal.ACCOUNT){
+                record += " " + reader.getSessionToken();
+            }
+            out.println(record);
+        }
+    }
+
+    /**
+     * Describes a record in words, leaving out the time of a ROUND, the session token of a SEAT and the name of an
+     * ACCOUNT
+     * @param type          The type of record
+     * @param seat          The seat it is about
+     * @param handNumber    The number of the hand it is about
+     * @param value         Its value, such as an amount in cents or a card code
+     * @return The record as a line of text
+     */
+    public static String describe(byte type, int seat, int handNumber, long value){
+        switch (type){
+            case RoundJournal.ROUND:
+                return String.format("ROUND %d", value);
+            case RoundJournal.SEAT:
+                return String.format("SEAT %d %s", seat, Money.format(value));
+            case RoundJournal.LEAVE:
+                return String.format("LEAVE %d", seat);
+            case RoundJournal.BET:
+                return String.format("BET %d %s", seat, Money.format(value));
+            case RoundJournal.CARD:
+                return String.format("CARD %s %d %s", seat == RoundJournal.DEALER_SEAT ? "DEALER" : seat, handNumber,
+                        Card.fromCode((byte) value).toString().trim());
+            case RoundJournal.PLAY:
+                return String.format("PLAY %d %d %c", seat, handNumber, (char) value);
+            case RoundJournal.INSURANCE:
+                return String.format("INSURANCE %d %s", seat, value != 0 ? "TAKEN" : "DECLINED");
+            case RoundJournal.PAYOUT:
+                return String.format("PAYOUT %d %s %s", seat,
+                        handNumber == RoundJournal.INSURANCE_HAND ? "INSURANCE" : handNumber, Money.format(value));
+            case RoundJournal.BALANCE:
+                return String.format("BALANCE %d %s", seat, Money.format(value));
+            case RoundJournal.ACCOUNT:
+                return String.format("ACCOUNT %d %s", seat, Money.format(value));
+            default:
+                return "UNKNOWN " + type;
+        }
+    }
+
+    //**Getters**//
+
+    public int getTableId() {
+        return tableId;
+    }
+
+    public int getSegmentNumber() {
+        return segmentNumber;
+    }
+
+    public byte getType() {
+        return type;
+    }
+
+    public int getSeat() {
+        return seat;
+    }
+
+    public int getHandNumber() {
+        return handNumber;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public String getSessionToken() {
+        return sessionToken;
+    }
+}
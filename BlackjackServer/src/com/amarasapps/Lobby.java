@@ -0,0 +1,306 @@
+package com.amarasapps;
+
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Seats newly connected clients at a Table. A running Table with a free seat is filled first, the player waiting
+ * there until the next round starts. Otherwise players are added to a forming Table until it has enough to start, at
+ * which point the Table is started on its own thread and a new forming Table is opened for the next connection.
+ * Tables which have run out of players are closed and forgotten. Every Player is given a session in the Lobby's
+ * SessionRegistry, so its client can resume it after losing its connection.
+ *
+ * Table threads, and Player threads when using the blocking transport, are created by the given ThreadFactory so they
+ * can be run as virtual threads. The Lobby guards its state with a lock rather than synchronized so that a virtual
+ * Table thread closing itself never pins its carrier thread.
+ */
+public class Lobby {
+
+    private final TableSettings settings;           //Settings used for every new Table
+    private final ThreadFactory threadFactory;      //Creates the threads Tables and Players run on
+    private final SessionRegistry sessions;         //Sessions of every connected Player
+    private final RandomSource randomSource;        //Gives each new Table its generator for shuffling
+    private RoundObserver roundObserver = RoundObserver.NONE;   //Given to each new Table to time its rounds
+    private Path journalDirectory;                  //Folder each Table's round journal is written to, null for none
+    private AccountStore accounts = AccountStore.NONE;  //Store the accounts Players claim are kept in
+    private final ReentrantLock lobbyLock = new ReentrantLock();    //Guards the Tables and counters below
+    private final ArrayList<Table> runningTables;   //Tables which are currently playing
+    private Table formingTable;                     //Table currently being filled with players
+    private final ArrayList<Table> promisedTables = new ArrayList<>();  //Formed Tables waiting on players being greeted
+    private int nextTableId = 1;                    //Id given to the next Table opened
+    private int connectedClients = 0;               //Number of clients seated since the server started
+
+    /**
+     * Constructor to initialise an empty Lobby
+     * @param settings      The settings shared by every Table the Lobby opens
+     * @param threadFactory Creates the platform or virtual threads Tables and Players run on
+     */
+    public Lobby(TableSettings settings, ThreadFactory threadFactory){
+        this(settings, threadFactory, new SessionRegistry(SessionRegistry.DEFAULT_GRACE_PERIOD),
+                new RandomSource(RandomSource.SECURE));
+    }
+
+    /**
+     * Constructor to initialise an empty Lobby
+     * @param settings      The settings shared by every Table the Lobby opens
+     * @param threadFactory Creates the platform or virtual threads Tables and Players run on
+     * @param sessions      Holds the session of every Player seated
+     * @param randomSource  Gives each new Table its generator for shuffling
+     */
+    public Lobby(TableSettings settings, ThreadFactory threadFactory, SessionRegistry sessions, RandomSource randomSource){
+        this.settings = settings;
+        this.threadFactory = threadFactory;
+        this.sessions = sessions;
+        this.randomSource = randomSource;
+        this.runningTables = new ArrayList<>();
+    }
+
+    /**
+     * Seats a newly connected client, giving the Player a thread of its own to read from the Socket. The client is
+     * greeted without holding the Lobby's lock, so a slow client does not hold up seating anyone else.
+     * @param socket    The Socket to Communicate with the Client
+     * @return The Player created for the client, or null if the Socket's streams could not be opened
+     */
+    public Player seatPlayer(Socket socket){
+        Table table;
+        AccountStore accounts;
+        lobbyLock.lock();
+        try{
+            table = findSeat();
+            accounts = this.accounts;
+        }finally {
+            lobbyLock.unlock();
+        }
+        Player player;
+        try{
+            player = new Player(socket, table, settings.getStartingMoney(), sessions, accounts);
+        }catch (IOException e){
+            System.out.printf("Client Could Not Be Seated: %s\n", e);
+            lobbyLock.lock();
+            try{
+                table.cancelReservation();
+                startIfReady(table);
+            }finally {
+                lobbyLock.unlock();
+            }
+            try{
+                socket.close();
+            }catch (IOException ignored){}
+            return null;
+        }
+        lobbyLock.lock();
+        try{
+            Thread playerThread = threadFactory.newThread(player);
+            playerThread.setName("Player-" + (connectedClients + 1));
+            playerThread.start();
+            seat(player, table, String.format("%s:%d", socket.getInetAddress().getHostAddress(), socket.getPort()));
+            return player;
+        }finally {
+            lobbyLock.unlock();
+        }
+    }
+
+    /**
+     * Seats a newly connected client, reading from the connection is left to its Event Loop. As with a Socket, the
+     * client is greeted without holding the Lobby's lock.
+     * @param connection    The connection to Communicate with the Client
+     * @return The Player created for the client
+     */
+    public Player seatPlayer(ClientConnection connection){
+        Table table;
+        AccountStore accounts;
+        lobbyLock.lock();
+        try{
+            table = findSeat();
+            accounts = this.accounts;
+        }finally {
+            lobbyLock.unlock();
+        }
+        Player player = new Player(connection, table, settings.getStartingMoney(), sessions, accounts);
+        lobbyLock.lock();
+        try{
+            seat(player, table, connection.describe());
+            return player;
+        }finally {
+            lobbyLock.unlock();
+        }
+    }
+
+    /**
+     * Reserves a seat for a new player, at a running Table with a free seat if there is one, otherwise at the
+     * forming Table. A forming Table with every seat promised is set aside until those players are seated.
+     * @return The Table the seat is reserved at
+     */
+    private Table findSeat(){
+        for(Table table: runningTables){
+            if(table.reserveSeat()){
+                return table;
+            }
+        }
+        Table table = getFormingTable();
+        if(!table.reserveSeat()){
+            promisedTables.add(table);
+            formingTable = null;
+            table = getFormingTable();
+            table.reserveSeat();
+        }
+        return table;
+    }
+
+    /**
+     * Returns the Table currently being filled, opening a new one if the last was started
+     * @return The Table new players are seated at
+     */
+    private Table getFormingTable(){
+        if(formingTable == null){
+            int tableId = nextTableId++;
+            formingTable = new Table(tableId, settings, randomSource.newTableRandom(), roundObserver, openJournal(tableId));
+            System.out.printf("Table %d Opened\n", formingTable.getTableId());
+        }
+        return formingTable;
+    }
+
+    /**
+     * Opens the round journal for a new Table, if journals are being kept
+     * @param tableId   The id of the new Table
+     * @return The Table's journal, or RoundJournal.NONE if journals are off or it could not be created
+     */
+    private RoundJournal openJournal(int tableId){
+        if(journalDirectory == null){
+            return RoundJournal.NONE;
+        }
+        try{
+            return new MappedRoundJournal(journalDirectory, tableId);
+        }catch (IOException e){
+            System.out.printf("Table %d: Unable to Open Round Journal, Not Recording: %s\n", tableId, e);
+            return RoundJournal.NONE;
+        }
+    }
+
+    /**
+     * Adds the Player to the Table, starting a forming Table once it has enough players
+     * @param player    The newly created Player
+     * @param table     The Table a seat was reserved at
+     * @param client    Description of the client's address for the log
+     */
+    private void seat(Player player, Table table, String client){
+        connectedClients++;
+        table.addPlayer(player);
+        System.out.printf("Client %d Connected to Table %d: %s\n", connectedClients, table.getTableId(), client);
+        startIfReady(table);
+    }
+
+    /**
+     * Starts a Table which has not yet started once enough players have joined it, counting only players who have
+     * been added, not seats reserved for players still being greeted. A Table set aside with every seat promised also
+     * starts once none of its reservations are left, however many players joined.
+     * @param table The Table a player has just joined, or given up a reservation at
+     */
+    private void startIfReady(Table table){
+        int joined = table.joinedPlayers();
+        if(table == formingTable){
+            if(joined >= settings.getPlayersPerTable()){
+                formingTable = null;
+                startTable(table);
+            }
+        }else if(promisedTables.contains(table)){
+            if(joined >= settings.getPlayersPerTable() || joined == table.takenSeats()){
+                promisedTables.remove(table);
+                startTable(table);
+            }
+        }
+    }
+
+    /**
+     * Starts the given table playing on a thread of its own
+     * @param table The full table to start
+     */
+    private void startTable(Table table){
+        runningTables.add(table);
+        System.out.printf("Table %d Full, Starting. Running Tables: %d\n", table.getTableId(), runningTables.size());
+        Thread tableThread = threadFactory.newThread(() -> {
+            try{
+                table.run();
+            }finally {
+                tableClosed(table);
+            }
+        });
+        tableThread.setName("Table-" + table.getTableId());
+        tableThread.start();
+    }
+
+    /**
+     * Removes a Table which has finished playing from the Lobby
+     * @param table The table which has no players left
+     */
+    private void tableClosed(Table table){
+        lobbyLock.lock();
+        try{
+            runningTables.remove(table);
+            System.out.printf("Table %d Closed. Running Tables: %d\n", table.getTableId(), runningTables.size());
+        }finally {
+            lobbyLock.unlock();
+        }
+    }
+
+    /**
+     * Sets the observer given to every Table opened from now on, told how long each stage of their rounds takes
+     * @param roundObserver The observer, which is called from every Table's thread
+     */
+    public void setRoundObserver(RoundObserver roundObserver){
+        lobbyLock.lock();
+        try{
+            this.roundObserver = roundObserver;
+        }finally {
+            lobbyLock.unlock();
+        }
+    }
+
+    /**
+     * Sets the folder the round journal of every Table opened from now on is written to
+     * @param journalDirectory The folder, or null to keep no journals
+     */
+    public void setJournalDirectory(Path journalDirectory){
+        lobbyLock.lock();
+        try{
+            this.journalDirectory = journalDirectory;
+        }finally {
+            lobbyLock.unlock();
+        }
+    }
+
+    /**
+     * Sets the store the accounts of Players connecting from now on are kept in
+     * @param accounts The store, or AccountStore.NONE to keep no accounts
+     */
+    public void setAccountStore(AccountStore accounts){
+        lobbyLock.lock();
+        try{
+            this.accounts = accounts;
+        }finally {
+            lobbyLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of Tables which are currently playing
+     * @return Number of running Tables
+     */
+    public int runningTableCount(){
+        lobbyLock.lock();
+        try{
+            return runningTables.size();
+        }finally {
+            lobbyLock.unlock();
+        }
+    }
+}
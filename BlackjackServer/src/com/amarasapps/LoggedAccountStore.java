@@ -0,0 +1,377 @@
+package com.amarasapps;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Keeps player accounts in memory, saving every balance to a write-ahead log in a folder, with a snapshot of every
+ * account taken from time to time so the log never grows long.
+ *
+ * Balances are read from and updated in memory. Each update is queued for the log writer thread, which writes every
+ * update waiting for it at once and forces them to disk together, so a Table settling its round never waits on the
+ * disk, and a burst of updates costs a single force. Each log record is an account name length (byte), the name
+ * (ASCII), the balance in cents (long) and a CRC32 of the record, so a record cut short by a crash is ignored.
+ *
+ * Logs are numbered, accounts-[generation].log. Once enough updates have been logged, the writer starts the next log
+ * and writes every balance it has logged to accounts.snapshot, replacing the last snapshot in one move, after which
+ * the older log is deleted. The snapshot records the generation of the first log written after it. On starting, the
+ * store loads the snapshot, replays the logs from its generation on in order, and takes a new snapshot straight away.
+ */
+public class LoggedAccountStore implements AccountStore {
+
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 100000;    //Updates logged between snapshots
+    static final int SNAPSHOT_MAGIC = 0x424A4153;                  //"BJAS", the start of a snapshot
+    static final byte VERSION = 1;
+    static final String SNAPSHOT_NAME = "accounts.snapshot";
+    private static final int MAX_BATCH = 4096;                      //Most updates written before each force
+
+    private final Path directory;           //Folder the snapshot and logs are kept in
+    private final int snapshotInterval;     //Updates logged between snapshots
+    private final ConcurrentHashMap<String, Long> balances = new ConcurrentHashMap<>();     //Latest balance of each account, in cents
+    private final Set<String> claimed = ConcurrentHashMap.newKeySet();     //Accounts held by a connected Player
+    private final LinkedBlockingQueue<Update> pending = new LinkedBlockingQueue<>();       //Updates waiting to be logged
+    private final Thread writer;            //Writes and forces the pending updates
+
+    //Only used by the writer thread once the store is open
+    private final HashMap<String, Long> logged = new HashMap<>();  //Balances written to the logs, in cents
+    private FileChannel log;                //The log being appended to, null once the log has failed
+    private long generation;                //Number of the log being appended to
+    private int loggedSinceSnapshot = 0;    //Updates written to the log since the last snapshot
+    private ByteBuffer batch = ByteBuffer.allocateDirect(64 * 1024);   //Encoded records written with each force
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Constructor to open the accounts kept in a folder, recovering them from the snapshot and logs
+     * @param directory         The folder to keep the accounts in, created if it does not exist
+     * @param snapshotInterval  Updates logged between snapshots
+     * @throws IOException If the folder cannot be read or written to
+     */
+    public LoggedAccountStore(Path directory, int snapshotInterval) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.snapshotInterval = snapshotInterval;
+        recover();
+        balances.putAll(logged);
+        takeSnapshot();
+        this.writer = new Thread(this::writeUpdates, "Account-Log-Writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Returns the number of accounts kept
+     * @return Number of accounts
+     */
+    public int accountCount(){
+        return balances.size();
+    }
+
+    @Override
+    public Long claim(String account, long startingMoney) {
+        if(!claimed.add(account)){
+            return null;
+        }
+        Long cents = balances.get(account);
+        if(cents == null){
+            update(account, startingMoney);     //Opens the account
+            return startingMoney;
+        }
+        return cents;
+    }
+
+    @Override
+    public void update(String account, long balance) {
+        balances.put(account, balance);
+        pending.add(new Update(account, balance));
+    }
+
+    @Override
+    public void release(String account) {
+        claimed.remove(account);
+    }
+
+    /**
+     * Waits for the writer to log every update made so far, then closes the log
+     */
+    @Override
+    public void close() {
+        pending.add(Update.CLOSE);
+        try{
+            writer.join();
+        }catch (InterruptedException ignored){}
+    }
+
+    //**Log Writer**//
+
+    /**
+     * Writes updates to the log as they arrive until the store is closed. Every update waiting is written in one go
+     * and forced to disk once.
+     */
+    private void writeUpdates(){
+        ArrayList<Update> updates = new ArrayList<>();
+        boolean closing = false;
+        while(!closing){
+            try{
+                updates.add(pending.take());
+            }catch (InterruptedException e){
+                continue;
+            }
+            pending.drainTo(updates, MAX_BATCH - 1);
+            int close = updates.indexOf(Update.CLOSE);
+            if(close >= 0){
+                updates.subList(close, updates.size()).clear();
+                closing = true;
+            }
+            if(log != null && !updates.isEmpty()){
+                try{
+                    writeBatch(updates);
+                    if(loggedSinceSnapshot >= snapshotInterval){
+                        takeSnapshot();
+                    }
+                }catch (IOException e){
+                    System.out.println("Account Log Failed, Balances No Longer Saved: " + e);
+                    log = null;
+                }
+            }
+            updates.clear();
+        }
+        try{
+            if(log != null){
+                log.close();
+            }
+        }catch (IOException ignored){}
+    }
+
+    /**
+     * Appends a batch of updates to the log and forces them to disk
+     * @param updates   The updates to write
+     * @throws IOException If the log cannot be written to
+     */
+    private void writeBatch(ArrayList<Update> updates) throws IOException {
+        batch.clear();
+        for(Update update: updates){
+            byte[] name = update.account.getBytes(StandardCharsets.US_ASCII);
+            if(batch.remaining() < name.length + 13){
+                batch.flip();
+                writeFully(log, batch);
+                batch.clear();
+            }
+            int start = batch.position();
+            batch.put((byte) name.length).put(name).putLong(update.cents);
+            batch.putInt(checksum(batch, start, batch.position()));
+            logged.put(update.account, update.cents);
+        }
+        batch.flip();
+        writeFully(log, batch);
+        log.force(false);
+        loggedSinceSnapshot += updates.size();
+    }
+
+    /**
+     * Works out the CRC32 of part of a buffer, leaving its position where it was
+     * @param buffer    The buffer
+     * @param from      Index of the first byte
+     * @param to        Index after the last byte
+     * @return The checksum
+     */
+    private int checksum(ByteBuffer buffer, int from, int to){
+        crc.reset();
+        for(int i = from; i < to; i++){
+            crc.update(buffer.get(i));
+        }
+        return (int) crc.getValue();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+    }
+
+    //**Snapshots**//
+
+    /**
+     * Starts the next log, writes every logged balance to a new snapshot which replaces the last one, then deletes
+     * the logs the snapshot now covers
+     * @throws IOException If the log or snapshot cannot be written
+     */
+    private void takeSnapshot() throws IOException {
+        FileChannel previous = log;
+        generation++;
+        log = FileChannel.open(logFile(generation), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+        Path temporary = directory.resolve(SNAPSHOT_NAME + ".tmp");
+        try(FileChannel snapshot = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)){
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            buffer.putInt(SNAPSHOT_MAGIC).put(VERSION).putLong(generation).putInt(logged.size());
+            crc.reset();
+            for(Map.Entry<String, Long> account: logged.entrySet()){
+                byte[] name = account.getKey().getBytes(StandardCharsets.US_ASCII);
+                if(buffer.remaining() < name.length + 9){
+                    writeSnapshotBuffer(snapshot, buffer);
+                }
+                buffer.put((byte) name.length).put(name).putLong(account.getValue());
+            }
+            writeSnapshotBuffer(snapshot, buffer);
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            writeFully(snapshot, buffer);
+            snapshot.force(true);
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT_NAME), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+
+        if(previous != null){
+            previous.close();
+        }
+        for(long older: logGenerations().keySet()){
+            if(older < generation){
+                Files.delete(logFile(older));
+            }
+        }
+        loggedSinceSnapshot = 0;
+    }
+
+    /**
+     * Writes out a full snapshot buffer, adding it to the snapshot's checksum, and clears it
+     */
+    private void writeSnapshotBuffer(FileChannel snapshot, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        crc.update(buffer.array(), 0, buffer.limit());
+        writeFully(snapshot, buffer);
+        buffer.clear();
+    }
+
+    //**Recovery**//
+
+    /**
+     * Loads the snapshot, if there is one, and replays every log written after it
+     * @throws IOException If a file cannot be read, or the snapshot is damaged
+     */
+    private void recover() throws IOException {
+        long firstGeneration = 1;
+        Path snapshot = directory.resolve(SNAPSHOT_NAME);
+        if(Files.exists(snapshot)){
+            firstGeneration = loadSnapshot(snapshot);
+            generation = firstGeneration;
+        }
+        for(Map.Entry<Long, Path> file: logGenerations().entrySet()){
+            generation = Math.max(generation, file.getKey());
+            if(file.getKey() >= firstGeneration){
+                replayLog(file.getValue());
+            }
+        }
+    }
+
+    /**
+     * Reads every balance in the snapshot
+     * @param file  The snapshot file
+     * @return The generation of the first log written after the snapshot
+     * @throws IOException If the snapshot cannot be read or is damaged
+     */
+    private long loadSnapshot(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        try{
+            if(buffer.getInt() != SNAPSHOT_MAGIC || buffer.get() != VERSION){
+                throw new IOException("Not an account snapshot: " + file);
+            }
+            crc.reset();
+            crc.update(buffer.array(), 0, buffer.limit() - 4);
+            if((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)){
+                throw new IOException("Account snapshot is damaged: " + file);
+            }
+            long snapshotGeneration = buffer.getLong();
+            int count = buffer.getInt();
+            for(int i = 0; i < count; i++){
+                byte[] name = new byte[buffer.get()];
+                buffer.get(name);
+                logged.put(new String(name, StandardCharsets.US_ASCII), buffer.getLong());
+            }
+            return snapshotGeneration;
+        }catch (RuntimeException e){
+            throw new IOException("Account snapshot is damaged: " + file, e);
+        }
+    }
+
+    /**
+     * Replays the records of a log, stopping at the first record cut short or damaged, which can only be the last
+     * one written before a crash
+     * @param file  The log file
+     * @throws IOException If the log cannot be read
+     */
+    private void replayLog(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        while(buffer.remaining() > 0){
+            int start = buffer.position();
+            int length = buffer.get(start) & 0xFF;
+            if(length == 0 || buffer.remaining() < length + 13){
+                break;
+            }
+            byte[] name = new byte[length];
+            buffer.position(start + 1);
+            buffer.get(name);
+            long cents = buffer.getLong();
+            if(buffer.getInt() != checksum(buffer, start, start + length + 9)){
+                break;
+            }
+            logged.put(new String(name, StandardCharsets.US_ASCII), cents);
+        }
+    }
+
+    /**
+     * Finds the logs in the folder
+     * @return Each log file by its generation, in order
+     * @throws IOException If the folder cannot be read
+     */
+    private TreeMap<Long, Path> logGenerations() throws IOException {
+        TreeMap<Long, Path> logs = new TreeMap<>();
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(directory, "accounts-*.log")){
+            for(Path file: files){
+                String name = file.getFileName().toString();
+                try{
+                    logs.put(Long.parseLong(name.substring("accounts-".length(), name.length() - ".log".length())), file);
+                }catch (NumberFormatException ignored){}
+            }
+        }
+        return logs;
+    }
+
+    private Path logFile(long generation){
+        return directory.resolve(String.format("accounts-%06d.log", generation));
+    }
+
+    /**
+     * A balance waiting to be written to the log
+     */
+    private static class Update {
+        static final Update CLOSE = new Update(null, 0);    //Tells the writer to stop once everything before it is written
+
+        final String account;
+        final long cents;
+
+        Update(String account, long cents){
+            this.account = account;
+            this.cents = cents;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.amarasapps;
+
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Writes a Table's RoundJournal into memory mapped segment files of a fixed size, named table-[id]-[segment].journal.
+ * Each segment is created at its full size and mapped before it is needed, so appending a record is only a few writes
+ * to memory with no system calls; the operating system writes the pages out to disk in the background. The next
+ * segment is mapped in the background while the current one fills, in the same way a Table's next shoe is shuffled,
+ * on a small pool of threads shared by every journal.
+ *
+ * Each segment starts with a header: the magic number, the format version, the Table's id and the segment's number.
+ * Records are appended after it, the unused rest of the segment left as zeros. Bets are placed from the Players'
+ * threads at the same time, so records are appended holding a lock. A journal which cannot be written to reports it
+ * once and then stops recording, rather than stopping its Table.
+ */
+public class MappedRoundJournal implements RoundJournal {
+
+    public static final int SEGMENT_SIZE = 8 * 1024 * 1024;    //Bytes in each segment file
+    static final int MAGIC = 0x424A524A;                        //"BJRJ", the start of every segment
+    static final byte VERSION = 3;
+    static final int HEADER_SIZE = 16;                          //Magic, version and padding, Table id, segment number
+
+    private static final AtomicInteger threadCount = new AtomicInteger();    //Numbers the segment mapping threads
+    private static final ExecutorService MAPPERS = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors())), runnable -> {
+                Thread thread = new Thread(runnable, "Journal-Mapper-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final Path directory;               //Folder the segment files are written to
+    private final int tableId;                  //Id of the Table being recorded
+    private final ReentrantLock journalLock = new ReentrantLock();  //Keeps records from different threads whole
+    private MappedByteBuffer segment;           //The segment being appended to, null once the journal has failed
+    private int segmentNumber = 1;              //Number of the segment being appended to
+    private CompletableFuture<MappedByteBuffer> nextSegment;   //The segment used once this one is full
+
+    /**
+     * Constructor to create and map the first segment of a Table's journal
+     * @param directory The folder to write the segment files to
+     * @param tableId   The id of the Table being recorded
+     * @throws IOException If the first segment cannot be created
+     */
+    public MappedRoundJournal(Path directory, int tableId) throws IOException {
+        this.directory = directory;
+        this.tableId = tableId;
+        this.segment = mapSegment(segmentNumber);
+        this.nextSegment = prepareSegment(segmentNumber + 1);
+    }
+
+    /**
+     * Creates the folder the journals of this run of the server are written to, named after the time it started, so
+     * that Table ids starting again from 1 never overwrite an earlier run's journals
+     * @param root  The folder given for journals
+     * @return The folder for this run
+     * @throws IOException If the folder cannot be created
+     */
+    public static Path runDirectory(Path root) throws IOException {
+        String started = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        return Files.createDirectories(root.resolve(started));
+    }
+
+    /**
+     * Returns the name of a segment file
+     * @param tableId       The id of the Table recorded
+     * @param segmentNumber The number of the segment, starting at 1
+     * @return The file name
+     */
+    public static String segmentName(int tableId, int segmentNumber){
+        return String.format("table-%d-%04d.journal", tableId, segmentNumber);
+    }
+
+    /**
+     * Creates a segment file at its full size and maps it, ready for records to be appended after its header
+     * @param number    The number of the segment
+     * @return The mapped segment
+     * @throws IOException If the file cannot be created or mapped
+     */
+    private MappedByteBuffer mapSegment(int number) throws IOException {
+        Path file = directory.resolve(segmentName(tableId, number));
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)){
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);   //Stays mapped once closed
+            mapped.putInt(MAGIC).put(VERSION).put(new byte[3]).putInt(tableId).putInt(number);
+            return mapped;
+        }
+    }
+
+    /**
+     * Starts creating and mapping a segment in the background, on the journals' own threads so it never waits
+     * behind unrelated work
+     * @param number    The number of the segment
+     * @return The mapped segment, once it is ready
+     */
+    private CompletableFuture<MappedByteBuffer> prepareSegment(int number){
+        return CompletableFuture.supplyAsync(() -> {
+            try{
+                return mapSegment(number);
+            }catch (IOException e){
+                throw new UncheckedIOException(e);
+            }
+        }, MAPPERS);
+    }
+
+    /**
+     * Makes room for a record, moving on to the next segment if this one is full. Must be called holding the lock.
+     * @param size  The size of the record in bytes
+     * @return True if the record can be appended to the segment, false if the journal has failed
+     */
+    private boolean reserve(int size){
+        if(segment == null){
+            return false;
+        }
+        if(segment.remaining() < size){
+            try{
+                segment = nextSegment.join();
+                segmentNumber++;
+                nextSegment = prepareSegment(segmentNumber + 1);
+            }catch (CompletionException e){
+                System.out.printf("Table %d: Round Journal Failed, No Longer Recording: %s\n", tableId, e.getCause());
+                segment = null;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void roundStarted(long round) {
+        journalLock.lock();
+        try{
+            if(reserve(17)){
+                segment.put(ROUND).putLong(round).putLong(System.currentTimeMillis());
+            }
+        }finally {
+            journalLock.unlock();
+        }
+    }
+
+    @Override
+    public void seated(int seat, long balance, String sessionToken) {
+        byte[] token = sessionToken == null ? new byte[0] : sessionToken.getBytes(StandardCharsets.US_ASCII);
+        journalLock.lock();
+        try{
+            if(reserve(14 + token.length)){
+                segment.put(SEAT).putInt(seat).putLong(balance).put((byte) token.length).put(token);
+            }
+        }finally {
+            journalLock.unlock();
+        }
+    }
+
+    @Override
+    public void left(int seat) {
+        journalLock.lock();
+        try{
+            if(reserve(5)){
+                segment.put(LEAVE).putInt(seat);
+            }
+        }finally {
+            journalLock.unlock();
+        }
+    }
+
+    @Override
+    public void bet(int seat, long amount) {
+        journalLock.lock();
+        try{
+            if(reserve(13)){
+                segment.put(BET).putInt(seat).putLong(amount);
+            }
+        }finally {
+            journalLock.unlock();
+        }
+    }
+
+    @Override
+    public void cardDealt(int seat, int handNumber, Card card) {
+        journalLock.lock();
+        try{
+            if(reserve(7)){
+                segment.put(CARD).putInt(seat).put((byte) handNumber).put(card.getCode());
+            }
+        }finally {
+            journalLock.unlock();
+        }
+    }
+
+    @Override
+    public void played(int seat, int handNumber, char choice) {
+        journalLock.lock();
+        try{
+            if(reserve(7)){
+                segment.put(PLAY).putInt(seat).put((byte) handNumber).put((byte) choice);
+            }
+        }finally {
+            journalLock.unlock();
+        }
+    }
+
+    @Override
+    public void insurance(int seat, boolean taken) {
+        journalLock.lock();
+        try{
+            if(reserve(6)){
+                segment.put(INSURANCE).putInt(seat).put((byte) (taken ? 1 : 0));
+            }
+        }finally {
+            journalLock.unlock();
+        }
+    }
+
+    @Override
+    public void payout(int seat, int handNumber, long change) {
+        journalLock.lock();
+        try{
+            if(reserve(14)){
+                segment.put(PAYOUT).putInt(seat).put((byte) handNumber).putLong(change);
+            }
+        }finally {
+            journalLock.unlock();
+        }
+    }
+
+    @Override
+    public void balance(int seat, long balance) {
+        journalLock.lock();
+        try{
+            if(reserve(13)){
+                segment.put(BALANCE).putInt(seat).putLong(balance);
+            }
+        }finally {
+            journalLock.unlock();
+        }
+    }
+
+    @Override
+    public void account(int seat, long balance, String account) {
+        byte[] name = account.getBytes(StandardCharsets.US_ASCII);
+        journalLock.lock();
+        try{
+            if(reserve(14 + name.length)){
+                segment.put(ACCOUNT).putInt(seat).putLong(balance).put((byte) name.length).put(name);
+            }
+        }finally {
+            journalLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the segment being appended to out to disk, and removes the unused next segment
+     */
+    @Override
+    public void close() {
+        journalLock.lock();
+        try{
+            if(segment != null){
+                segment.force();
+                segment = null;
+            }
+            try{
+                nextSegment.join();
+                Files.deleteIfExists(directory.resolve(segmentName(tableId, segmentNumber + 1)));
+            }catch (CompletionException | IOException ignored){}
+        }finally {
+            journalLock.unlock();
+        }
+    }
+}
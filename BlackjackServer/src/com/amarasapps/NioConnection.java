@@ -0,0 +1,240 @@
+package com.amarasapps;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * A non-blocking connection to a client, owned by a single EventLoop. Bytes read are assembled into text lines, or
+ * into binary frames once the Player has switched to the binary protocol, and each complete message is handed to the
+ * Player. Messages sent from any thread are queued, and written by the EventLoop in a single gathering write once
+ * the connection is flushed.
+ */
+public class NioConnection implements ClientConnection {
+
+    private static final int READ_BUFFER_SIZE = 512;    //Bytes read from the channel at a time
+
+    private final SocketChannel channel;    //Channel Connecting to Client
+    private final EventLoop eventLoop;      //The Event Loop which serves this connection
+    private final String remoteAddress;     //Client address, kept for logging after the channel closes
+    private SelectionKey selectionKey;      //Key registering the channel with the Event Loop's selector
+    private Player player;                  //The Player which handles messages from this client
+
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private final byte[] lineBuffer = new byte[TextProtocol.MAX_LINE_LENGTH];  //Partial line received so far
+    private int lineLength = 0;             //Bytes of the partial line received so far
+    private byte[] frame = new byte[32];    //Partial binary frame received so far
+    private int frameLength = -1;           //Length of the frame being received, -1 until both length bytes arrive
+    private int frameBytesRead = 0;         //Bytes of the frame, or of its length, received so far
+    private final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<>();  //Messages waiting to be written
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);  //Whether the Event Loop has been asked to write
+    private volatile boolean closeRequested = false;    //Close once the write queue has drained
+    private boolean closed = false;
+
+    /**
+     * Constructor to wrap an accepted client channel
+     * @param channel   The accepted channel, already in non-blocking mode
+     * @param eventLoop The Event Loop that will serve the channel
+     * @throws IOException If the remote address cannot be read
+     */
+    public NioConnection(SocketChannel channel, EventLoop eventLoop) throws IOException {
+        this.channel = channel;
+        this.eventLoop = eventLoop;
+        this.remoteAddress = channel.getRemoteAddress().toString();
+    }
+
+    @Override
+    public void attach(Player player){
+        this.player = player;
+    }
+
+    @Override
+    public void send(byte[] message) {
+        synchronized (writeQueue){
+            writeQueue.add(ByteBuffer.wrap(message));
+        }
+    }
+
+    @Override
+    public void flush() {
+        scheduleFlush();
+    }
+
+    @Override
+    public void close() {
+        closeRequested = true;
+        scheduleFlush();
+    }
+
+    @Override
+    public String describe() {
+        return remoteAddress;
+    }
+
+    /**
+     * Asks the Event Loop to write out the queued messages, unless it has already been asked to
+     */
+    private void scheduleFlush(){
+        if(flushScheduled.compareAndSet(false, true)){
+            eventLoop.requestFlush(this);
+        }
+    }
+
+    //**Event Loop Callbacks**//
+
+    /**
+     * Returns the channel for the Event Loop to register with its selector
+     * @return The client channel
+     */
+    SocketChannel getChannel(){
+        return channel;
+    }
+
+    /**
+     * Called by the Event Loop once the channel has been registered with its selector
+     * @param key The key for the registered channel
+     */
+    void registered(SelectionKey key){
+        this.selectionKey = key;
+        writeQueued();
+    }
+
+    /**
+     * Reads everything available on the channel, passing each complete message to the Player
+     */
+    void read(){
+        try{
+            int bytesRead;
+            while((bytesRead = channel.read(readBuffer)) > 0){
+                readBuffer.flip();
+                while(readBuffer.hasRemaining()){
+                    if(player.readsBinaryFrames()){
+                        readFrameByte(readBuffer.get());
+                    }else{
+                        readLineByte(readBuffer.get());
+                    }
+                }
+                readBuffer.clear();
+            }
+            if(bytesRead < 0){
+                disconnected();
+            }
+        }catch (IOException e){
+            disconnected();
+        }
+    }
+
+    /**
+     * Adds a byte to the text line being received, handing the line to the Player once it is complete
+     * @param b The byte read from the channel
+     * @throws IllegalStateException If the line is longer than TextProtocol.MAX_LINE_LENGTH, so the Event Loop drops
+     *                               the connection
+     */
+    private void readLineByte(byte b){
+        if(b == '\n'){
+            int length = lineLength;
+            if(length > 0 && lineBuffer[length - 1] == '\r'){
+                length--;
+            }
+            String line = new String(lineBuffer, 0, length, StandardCharsets.UTF_8);
+            lineLength = 0;
+            player.handleClientMessage(line);
+        }else{
+            if(lineLength == lineBuffer.length){
+                throw new IllegalStateException("Line longer than " + TextProtocol.MAX_LINE_LENGTH + " bytes");
+            }
+            lineBuffer[lineLength++] = b;
+        }
+    }
+
+    /**
+     * Adds a byte to the binary frame being received, handing the frame to the Player once it is complete
+     * @param b The byte read from the channel
+     */
+    private void readFrameByte(byte b){
+        if(frameLength < 0){
+            frame[frameBytesRead++] = b;
+            if(frameBytesRead == 2){
+                frameLength = ((frame[0] & 0xFF) << 8) | (frame[1] & 0xFF);
+                frameBytesRead = 0;
+                if(frameLength > frame.length){
+                    frame = new byte[frameLength];
+                }
+            }
+        }else{
+            frame[frameBytesRead++] = b;
+        }
+        if(frameLength >= 0 && frameBytesRead == frameLength){
+            int length = frameLength;
+            frameLength = -1;
+            frameBytesRead = 0;
+            player.handleClientFrame(frame, length);
+        }
+    }
+
+    /**
+     * Writes as much of the queued output as the channel will accept, waiting for the channel to become writable
+     * again if it fills up. Closes the channel once everything is written and a close has been requested.
+     */
+    void writeQueued(){
+        flushScheduled.set(false);
+        if(selectionKey == null || closed){
+            return;
+        }
+        try{
+            synchronized (writeQueue){
+                if(!writeQueue.isEmpty()){
+                    channel.write(writeQueue.toArray(new ByteBuffer[0]));
+                    while(!writeQueue.isEmpty() && !writeQueue.peek().hasRemaining()){
+                        writeQueue.poll();
+                    }
+                    if(!writeQueue.isEmpty()){
+                        selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                }
+            }
+            selectionKey.interestOps(SelectionKey.OP_READ);
+            if(closeRequested){
+                closeChannel();
+            }
+        }catch (IOException e){
+            disconnected();
+        }
+    }
+
+    /**
+     * Handles the client going away, closing the channel and informing the Player
+     */
+    void disconnected(){
+        if(closed){
+            return;
+        }
+        closeChannel();
+        if(!closeRequested && player != null){
+            player.handleDisconnect(this);
+        }
+    }
+
+    /**
+     * Closes the underlying channel and removes it from the Event Loop's selector
+     */
+    private void closeChannel(){
+        closed = true;
+        if(selectionKey != null){
+            selectionKey.cancel();
+        }
+        try{
+            channel.close();
+        }catch (IOException ignored){}
+    }
+}
@@ -0,0 +1,75 @@
+package com.amarasapps;
+
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Accepts client connections and spreads them across a small, fixed set of EventLoops, so that the number of
+ * server threads does not grow with the number of connected players
+ */
+public class NioTransport {
+
+    private final ServerSocketChannel serverChannel;    //Channel accepting new clients
+    private final EventLoop[] eventLoops;               //Event Loops serving the connected clients
+    private final Lobby lobby;                          //Lobby which seats each new client
+    private int nextEventLoop = 0;                      //Round robin position for the next connection
+
+    /**
+     * Constructor to bind the server port and start the Event Loop threads
+     * @param port          The port to accept clients on
+     * @param eventLoopCount The number of Event Loop threads to serve clients with
+     * @param lobby         The Lobby to seat new clients with
+     * @throws IOException If the port cannot be bound or a selector cannot be opened
+     */
+    public NioTransport(int port, int eventLoopCount, Lobby lobby) throws IOException {
+        this.lobby = lobby;
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(port));
+        this.eventLoops = new EventLoop[eventLoopCount];
+
+        for(int i = 0; i < eventLoopCount; i++){
+            eventLoops[i] = new EventLoop();
+            Thread loopThread = new Thread(eventLoops[i], "EventLoop-" + (i + 1));
+            loopThread.start();
+        }
+    }
+
+    /**
+     * Accepts clients until the server is stopped, seating each one and handing it to an Event Loop
+     * @throws IOException If the server channel fails
+     */
+    public void acceptClients() throws IOException {
+        while(true){
+            SocketChannel channel = serverChannel.accept();
+            try{
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                EventLoop eventLoop = eventLoops[nextEventLoop];
+                nextEventLoop = (nextEventLoop + 1) % eventLoops.length;
+
+                NioConnection connection = new NioConnection(channel, eventLoop);
+                connection.attach(lobby.seatPlayer(connection));
+                eventLoop.register(connection);
+            }catch (IOException e){
+                e.printStackTrace();
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Returns the port clients are accepted on, which the system chose if the server was started on port 0
+     * @return The local port of the server channel
+     * @throws IOException If the server channel has been closed
+     */
+    public int getLocalPort() throws IOException {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+}
@@ -0,0 +1,85 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Every message the server sends to a client. Each has the prefix used by the text protocol and the single byte
+ * opcode used by the binary protocol.
+ */
+public enum Opcode {
+    ADVANCE_BETTINGSTAGE("S-ADVANCE-BETTINGSTAGE", 0x01),
+    ADVANCE_PLAYINGSTAGE("S-ADVANCE-PLAYINGSTAGE", 0x02),
+    ADVANCE_ROUNDOVER("S-ADVANCE-ROUNDOVER", 0x03),
+    ADVANCE_WAITINGOTHERS("S-ADVANCE-WAITINGOTHERS", 0x04),
+    ADVANCE_PLAYAGAIN("S-ADVANCE-PLAYAGAIN", 0x05),
+
+    PLAYERHAND("S-PLAYERHAND", 0x10),
+    DEALERHAND("S-DEALERHAND", 0x11),
+
+    INSURANCE_DEALERBJ("S-INSURANCE-DEALERBJ", 0x20),
+    INSURANCE_NODEALERBJ("S-INSURANCE-NODEALERBJ", 0x21),
+    INSURANCE_WININSURANCE("S-INSURANCE-WININSURANCE", 0x22),
+    INSURANCE_LOSEINSURANCE("S-INSURANCE-LOSEINSURANCE", 0x23),
+    INSURANCE_BJNOPAYOUT("S-INSURANCE-BJNOPAYOUT", 0x24),
+    INSURANCE_NOBJNOPAYOUT("S-INSURANCE-NOBJNOPAYOUT", 0x25),
+
+    PLAYINGSTAGE_OFFERINSURANCE("S-PLAYINGSTAGE-OFFERINSURANCE", 0x30),
+    PLAYINGSTAGE_TOOPOORINSURANCE("S-PLAYINGSTAGE-TOOPOORINSURANCE", 0x31),
+    PLAYINGSTAGE_PLAYERBJ("S-PLAYINGSTAGE-PLAYERBJ", 0x32),
+    PLAYINGSTAGE_PLAYERBUST("S-PLAYINGSTAGE-PLAYERBUST", 0x33),
+    PLAYINGSTAGE_PLAYERMAXVAL("S-PLAYINGSTAGE-PLAYERMAXVAL", 0x34),
+    PLAYINGSTAGE_HITSTAND("S-PLAYINGSTAGE-HITSTAND", 0x35),
+    PLAYINGSTAGE_HITSTANDDOUBLE("S-PLAYINGSTAGE-HITSTANDDOUBLE", 0x36),
+    PLAYINGSTAGE_HITSTANDSPLIT("S-PLAYINGSTAGE-HITSTANDSPLIT", 0x37),
+    PLAYINGSTAGE_HITSTANDDOUBLESPLIT("S-PLAYINGSTAGE-HITSTANDDOUBLESPLIT", 0x38),
+    PLAYINGSTAGE_DD("S-PLAYINGSTAGE-DD", 0x39),
+    PLAYINGSTAGE_SPLITHAND("S-PLAYINGSTAGE-SPLITHAND", 0x3A),
+
+    PAYOUTSTAGE_DEALERBJ("S-PAYOUTSTAGE-DEALERBJ", 0x40),
+    PAYOUTSTAGE_DEALERBUST("S-PAYOUTSTAGE-DEALERBUST", 0x41),
+    PAYOUTSTAGE_HANDWIN("S-PAYOUTSTAGE-HANDWIN", 0x42),
+    PAYOUTSTAGE_HANDLOSE("S-PAYOUTSTAGE-HANDLOSE", 0x43),
+    PAYOUTSTAGE_HANDPUSH("S-PAYOUTSTAGE-HANDPUSH", 0x44),
+    PAYOUTSTAGE_ROUNDWIN("S-PAYOUTSTAGE-ROUNDWIN", 0x45),
+    PAYOUTSTAGE_ROUNDLOSE("S-PAYOUTSTAGE-ROUNDLOSE", 0x46),
+
+    LOWBALANCE("S-LOWBALANCE", 0x50),
+    GAMEOVER("S-GAMEOVER", 0x51);
+
+    //Opcodes of the messages a client sends using the binary protocol
+    public static final byte CLIENT_BET = (byte) 0x81;
+    public static final byte CLIENT_PLAYING = (byte) 0x82;
+    public static final byte CLIENT_INSURANCE = (byte) 0x83;
+    public static final byte CLIENT_PLAYAGAIN = (byte) 0x84;
+
+    private final String text;  //Message prefix in the text protocol
+    private final byte code;    //Message opcode in the binary protocol
+
+    /**
+     * Initialise the Opcode with its text prefix and binary opcode
+     * @param text  The hyphen separated prefix used by the text protocol
+     * @param code  The opcode byte used by the binary protocol
+     */
+    Opcode(String text, int code){
+        this.text = text;
+        this.code = (byte) code;
+    }
+
+    /**
+     * Gets the prefix of the message in the text protocol
+     * @return The text form of the message
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Gets the opcode of the message in the binary protocol
+     * @return The opcode byte
+     */
+    public byte getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,61 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Scripted decisions for a seat in a simulated round, standing in for a client answering the server's prompts.
+ * The RoundEngine only asks for a decision while the hand can still be played, and tells the strategy whether it
+ * may double down or split, just as the server chooses which of its play options to offer.
+ */
+public interface PlayStrategy {
+
+    String BASIC = "BASIC";
+    String DEALER = "DEALER";
+    String STAND = "STAND";
+
+    /**
+     * The choices open to a player during the play stage
+     */
+    enum Play {
+        HIT, STAND, DOUBLE, SPLIT
+    }
+
+    /**
+     * Chooses how to play a hand
+     * @param hand          The hand being played
+     * @param dealerUpCard  The dealer's visible card
+     * @param canDouble     Whether the hand may be doubled down
+     * @param canSplit      Whether the hand may be split
+     * @return The choice, where a DOUBLE or SPLIT which is not allowed is played as a HIT
+     */
+    Play play(BJHand hand, Card dealerUpCard, boolean canDouble, boolean canSplit);
+
+    /**
+     * Chooses whether to take insurance when the dealer shows an Ace, declined unless a strategy says otherwise
+     * @param hand  The player's hand
+     * @return True to take insurance
+     */
+    default boolean takeInsurance(BJHand hand){
+        return false;
+    }
+
+    /**
+     * Returns the strategy with the given name
+     * @param name BASIC for basic strategy, DEALER to play like the dealer, or STAND to never draw
+     * @return The strategy
+     */
+    static PlayStrategy forName(String name){
+        switch (name){
+            case BASIC:
+                return BasicStrategy.INSTANCE;
+            case DEALER:
+                return (hand, dealerUpCard, canDouble, canSplit) -> HandEvaluator.dealerHits(HandEvaluator.evaluate(hand)) ? Play.HIT : Play.STAND;
+            case STAND:
+                return (hand, dealerUpCard, canDouble, canSplit) -> Play.STAND;
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+}
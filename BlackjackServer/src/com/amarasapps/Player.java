@@ -1,71 +1,132 @@
 package com.amarasapps;
 
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.net.ProtocolException;
 import java.net.Socket;
-import java.net.SocketAddress;
-import java.net.SocketException;
-import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Multiplayer Blackjack Game
  * @author Aiden Meikle
  * Github: AMeikle99
  *
- * Class which represents a player within the Blackjack Game. Ran as an individual thread and is blocked at each different game stage
- * by a Latch until the Table Thread unlocks it and allows it to advance.
+ * Class which represents a player within the Blackjack Game. Either ran as an individual thread reading from its client, or fed
+ * client messages by an Event Loop. The Table is blocked at each different game stage by a Latch until the Player unlocks it
+ * and allows it to advance.
  *
  * Stores the players Hand, Money, Placed Bets
+ *
+ * Each Player holds a session, so a client whose connection drops can reconnect and resume it, keeping its seat, hands
+ * and balance. Game messages are numbered and kept in a ReplayBuffer so those the client missed can be sent again.
+ *
+ * A client can name an account before its first bet, playing with the balance kept in the AccountStore instead of
+ * the starting money. Its balance is then saved to the account each time a round is settled.
  */
 public class Player implements Runnable {
 
-    private BufferedReader input;   //Input Stream from Player
-    private PrintWriter output;     //Output Stream to Player
-    private Socket clientSocket;    //Socket Connecting to Client
+    private volatile ClientInput input;     //Input Stream from Player, only used when the Player reads on its own thread
+    private volatile ClientConnection connection;   //Connection to send messages to the Client
+    private volatile Protocol protocol = TextProtocol.INSTANCE;    //Encodes messages to the Client
+    private final ReentrantLock outputLock = new ReentrantLock();  //Keeps encoding and sending in step with a protocol switch
+    private boolean handshakeDone = false;  //Whether the client has had its chance to pick a protocol
+
+    private final SessionRegistry sessions; //Registry the Player's session is held in
+    private String sessionToken;            //Token the client resumes its session with, null if sessions are off
+    private final ReplayBuffer replay = new ReplayBuffer(SessionRegistry.REPLAY_CAPACITY);  //Game messages sent, to replay
+    private volatile boolean connectionLost = false;    //Whether the client has gone and may still resume its session
+    private ScheduledFuture<?> sessionExpiry;   //Ends the session if the client does not come back in time
+
+    private final AccountStore accounts;    //Store the Player's account is kept in
+    private String account;                 //Name of the account the Player's balance is saved to, null if none
 
     private ArrayList<BJHand> hands;        //The Players Hand
     private BJHand currentHand;             //The current Players Hand
     private Table gameTable;        //The Table the player belongs to
-    private double balance;     //The Money the player has in the bank
+    private int seat;               //Number the Table gave the player when seating them, identifying them in its journal
+    private long balance;       //The Money the player has in the bank, in cents
+    private boolean hasBet = false;         //Whether the player has placed a bet, after which no account can be claimed
 
-    private boolean isDone = false; //Tracks the State of the Player
-    private GameState gameState;    //Tacks the Position in the Game
+    private volatile boolean isDone = false;    //Tracks the State of the Player
+    private volatile GameState gameState;       //Tacks the Position in the Game
     private boolean askedForInsurance = false;   //Tracks whether the Insurance Stage has completed
     private boolean tookInsurance = false;      //Tracks if the player took insurance or not
-    private double insuranceAmount = 0.0;       //The amount the insurance bet is worth
+    private long insuranceAmount = 0;           //The amount the insurance bet is worth, in cents
+
+    private final ReentrantLock stateLock = new ReentrantLock();    //Guards changes to the Game State
+    private final Condition stateChanged = stateLock.newCondition(); //Signalled whenever the Table advances the Game State
+
+    private final ReentrantLock decisionLock = new ReentrantLock(); //Lets either the client or its deadline settle a decision, never both
+    private GameState pendingDecision = null;   //The decision the Table is waiting on the client for, null if none
+    private volatile long lastPromptTime;       //When the client was last asked for a play decision, in nanoseconds
 
     private CountDownLatch playHandLatch;   //Latch to make the table wait until the player has had their turn
     private CountDownLatch stillPlayingLatch; //Latch to make sure the table wait until the player has decided if they wish to keep playing
 
     /**
-     * Constructor to Create a Runnable Player Object
+     * Constructor to Create a Runnable Player Object, which reads from its client on its own thread
      * @param socket    The Socket to Communicate with the Client
      * @param table     The Playing Table the Player is Part of
-     * @param startingMoney How much money the Player Starts with
+     * @param startingMoney How much money the Player Starts with, in cents
+     * @param sessions  The registry the Player's session is held in
+     * @param accounts  The store the Player's account is kept in
+     * @throws IOException If the Socket's streams cannot be opened
+     */
+    public Player(Socket socket, Table table, long startingMoney, SessionRegistry sessions, AccountStore accounts)
+            throws IOException {
+        this(table, startingMoney, sessions, accounts);
+        try {
+            input = new ClientInput(socket.getInputStream());
+            connection = new SocketConnection(socket);
+        }catch (IOException e){
+            sessions.close(sessionToken);
+            throw e;
+        }
+        greet();
+    }
+
+    /**
+     * Constructor to Create a Player whose client messages are delivered to it by an Event Loop
+     * @param connection    The connection to Communicate with the Client
+     * @param table         The Playing Table the Player is Part of
+     * @param startingMoney How much money the Player Starts with, in cents
+     * @param sessions      The registry the Player's session is held in
+     * @param accounts      The store the Player's account is kept in
+     */
+    public Player(ClientConnection connection, Table table, long startingMoney, SessionRegistry sessions,
+                  AccountStore accounts){
+        this(table, startingMoney, sessions, accounts);
+        this.connection = connection;
+        greet();
+    }
+
+    /**
+     * Initialises the game state shared by both ways of connecting a Player
+     * @param table     The Playing Table the Player is Part of
+     * @param startingMoney How much money the Player Starts with, in cents
+     * @param sessions  The registry the Player's session is held in
+     * @param accounts  The store the Player's account is kept in
      */
-    public Player(Socket socket, Table table, double startingMoney){
+    private Player(Table table, long startingMoney, SessionRegistry sessions, AccountStore accounts){
         this.gameTable = table;
+        this.sessions = sessions;
+        this.accounts = accounts;
+        if(sessions.allowsResume()){
+            sessionToken = sessions.open(this);
+        }
         this.balance = startingMoney;
+        this.gameState = GameState.NOTSTARTED;
         hands = new ArrayList<>();
         currentHand = new BJHand();
         hands.add(currentHand);
-        clientSocket = socket;
         playHandLatch = new CountDownLatch(1);
         stillPlayingLatch = new CountDownLatch(1);
-        try {
-            socket.setSoTimeout(500);
-            InputStreamReader isr = new InputStreamReader(socket.getInputStream());
-            input = new BufferedReader(isr);
-            output = new PrintWriter(socket.getOutputStream(), true);
-        }catch (IOException e){
-            e.printStackTrace();
-            System.exit(1);
-        }
     }
 
     /**
@@ -73,89 +134,532 @@ public class Player implements Runnable {
      */
     @Override
     public void run() {
-        gameState = GameState.NOTSTARTED;
         System.out.println("Running New Player");
         do{
+            ClientConnection readingFrom = connection;  //A resumed session swaps these for the new connection's
+            ClientInput reading = input;
             try {
-
-                if (gameState != GameState.WAITINGOTHERS && gameState != GameState.NOTSTARTED) {
-                    String clientMessage = input.readLine();
+                if(handshakeDone){
+                    awaitClientTurn();
+                }
+                if(readsBinaryFrames()){
+                    int frameLength = reading.readFrame();
+                    if(frameLength < 0){
+                        handleDisconnect(readingFrom);
+                    }else{
+                        handleClientFrame(reading.getFrame(), frameLength);
+                    }
+                }else{
+                    String clientMessage = reading.readLine();
                     if (clientMessage == null) {
-                        System.out.println("Player Disconnected.");
-                        switch (gameState) {
-                            case WAITINGBET:
-                                gameTable.countDownBetLatch();
-                            case PLAYING:
-                                playHandLatch.countDown();
-                                break;
-                            case PLAYAGAIN:
-                                gameTable.countDownPlayAgainLatch();
-                                break;
-                            case OFFERINSURANCE:
-                                gameTable.countDownInsuranceBetLatch();
-                                break;
-                        }
-                        isDone = true;
-                        synchronized (this){
-                            this.wait();
-                        }
+                        handleDisconnect(readingFrom);
                     } else {
                         handleClientMessage(clientMessage);
                     }
-                } else {
-                    Thread.sleep(500);
                 }
-
-            }catch(InterruptedException | IOException ignored){}
+            }catch(InterruptedException ignored){
+            }catch(ProtocolException e){
+                System.out.println(String.format("Dropping Client %s: %s", readingFrom.describe(), e));
+                readingFrom.close();
+                handleDisconnect(readingFrom);
+            }catch(IOException e){
+                if(!isDone){
+                    handleDisconnect(readingFrom);  //A reset connection is lost the same way as a closed one
+                }
+            }
+            awaitReconnect();
         }while(isStillEligible() && !hasChosenToQuit());
         System.out.println("Exiting Player Thread");
     }
 
+    /**
+     * Blocks the Player's thread while it is waiting on the Table, waking as soon as the Table moves it into a stage
+     * where the client is expected to respond
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    private void awaitClientTurn() throws InterruptedException {
+        stateLock.lock();
+        try{
+            while(gameState == GameState.WAITINGOTHERS || gameState == GameState.NOTSTARTED){
+                stateChanged.await();
+            }
+        }finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Blocks the Player's thread while its client is disconnected, until the session is resumed on a new connection
+     * or the grace period runs out
+     */
+    private void awaitReconnect(){
+        stateLock.lock();
+        try{
+            while(connectionLost && !isDone){
+                stateChanged.awaitUninterruptibly();
+            }
+        }finally {
+            stateLock.unlock();
+        }
+    }
+
+    //**Sessions**//
+
+    /**
+     * Handles the client's connection being lost. With sessions on, the Player keeps its seat for the grace period,
+     * meanwhile any decision it is asked for takes its deadline's default. Otherwise, or once the grace period is
+     * over, the Player leaves.
+     * @param lost The connection which was lost, ignored if the session has already moved to a new connection
+     */
+    void handleDisconnect(ClientConnection lost){
+        outputLock.lock();
+        try{
+            if(lost != connection || connectionLost || isDone || gameState == GameState.GAMEOVER){
+                return;
+            }
+            if(sessionToken != null){
+                System.out.println("Player Connection Lost, Holding Session.");
+                connectionLost = true;
+                sessionExpiry = sessions.scheduleExpiry(() -> expireSession(lost));
+                return;
+            }
+        }finally {
+            outputLock.unlock();
+        }
+        leave();
+    }
+
+    /**
+     * Ends a session whose client did not come back within the grace period
+     * @param lost The connection which was lost
+     */
+    private void expireSession(ClientConnection lost){
+        outputLock.lock();
+        try{
+            if(lost != connection || !connectionLost){
+                return;     //Resumed in time
+            }
+        }finally {
+            outputLock.unlock();
+        }
+        System.out.println("Player Session Expired.");
+        leave();
+    }
+
+    /**
+     * Releases the Table from waiting on this Player once its client has gone for good, and marks the Player as done.
+     * A Player who was never seated lets go of their account here, as no Table will remove them.
+     */
+    private void leave(){
+        System.out.println("Player Disconnected.");
+        isDone = true;
+        sessions.close(sessionToken);
+        decisionLock.lock();
+        try{
+            if(pendingDecision != null){
+                expireDecision(pendingDecision);
+            }
+            if(seat == 0){
+                releaseAccount();
+            }
+        }finally {
+            decisionLock.unlock();
+        }
+        setGameState(gameState);    //Wakes a thread waiting for the client to reconnect
+    }
+
+    /**
+     * Handles a newly connected client asking to resume an earlier session. If it can be resumed the client's
+     * connection is handed over to the Player holding that session, and this Player leaves without a word.
+     * Otherwise the client is told, and carries on as this new Player.
+     * @param token     The token of the session to resume
+     * @param received  The number of game messages the client received in that session
+     */
+    private void handleResume(String token, long received){
+        Player session = sessions.find(token);
+        if(session == null || session == this || !session.resume(connection, input, received)){
+            System.out.println("Session Could Not Be Resumed.");
+            connection.send(TextProtocol.line("S-RESUME-EXPIRED"));
+            return;
+        }
+        outputLock.lock();
+        try{
+            connection = DetachedConnection.INSTANCE;
+            input = null;
+        }finally {
+            outputLock.unlock();
+        }
+        leave();
+    }
+
+    /**
+     * Moves this Player's session on to a client's new connection, telling it which protocol the session uses and
+     * sending every game message it missed
+     * @param newConnection The connection the client resumed from
+     * @param newInput      The input stream of the new connection, null if it is read by an Event Loop
+     * @param received      The number of game messages the client received
+     * @return True if the session was resumed, false if it has ended or the missed messages are no longer held
+     */
+    boolean resume(ClientConnection newConnection, ClientInput newInput, long received){
+        ClientConnection oldConnection;
+        outputLock.lock();
+        try{
+            if(isDone || !replay.canReplayAfter(received)){
+                return false;
+            }
+            oldConnection = connection;
+            connection = newConnection;
+            input = newInput;
+            newConnection.attach(this);
+            newConnection.send(TextProtocol.line("S-RESUMED-" + protocol.getVersion()));
+            replay.replayAfter(received, newConnection);
+            newConnection.flush();
+            connectionLost = false;
+            if(sessionExpiry != null){
+                sessionExpiry.cancel(false);
+                sessionExpiry = null;
+            }
+        }finally {
+            outputLock.unlock();
+        }
+        System.out.printf("Session Resumed: %s, %d Messages Replayed\n", newConnection.describe(),
+                replay.getLastSequence() - received);
+        oldConnection.close();      //The client may have reconnected before the old connection was noticed to be gone
+        setGameState(gameState);    //Wakes a thread waiting for the client to reconnect
+        return true;
+    }
+
     /**
      * Handles any messages received from the client process and handles appropriately
      * @param message The Message received from the client, a hyphen separated list of commands
      */
-    private void handleClientMessage(String message){
+    void handleClientMessage(String message){
         System.out.println("Message: " + message);
         String[] messageBits = message.split("-");
-        if (messageBits.length < 2){
+        if (messageBits.length < 3){
             return;
         }
-        switch (messageBits[1]){
-            case "BET":
-                System.out.println("Bet: " + messageBits[2]);
-                double placedBet = Double.parseDouble(messageBits[2]);
-                setPlacedBet(placedBet);
-                if (gameTable.playerCount() > 1) {
-                    setWaitingState();
-                }
+        try{
+            switch (messageBits[1]){
+                case "HELLO":
+                    handleHello(Integer.parseInt(messageBits[2]));
+                    break;
+                case "RESUME":
+                    if(messageBits.length > 3){
+                        handleResume(messageBits[2], Long.parseLong(messageBits[3]));
+                    }
+                    break;
+                case "ACCOUNT":
+                    handleAccount(messageBits[2]);
+                    flush();
+                    return;     //Still part of the handshake, a HELLO can follow
+                case "BET":
+                    handleClientBet(Money.parse(messageBits[2]));
+                    break;
+                case "PLAYING":
+                    handlePlayChoice(messageBits[2]);
+                    break;
+                case "INSURANCE":
+                    handleInsuranceChoice(messageBits[2].equals("Y"));
+                    break;
+                case "PLAYAGAIN":
+                    handlePlayAgainChoice(!messageBits[2].equals("N"));
+                    break;
+                default:
+                    break;
+            }
+        }catch (NumberFormatException e){
+            System.out.println("Malformed Message Ignored: " + message);
+            return;
+        }
+        handshakeDone = true;
+        flush();
+    }
 
-                gameTable.countDownBetLatch();
+    /**
+     * Handles a binary frame received from a client which has switched to the binary protocol
+     * @param frame     The frame body, starting with the opcode
+     * @param length    The number of bytes in the frame
+     */
+    void handleClientFrame(byte[] frame, int length){
+        if(length < 2){
+            return;
+        }
+        switch (frame[0]){
+            case Opcode.CLIENT_BET:
+                handleClientBet(BinaryProtocol.readMoney(frame, 1, length));
+                break;
+            case Opcode.CLIENT_PLAYING:
+                switch (frame[1]){
+                    case 'H':
+                        handlePlayChoice("H");
+                        break;
+                    case 'S':
+                        handlePlayChoice("S");
+                        break;
+                    case 'D':
+                        handlePlayChoice("D");
+                        break;
+                    case 'P':
+                        handlePlayChoice("SP");
+                        break;
+                }
                 break;
-            case "PLAYING":
-                System.out.println("Play: " + messageBits[2]);
-                handlePlayChoice(messageBits[2]);
+            case Opcode.CLIENT_INSURANCE:
+                handleInsuranceChoice(frame[1] == 'Y');
                 break;
-            case "INSURANCE":
-                if(messageBits[2].equals("Y")){
-                    tookInsurance = true;
+            case Opcode.CLIENT_PLAYAGAIN:
+                handlePlayAgainChoice(frame[1] != 'N');
+                break;
+        }
+        flush();
+    }
+
+    /**
+     * Handles the client asking for a protocol version, switching to the binary protocol if it was asked for.
+     * The acknowledgement is the last message sent as text, everything after it uses the agreed protocol.
+     * @param version The protocol version the client would like to use
+     */
+    private void handleHello(int version){
+        outputLock.lock();
+        try{
+            if(version == Protocol.BINARY_VERSION){
+                connection.send(TextProtocol.line("S-HELLO-ACK-" + Protocol.BINARY_VERSION));
+                protocol = BinaryProtocol.INSTANCE;
+            }else{
+                connection.send(TextProtocol.line("S-HELLO-ACK-" + Protocol.TEXT_VERSION));
+            }
+        }finally {
+            outputLock.unlock();
+        }
+    }
+
+    //**Accounts**//
+
+    /**
+     * Handles the client naming the account to play with, whose balance replaces the starting money. An account can
+     * only be claimed before the Player's first bet, by one connection at a time, and while it still holds enough for
+     * the minimum bet. The client is told the balance, or that the account was refused.
+     * @param name The name of the account
+     */
+    private void handleAccount(String name){
+        decisionLock.lock();
+        try{
+            Long accountBalance = null;
+            if(account == null && !hasBet && AccountStore.isValidName(name)){
+                accountBalance = accounts.claim(name, balance);     //A new account opens with the starting money
+            }
+            if(accountBalance != null && accountBalance < gameTable.getMinimumBet()){
+                accounts.release(name);
+                accountBalance = null;
+            }
+            outputLock.lock();
+            try{
+                if(accountBalance == null){
+                    connection.send(TextProtocol.line("S-ACCOUNT-REFUSED"));
+                    return;
                 }
+                account = name;
+                balance = accountBalance;
+                connection.send(TextProtocol.line("S-ACCOUNT-" + Money.format(balance)));
+            }finally {
+                outputLock.unlock();
+            }
+            System.out.printf("Account Claimed: %s, Balance %s\n", account, Money.format(balance));
+            if(seat != 0){
+                gameTable.getJournal().account(seat, balance, account);
+            }
+        }finally {
+            decisionLock.unlock();
+        }
+    }
+
+    /**
+     * Saves the Player's balance to their account, if they have one. Never waits on the disk.
+     */
+    private void saveBalance(){
+        decisionLock.lock();
+        try{
+            if(account != null){
+                accounts.update(account, balance);
+            }
+        }finally {
+            decisionLock.unlock();
+        }
+    }
+
+    /**
+     * Lets go of the Player's account once they have left the Table, or left before being seated, so it can be
+     * claimed again. Only the first call releases it, and no balance is saved to it afterwards.
+     */
+    public void releaseAccount(){
+        decisionLock.lock();
+        try{
+            if(account != null){
+                accounts.release(account);
+                account = null;
+            }
+        }finally {
+            decisionLock.unlock();
+        }
+    }
+
+    /**
+     * Handles a bet sent by the client, ignoring it unless it is at least the minimum bet and no more than the
+     * Player's balance. The bet is still waited on, and the minimum is placed at the deadline.
+     * @param placedBet The amount bet, in cents
+     */
+    private void handleClientBet(long placedBet){
+        decisionLock.lock();
+        try{
+            if(placedBet < gameTable.getMinimumBet() || placedBet > balance){
+                System.out.println("Invalid Bet Ignored: " + Money.format(placedBet));
+                return;
+            }
+            handleBet(placedBet);
+        }finally {
+            decisionLock.unlock();
+        }
+    }
+
+    /**
+     * Handles the bet placed on the Player's hand
+     * @param placedBet The amount bet, in cents
+     */
+    private void handleBet(long placedBet){
+        decisionLock.lock();
+        try{
+            if(!settleDecision(GameState.WAITINGBET)){
+                return;
+            }
+            System.out.println("Bet: " + Money.format(placedBet));
+            hasBet = true;
+            setPlacedBet(placedBet);
+            gameTable.getJournal().bet(seat, placedBet);
+            if (gameTable.playerCount() > 1) {
                 setWaitingState();
-                gameTable.countDownInsuranceBetLatch();
-                break;
-            case "PLAYAGAIN":
-                System.out.println("Play Again: " + messageBits[2]);
-                if(messageBits[2].equals("N")){
-                    isDone = true;
-                    setGameOverState();
-                }else{
-                    if(gameTable.playerCount() > 1) {
-                        setNotStartedState();
-                    }
+            }
+
+            gameTable.countDownBetLatch();
+        }finally {
+            decisionLock.unlock();
+        }
+    }
+
+    /**
+     * Handles whether the client chose to take insurance
+     * @param takeInsurance True if the client took the insurance bet
+     */
+    private void handleInsuranceChoice(boolean takeInsurance){
+        decisionLock.lock();
+        try{
+            if(!settleDecision(GameState.OFFERINSURANCE)){
+                return;
+            }
+            gameTable.getJournal().insurance(seat, takeInsurance);
+            if(takeInsurance){
+                tookInsurance = true;
+            }
+            setWaitingState();
+            gameTable.countDownInsuranceBetLatch();
+        }finally {
+            decisionLock.unlock();
+        }
+    }
+
+    /**
+     * Handles whether the client chose to play another round
+     * @param playAgain True if the client wants to keep playing
+     */
+    private void handlePlayAgainChoice(boolean playAgain){
+        decisionLock.lock();
+        try{
+            if(!settleDecision(GameState.PLAYAGAIN)){
+                return;
+            }
+            System.out.println("Play Again: " + (playAgain ? "Y" : "N"));
+            if(!playAgain){
+                isDone = true;
+                setGameOverState();
+            }else{
+                if(gameTable.playerCount() > 1) {
+                    setNotStartedState();
                 }
-                gameTable.countDownPlayAgainLatch();
-            default:
-                break;
+            }
+            gameTable.countDownPlayAgainLatch();
+        }finally {
+            decisionLock.unlock();
+        }
+    }
+
+    //**Decision Deadlines**//
+
+    /**
+     * Records that the Table is now waiting on the client to make a decision. This must happen before the client is
+     * prompted, as another thread may flush the prompt out straight away. A Player whose client has already gone takes
+     * the default choice straight away, so the Table never waits on it.
+     * @param decision The stage the Table is waiting on
+     */
+    private void openDecision(GameState decision){
+        decisionLock.lock();
+        try{
+            pendingDecision = decision;
+            lastPromptTime = System.nanoTime();
+            if(isDone){
+                expireDecision(decision);
+            }
+        }finally {
+            decisionLock.unlock();
+        }
+    }
+
+    /**
+     * Closes the decision the Table is waiting on, if it is still open. Must be called holding the decision lock.
+     * @param decision The stage the decision belongs to
+     * @return True if the decision was open, false if it had already been made or had expired
+     */
+    private boolean settleDecision(GameState decision){
+        if(pendingDecision != decision){
+            return false;
+        }
+        pendingDecision = null;
+        return true;
+    }
+
+    /**
+     * Takes the default choice for a decision the client did not make in time: the minimum bet (or a bet of nothing,
+     * sitting the round out, once the client has gone), declining insurance, standing, or leaving the table.
+     * A reply from the client that arrives afterwards is ignored.
+     * @param decision The stage the Table has stopped waiting on
+     * @return True if the decision was still open and the default was taken
+     */
+    public boolean expireDecision(GameState decision){
+        decisionLock.lock();
+        try{
+            if(pendingDecision != decision){
+                return false;
+            }
+            switch (decision){
+                case WAITINGBET:
+                    handleBet(isDone ? 0 : gameTable.getMinimumBet());
+                    break;
+                case OFFERINSURANCE:
+                    handleInsuranceChoice(false);
+                    break;
+                case PLAYING:
+                    if (gameTable.playerCount() > 1 && gameTable.isNotLastPlayer(this)) {
+                        setWaitingState();
+                    }
+                    finishPlayStage();
+                    break;
+                case PLAYAGAIN:
+                    handlePlayAgainChoice(false);
+                    break;
+            }
+            flush();
+            return true;
+        }finally {
+            decisionLock.unlock();
         }
     }
 
@@ -166,35 +670,50 @@ public class Player implements Runnable {
      * @return True if the player has enough money to take insurance
      */
     private boolean canOfferInsurance(){
-        return balance >= 1.5 * currentHand.getHandBet();
+        return RoundEngine.canInsure(balance, currentHand.getHandBet());
     }
 
     /**
      * Informs the player on the result of placing the Insurance Bet
      */
     public void informInsuranceOutcome(){
+        RoundJournal journal = gameTable.getJournal();
         if(gameTable.getDealersHand().hasBlackjack()){
             sendDealerHandState();
-            output.println("S-INSURANCE-DEALERBJ");
+            send(Opcode.INSURANCE_DEALERBJ);
             if(tookInsurance){
-                output.println("S-INSURANCE-WININSURANCE");
-                output.println(String.format("S-PAYOUTSTAGE-ROUNDWIN-%.2f-%.2f",balance,0));
+                long insuranceWin = RoundEngine.insurancePayout(currentHand.getHandBet());
+                long uncovered = currentHand.getHandBet() - insuranceWin;   //A cent when the bet is odd
+                send(Opcode.INSURANCE_WININSURANCE);
+                balance -= uncovered;
+                journal.payout(seat, RoundJournal.INSURANCE_HAND, insuranceWin);
+                journal.payout(seat, 1, -currentHand.getHandBet());
+                if(uncovered == 0){
+                    sendMoney(Opcode.PAYOUTSTAGE_ROUNDWIN, balance, 0);
+                }else{
+                    sendMoney(Opcode.PAYOUTSTAGE_ROUNDLOSE, balance, uncovered);
+                }
             }else {
                 if (askedForInsurance) {
-                    output.println("S-INSURANCE-BJNOPAYOUT");
+                    send(Opcode.INSURANCE_BJNOPAYOUT);
                 }
                 balance -= currentHand.getHandBet();
-                output.println(String.format("S-PAYOUTSTAGE-ROUNDLOSE-%.2f-%.2f", balance, currentHand.getHandBet()));
+                journal.payout(seat, 1, -currentHand.getHandBet());
+                sendMoney(Opcode.PAYOUTSTAGE_ROUNDLOSE, balance, currentHand.getHandBet());
             }
+            journal.balance(seat, balance);
+            saveBalance();
         }else{
-            output.println("S-INSURANCE-NODEALERBJ");
+            send(Opcode.INSURANCE_NODEALERBJ);
             if(tookInsurance){
-                balance -= 0.5 * currentHand.getHandBet();
-                insuranceAmount = 0.5*currentHand.getHandBet();
-                output.println(String.format("S-INSURANCE-LOSEINSURANCE-%.2f", insuranceAmount));
+                insuranceAmount = RoundEngine.insuranceBet(currentHand.getHandBet());
+                balance -= insuranceAmount;
+                journal.payout(seat, RoundJournal.INSURANCE_HAND, -insuranceAmount);
+                saveBalance();
+                sendMoney(Opcode.INSURANCE_LOSEINSURANCE, insuranceAmount);
             }else{
                 if(askedForInsurance){
-                    output.println("S-INSURANCE-NOBJNOPAYOUT");
+                    send(Opcode.INSURANCE_NOBJNOPAYOUT);
                 }
             }
         }
@@ -210,8 +729,13 @@ public class Player implements Runnable {
      * Sends the Client The State of the Game so as to begin the Play Stage
      */
     public void handlePlayStage(){
-        sendInitialTableState();
-        sendPlayOptions();
+        decisionLock.lock();
+        try{
+            sendInitialTableState();
+            sendPlayOptions();
+        }finally {
+            decisionLock.unlock();
+        }
     }
 
     /**
@@ -221,37 +745,54 @@ public class Player implements Runnable {
         if(gameTable.getDealerUpCard().isAce() && !askedForInsurance){
             if(canOfferInsurance()){
                 askedForInsurance = true;
-                gameState = GameState.OFFERINSURANCE;
-                output.println("S-PLAYINGSTAGE-OFFERINSURANCE");
+                setGameState(GameState.OFFERINSURANCE);
+                openDecision(GameState.OFFERINSURANCE);
+                send(Opcode.PLAYINGSTAGE_OFFERINSURANCE);
             }else{
-                output.println("S-PLAYINGSTAGE-TOOPOORINSURANCE");   //The player doesn't have enough money to take insurance
+                send(Opcode.PLAYINGSTAGE_TOOPOORINSURANCE);   //The player doesn't have enough money to take insurance
                 gameTable.countDownInsuranceBetLatch();
             }
         }else if(currentHand.hasBlackjack()) {
-            output.println("S-PLAYINGSTAGE-PLAYERBJ");
+            send(Opcode.PLAYINGSTAGE_PLAYERBJ);
             if(gameTable.playerCount() > 1)
                 setWaitingState();
-            playHandLatch.countDown();
+            finishPlayStage();
         }else if(currentHand.isBust()) {
-            output.println("S-PLAYINGSTAGE-PLAYERBUST");
+            send(Opcode.PLAYINGSTAGE_PLAYERBUST);
             if(gameTable.playerCount() > 1)
                 setWaitingState();
-            playHandLatch.countDown();
+            finishPlayStage();
         }else if(currentHand.handValue() == 21){
-            output.println("S-PLAYINGSTAGE-PLAYERMAXVAL");
+            send(Opcode.PLAYINGSTAGE_PLAYERMAXVAL);
             if(gameTable.playerCount() > 1)
                 setWaitingState();
-            playHandLatch.countDown();
+            finishPlayStage();
         }else if(!currentHand.isDoubledDown()){
-            StringBuilder playOption = new StringBuilder();
-            playOption.append("HITSTAND");
-            if(currentHand.canDouble(balance, totalHandBet())){
-                playOption.append("DOUBLE");
-            }
-            if(currentHand.canSplit() && (totalHandBet() + currentHand.getHandBet() <= balance)){
-                playOption.append("SPLIT");
+            boolean canDouble = currentHand.canDouble(balance, totalHandBet());
+            boolean canSplit = RoundEngine.canSplit(currentHand, balance, totalHandBet());
+            if(canDouble && canSplit){
+                send(Opcode.PLAYINGSTAGE_HITSTANDDOUBLESPLIT);
+            }else if(canDouble){
+                send(Opcode.PLAYINGSTAGE_HITSTANDDOUBLE);
+            }else if(canSplit){
+                send(Opcode.PLAYINGSTAGE_HITSTANDSPLIT);
+            }else{
+                send(Opcode.PLAYINGSTAGE_HITSTAND);
             }
-            output.println(String.format("S-PLAYINGSTAGE-%s", playOption));
+            lastPromptTime = System.nanoTime();     //Each decision gets the full time allowed
+        }
+    }
+
+    /**
+     * Ends the Player's turn, releasing the Table to move on to the next Player
+     */
+    private void finishPlayStage(){
+        decisionLock.lock();
+        try{
+            settleDecision(GameState.PLAYING);
+            playHandLatch.countDown();
+        }finally {
+            decisionLock.unlock();
         }
     }
 
@@ -260,13 +801,32 @@ public class Player implements Runnable {
      * @param choice The play option sent from the client
      */
     private void handlePlayChoice(String choice){
+        decisionLock.lock();
+        try{
+            if(pendingDecision == GameState.PLAYING){
+                playChoice(choice);
+            }
+        }finally {
+            decisionLock.unlock();
+        }
+    }
+
+    /**
+     * Carries out a Play Stage Choice while the Player's turn is still open
+     * @param choice The play option sent from the client
+     */
+    private void playChoice(String choice){
+        System.out.println("Play: " + choice);
+        int handNumber = hands.indexOf(currentHand) + 1;
         switch(choice){
             case "H":
-                currentHand.addCard(gameTable.dealCard());
+                gameTable.getJournal().played(seat, handNumber, 'H');
+                dealTo(currentHand);
                 sendPlayerHandState(currentHand);
                 sendPlayOptions();
                 break;
             case "S":
+                gameTable.getJournal().played(seat, handNumber, 'S');
                 if(isNotFinalHand()){
                     currentHand = getNextHand();
                     handlePlayStage();
@@ -274,14 +834,15 @@ public class Player implements Runnable {
                     if (gameTable.playerCount() > 1 && gameTable.isNotLastPlayer(this)) {
                         setWaitingState();
                     }
-                    playHandLatch.countDown();
+                    finishPlayStage();
                 }
                 break;
             case "D":
-                currentHand.addCard(gameTable.dealCard());
+                gameTable.getJournal().played(seat, handNumber, 'D');
+                dealTo(currentHand);
                 currentHand.setDoubledDown();
                 sendPlayerHandState(currentHand);
-                output.println(String.format("S-PLAYINGSTAGE-DD-%.2f", currentHand.getHandBet()));
+                sendMoney(Opcode.PLAYINGSTAGE_DD, currentHand.getHandBet());
                 if(isNotFinalHand()){
                     currentHand = getNextHand();
                     handlePlayStage();
@@ -289,12 +850,13 @@ public class Player implements Runnable {
                     if (gameTable.playerCount() > 1 && gameTable.isNotLastPlayer(this)) {
                         setWaitingState();
                     }
-                    playHandLatch.countDown();
+                    finishPlayStage();
                 }
                 break;
             case "SP":
+                gameTable.getJournal().played(seat, handNumber, 'P');
                 splitHand();
-                output.println("S-PLAYINGSTAGE-SPLITHAND");
+                send(Opcode.PLAYINGSTAGE_SPLITHAND);
                 sendPlayerHandState(currentHand);
                 sendPlayOptions();
         }
@@ -307,17 +869,43 @@ public class Player implements Runnable {
         BJHand newHand = new BJHand();
         newHand.addCard(currentHand.removeCard(1));
         newHand.setHandBet(currentHand.getHandBet());
-
-        currentHand.addCard(gameTable.dealCard());
-        newHand.addCard(gameTable.dealCard());
         hands.add(hands.indexOf(currentHand)+1, newHand);
+
+        dealTo(currentHand);
+        dealTo(newHand);
     }
 
     /**
-     * Forces the Table to Wait until the Playing State is Finished
+     * Deals the next card from the Table's shoe to one of the player's hands, recording it in the Table's journal
+     * @param hand The hand to add the card to
      */
-    public void waitPlayHandLatch() throws InterruptedException {
-        playHandLatch.await();
+    private void dealTo(BJHand hand){
+        Card card = gameTable.dealCard();
+        hand.addCard(card);
+        gameTable.getJournal().cardDealt(seat, hands.indexOf(hand) + 1, card);
+    }
+
+    /**
+     * Forces the Table to Wait until the Playing State is Finished, or until the client has taken longer than allowed
+     * over a decision. The time allowed restarts each time the client is asked for a decision.
+     * @param timeout Milliseconds allowed for each decision, 0 to wait forever
+     * @return True if the turn finished, false if the deadline passed first
+     */
+    public boolean waitPlayHandLatch(long timeout) throws InterruptedException {
+        if(timeout <= 0){
+            playHandLatch.await();
+            return true;
+        }
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+        while(true){
+            long remaining = lastPromptTime + timeoutNanos - System.nanoTime();
+            if(remaining <= 0){
+                return playHandLatch.getCount() == 0;
+            }
+            if(playHandLatch.await(remaining, TimeUnit.NANOSECONDS)){
+                return true;
+            }
+        }
     }
 
     //**Send Game Info**//
@@ -326,8 +914,12 @@ public class Player implements Runnable {
      * Sends the client what cards are in both their hand and the dealers hand
      */
     public void sendInitialTableState(){
-        String dealerHandState = String.format("S-DEALERHAND-%d-%s-XX", gameTable.getDealerVisibleValue(), gameTable.getDealerUpCard());
-        output.println(dealerHandState);
+        outputLock.lock();
+        try{
+            deliver(gameTable.getDealerUpCardMessage().encodedFor(protocol));
+        }finally {
+            outputLock.unlock();
+        }
         sendPlayerHandState(currentHand);
     }
 
@@ -335,34 +927,113 @@ public class Player implements Runnable {
      * Send the client the cards present in their own hand
      */
     public void sendPlayerHandState(BJHand hand){
-        StringBuilder playerHandState = new StringBuilder();
-        playerHandState.append(String.format("S-PLAYERHAND-%d-%d",hands.indexOf(hand)+1,hand.handValue()));
+        outputLock.lock();
+        try{
+            deliver(protocol.encodePlayerHand(hands.indexOf(hand)+1, hand));
+        }finally {
+            outputLock.unlock();
+        }
+    }
 
-        for(int i = 0; i<hand.size(); i++){
-            Card card = hand.getCard(i);
-            playerHandState.append(String.format("-%s", card.toString()));
+    /**
+     * Sends the client the cards that were in the dealers hand, as encoded once by the Table for every player
+     */
+    public void sendDealerHandState(){
+        outputLock.lock();
+        try{
+            deliver(gameTable.getDealerHandMessage().encodedFor(protocol));
+        }finally {
+            outputLock.unlock();
+        }
+        if(getDealersHand().hasBlackjack()){
+            send(Opcode.PAYOUTSTAGE_DEALERBJ);
+        }else if(getDealersHand().isBust()){
+            send(Opcode.PAYOUTSTAGE_DEALERBUST);
+        }
+    }
+
+    /**
+     * Tells a newly connected client which protocol versions the server supports. Older clients ignore this.
+     */
+    private void greet(){
+        connection.send(TextProtocol.line(String.format("S-HELLO-%d-%d", Protocol.TEXT_VERSION, Protocol.BINARY_VERSION)));
+        if(sessionToken != null){
+            connection.send(TextProtocol.line("S-SESSION-" + sessionToken));
         }
+        flush();
+    }
 
-        output.println(playerHandState.toString());
+    /**
+     * Sends the client a game message, numbering it and keeping it to replay should the client resume its session.
+     * Must be called holding the output lock.
+     * @param message The encoded message
+     */
+    private void deliver(byte[] message){
+        replay.add(message);
+        connection.send(message);
     }
 
     /**
-     * Sends the client the cards that were in the dealers hand
+     * Sends the client every message buffered since the last flush. Called by the Table once a stage of the round
+     * is finished, and after each message from the client has been handled.
      */
-    public void sendDealerHandState(){
-        StringBuilder dealerHandState = new StringBuilder();
-        dealerHandState.append(String.format("S-DEALERHAND-%d",getDealersHand().handValue()));
+    public void flush(){
+        connection.flush();
+    }
 
-        for(int i = 0; i<getDealersHand().size(); i++){
-            Card card = getDealersHand().getCard(i);
-            dealerHandState.append(String.format("-%s", card.toString()));
+    /**
+     * Sends the client a message which carries no values
+     * @param opcode The message to send
+     */
+    private void send(Opcode opcode){
+        outputLock.lock();
+        try{
+            deliver(protocol.encode(opcode));
+        }finally {
+            outputLock.unlock();
         }
+    }
 
-        output.println(dealerHandState.toString());
-        if(getDealersHand().hasBlackjack()){
-            output.println("S-PAYOUTSTAGE-DEALERBJ");
-        }else if(getDealersHand().isBust()){
-            output.println("S-PAYOUTSTAGE-DEALERBUST");
+    /**
+     * Sends the client a message about one of their hands
+     * @param opcode        The message to send
+     * @param handNumber    The number of the hand, starting at 1
+     */
+    private void sendHandNumber(Opcode opcode, int handNumber){
+        outputLock.lock();
+        try{
+            deliver(protocol.encodeHandNumber(opcode, handNumber));
+        }finally {
+            outputLock.unlock();
+        }
+    }
+
+    /**
+     * Sends the client a message carrying an amount of money
+     * @param opcode    The message to send
+     * @param amount    The amount of money, in cents
+     */
+    private void sendMoney(Opcode opcode, long amount){
+        outputLock.lock();
+        try{
+            deliver(protocol.encodeMoney(opcode, amount));
+        }finally {
+            outputLock.unlock();
+        }
+    }
+
+    /**
+     * Sends the client a message carrying two amounts of money
+     * @param opcode    The message to send
+     * @param first     The first amount of money, in cents
+     * @param second    The second amount of money, in cents
+     */
+    private void sendMoney(Opcode opcode, long first, long second){
+        outputLock.lock();
+        try{
+            deliver(protocol.encodeMoney(opcode, first, second));
+        }finally {
+            outputLock.unlock();
         }
     }
 
@@ -374,58 +1045,42 @@ public class Player implements Runnable {
      */
     public void processPayout(){
 
-        double totalPayout = 0;
+        long totalPayout = 0;
+        int dealerOutcome = HandEvaluator.evaluate(getDealersHand());
 
         for(int i=0; i<hands.size(); i++){
             BJHand hand = hands.get(i);
             sendPlayerHandState(hand);
-            if(hand.isBust()){
-                totalPayout -= hand.getHandBet();
-                decrementBalance(hand.getHandBet());
-                output.println(String.format("S-PAYOUTSTAGE-HANDLOSE-%d",i+1));
-                continue;
-            }
-
-            if(hand.handValue() == getDealersHand().handValue()){
-                output.println(String.format("S-PAYOUTSTAGE-HANDPUSH-%d", i+1));
-                continue;
-            }
-
-            if(hand.hasBlackjack()){
-                double payout = 1.5 * hand.getHandBet();
-                totalPayout += payout;
+            int settlement = HandEvaluator.settle(HandEvaluator.evaluate(hand), dealerOutcome);
+            long payout = RoundEngine.payout(settlement, hand.getHandBet());
+            totalPayout += payout;
+            gameTable.getJournal().payout(seat, i+1, payout);
+            if(payout < 0){
+                decrementBalance(-payout);
+                sendHandNumber(Opcode.PAYOUTSTAGE_HANDLOSE, i+1);
+            }else if(settlement == HandEvaluator.PUSH){
+                sendHandNumber(Opcode.PAYOUTSTAGE_HANDPUSH, i+1);
+            }else{
                 incrementBalance(payout);
-                output.println(String.format("S-PAYOUTSTAGE-HANDWIN-%d", i+1));
-                continue;
-            }
-
-            if(hand.handValue() > getDealersHand().handValue() || getDealersHand().isBust()){
-                totalPayout += hand.getHandBet();
-                incrementBalance(hand.getHandBet());
-                output.println(String.format("S-PAYOUTSTAGE-HANDWIN-%d", i+1));
-                continue;
-            }
-
-            if(hand.handValue() < getDealersHand().handValue()){
-                totalPayout -= hand.getHandBet();
-                decrementBalance(hand.getHandBet());
-                output.println(String.format("S-PAYOUTSTAGE-HANDLOSE-%d", i+1));
+                sendHandNumber(Opcode.PAYOUTSTAGE_HANDWIN, i+1);
             }
         }
 
         totalPayout -= insuranceAmount;
+        gameTable.getJournal().balance(seat, balance);
+        saveBalance();
 
         if(totalPayout < 0){
-            output.println(String.format("S-PAYOUTSTAGE-ROUNDLOSE-%.2f-%.2f",balance, -1*totalPayout));
+            sendMoney(Opcode.PAYOUTSTAGE_ROUNDLOSE, balance, -1*totalPayout);
         }else{
-            output.println(String.format("S-PAYOUTSTAGE-ROUNDWIN-%.2f-%.2f",balance, totalPayout));
+            sendMoney(Opcode.PAYOUTSTAGE_ROUNDWIN, balance, totalPayout);
         }
     }
     /**
      * Informs the Player they don't have enough money to play again
      */
     public void informLowBalance(){
-        output.println("S-LOWBALANCE");
+        send(Opcode.LOWBALANCE);
     }
 
     /**
@@ -436,7 +1091,7 @@ public class Player implements Runnable {
         stillPlayingLatch = new CountDownLatch(1);
         askedForInsurance = false;
         tookInsurance = false;
-        insuranceAmount = 0.0;
+        insuranceAmount = 0;
         hands.clear();
         currentHand = new BJHand();
         hands.add(currentHand);
@@ -444,20 +1099,34 @@ public class Player implements Runnable {
 
     //**Set Game State**//
 
+    /**
+     * Moves the Player to a new Game State and wakes its thread if it is waiting for the change
+     * @param newState The stage of the game the Player is now in
+     */
+    private void setGameState(GameState newState){
+        stateLock.lock();
+        try{
+            gameState = newState;
+            stateChanged.signalAll();
+        }finally {
+            stateLock.unlock();
+        }
+    }
+
     /**
      * Sets the Game State for the Player to wait until the next round begins
      */
     private void setNotStartedState(){
-        gameState = GameState.NOTSTARTED;
-        output.println("S-ADVANCE-ROUNDOVER");
+        setGameState(GameState.NOTSTARTED);
+        send(Opcode.ADVANCE_ROUNDOVER);
     }
 
     /**
      * Sets the Game State for the Player to Wait for Others
      */
     private void setWaitingState() {
-        this.gameState = GameState.WAITINGOTHERS;
-        output.println("S-ADVANCE-WAITINGOTHERS");
+        setGameState(GameState.WAITINGOTHERS);
+        send(Opcode.ADVANCE_WAITINGOTHERS);
 
     }
 
@@ -466,49 +1135,71 @@ public class Player implements Runnable {
      */
     public void setGetBetState(){
         System.out.println("Set Bet State");
-        this.gameState = GameState.WAITINGBET;
-        output.println(String.format("S-ADVANCE-BETTINGSTAGE-%.2f-%.2f", gameTable.getMinimumBet(), getBalance()));
+        setGameState(GameState.WAITINGBET);
+        openDecision(GameState.WAITINGBET);
+        sendMoney(Opcode.ADVANCE_BETTINGSTAGE, gameTable.getMinimumBet(), getBalance());
     }
 
     /**
      * Sets the Game State for the Player to Place Cards
      */
     public void setPlayGameState(){
-        this.gameState = GameState.PLAYING;
-        output.println("S-ADVANCE-PLAYINGSTAGE");
+        setGameState(GameState.PLAYING);
+        openDecision(GameState.PLAYING);
+        send(Opcode.ADVANCE_PLAYINGSTAGE);
     }
 
     /**
      * Sets the Game State fot the client to ask if they wish to play again
      */
     public void setPlayAgainState(){
-        gameState = GameState.PLAYAGAIN;
-        output.println("S-ADVANCE-PLAYAGAIN");
+        setGameState(GameState.PLAYAGAIN);
+        openDecision(GameState.PLAYAGAIN);
+        send(Opcode.ADVANCE_PLAYAGAIN);
     }
 
     /**
      * Sets the Game State fot the client to be game over and closes the connection with them
      */
     public void setGameOverState(){
-        gameState = GameState.GAMEOVER;
-        output.println("S-GAMEOVER");
-        try{
-            input.close();
-            output.close();
-            clientSocket.close();
-        }catch(IOException ignored){}
+        setGameState(GameState.GAMEOVER);
+        send(Opcode.GAMEOVER);
+        sessions.close(sessionToken);
+        connection.close();     //Closing the socket first releases a thread blocked reading from it
+        ClientInput reading = input;
+        if(reading != null){
+            try{
+                reading.close();
+            }catch(IOException ignored){}
+        }
     }
 
     //**Getters**//
 
     /**
      * Returns the balance available to the player
-     * @return  The player's available balance
+     * @return  The player's available balance, in cents
      */
-    public double getBalance() {
+    public long getBalance() {
         return balance;
     }
 
+    /**
+     * Returns the number the Table gave the player when seating them
+     * @return The player's seat
+     */
+    public int getSeat() {
+        return seat;
+    }
+
+    /**
+     * Returns the token the player's client resumes its session with
+     * @return The session token, null if sessions are off
+     */
+    public String getSessionToken() {
+        return sessionToken;
+    }
+
     /**
      * Returns the current hand the player has
      * @return The Hand the player has
@@ -517,6 +1208,14 @@ public class Player implements Runnable {
         return currentHand;
     }
 
+    /**
+     * Returns every hand the player is playing this round, more than one once they have split
+     * @return The player's hands
+     */
+    public List<BJHand> getHands() {
+        return hands;
+    }
+
     /**
      * Get the Dealers Hand from the Game Table
      * @return The Hand representing the Dealer
@@ -541,6 +1240,14 @@ public class Player implements Runnable {
         return hands.indexOf(currentHand) < hands.size()-1;
     }
 
+    /**
+     * Checks whether messages from the client arrive as binary frames rather than text lines
+     * @return True once the client has switched to the binary protocol
+     */
+    boolean readsBinaryFrames(){
+        return protocol == BinaryProtocol.INSTANCE;
+    }
+
     /**
      * Checks if this player is eligible to play another round
      * @return Whether the player can play again
@@ -559,10 +1266,10 @@ public class Player implements Runnable {
 
     /**
      * Gets the total amount bet across all hands
-     * @return The total bet amount for all the players hands
+     * @return The total bet amount for all the players hands, in cents
      */
-    public double totalHandBet(){
-        double totalBet = 0;
+    public long totalHandBet(){
+        long totalBet = 0;
 
         for(BJHand hand: hands){
             totalBet += hand.getHandBet();
@@ -581,19 +1288,34 @@ public class Player implements Runnable {
 
     //**Setters**//
 
+    /**
+     * Gives the player their seat at the Table, recording it in the Table's journal with the balance they sit down
+     * with. Holds the decision lock so an account claimed at the same time is recorded after the seat.
+     * @param seat The player's seat
+     */
+    public void takeSeat(int seat) {
+        decisionLock.lock();
+        try{
+            this.seat = seat;
+            gameTable.getJournal().seated(seat, balance, sessionToken);
+        }finally {
+            decisionLock.unlock();
+        }
+    }
+
     /**
      * Sets the Bet that the User has Placed
-     * @param placedBet The amount that the player has opted to bet on their hand
+     * @param placedBet The amount that the player has opted to bet on their hand, in cents
      */
-    private void setPlacedBet(double placedBet) {
+    private void setPlacedBet(long placedBet) {
         this.currentHand.setHandBet(placedBet);
     }
 
     /**
      * Increments the value of the player's balance
-     * @param changeAmount The amount to increment the balance by.
+     * @param changeAmount The amount to increment the balance by, in cents
      */
-    private void incrementBalance(double changeAmount){
+    private void incrementBalance(long changeAmount){
         if(changeAmount < 0){
             return;
         }
@@ -602,9 +1324,9 @@ public class Player implements Runnable {
 
     /**
      * Decrement the amount of money available to the player
-     * @param changeAmount  Amount to decrement by
+     * @param changeAmount  Amount to decrement by, in cents
      */
-    private void decrementBalance(double changeAmount){
+    private void decrementBalance(long changeAmount){
         if(changeAmount < 0){
             return;
         }
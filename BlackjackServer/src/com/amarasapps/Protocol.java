@@ -0,0 +1,75 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Encodes the messages the server sends to a client into the bytes written to its connection. Clients start on the
+ * text protocol and may switch to the binary protocol with a hello exchange when they connect:
+ *
+ *   Server: S-HELLO-1-2        (versions the server supports, ignored by older clients)
+ *   Client: C-HELLO-2          (version the client wants, after which it sends binary frames)
+ *   Server: S-HELLO-ACK-2      (last text line, after which the server sends binary frames)
+ */
+public interface Protocol {
+
+    int TEXT_VERSION = 1;       //Hyphen separated text lines
+    int BINARY_VERSION = 2;     //Length prefixed binary frames
+
+    /**
+     * Returns the version number negotiated for this protocol
+     * @return The protocol version
+     */
+    int getVersion();
+
+    /**
+     * Encodes a message which carries no values. These never change, so the same array is returned every time and
+     * must not be modified.
+     * @param opcode The message to encode
+     * @return The encoded message
+     */
+    byte[] encode(Opcode opcode);
+
+    /**
+     * Encodes a message about one of the player's hands
+     * @param opcode        The message to encode
+     * @param handNumber    The number of the hand, starting at 1
+     * @return The encoded message
+     */
+    byte[] encodeHandNumber(Opcode opcode, int handNumber);
+
+    /**
+     * Encodes a message carrying an amount of money
+     * @param opcode    The message to encode
+     * @param amount    The amount of money, in cents
+     * @return The encoded message
+     */
+    byte[] encodeMoney(Opcode opcode, long amount);
+
+    /**
+     * Encodes a message carrying two amounts of money
+     * @param opcode    The message to encode
+     * @param first     The first amount of money, in cents
+     * @param second    The second amount of money, in cents
+     * @return The encoded message
+     */
+    byte[] encodeMoney(Opcode opcode, long first, long second);
+
+    /**
+     * Encodes the cards in one of the player's hands
+     * @param handNumber    The number of the hand, starting at 1
+     * @param hand          The hand to encode
+     * @return The encoded message
+     */
+    byte[] encodePlayerHand(int handNumber, BJHand hand);
+
+    /**
+     * Encodes the cards in the dealer's hand
+     * @param handValue     The value of the hand the player is allowed to see
+     * @param hand          The dealer's hand
+     * @param hideHoleCard  Whether only the dealer's first card is shown
+     * @return The encoded message
+     */
+    byte[] encodeDealerHand(int handValue, BJHand hand, boolean hideHoleCard);
+}
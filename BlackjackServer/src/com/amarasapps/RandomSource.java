@@ -0,0 +1,79 @@
+package com.amarasapps;
+
+
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Gives each new Table the generator it shuffles its shoes with:
+ *   FAST    an unseeded SplittableRandom, quick enough for simulations
+ *   SECURE  a SecureRandom, so the order of the shoe cannot be predicted by players
+ *   SEEDED  a SplittableRandom split off one seeded root, so the same seed deals every Table the same shoes again,
+ *           as long as Tables are opened in the same order
+ */
+public class RandomSource {
+
+    public static final String FAST = "FAST";
+    public static final String SECURE = "SECURE";
+    public static final String SEEDED = "SEEDED";
+
+    private final String mode;              //FAST, SECURE or SEEDED
+    private final SplittableRandom root;    //Root every seeded Table's generator is split from, null unless SEEDED
+
+    /**
+     * Constructor for an unseeded source
+     * @param mode Either FAST or SECURE
+     */
+    public RandomSource(String mode){
+        if(!mode.equals(FAST) && !mode.equals(SECURE)){
+            throw new IllegalArgumentException("Unknown random source: " + mode);
+        }
+        this.mode = mode;
+        this.root = null;
+    }
+
+    /**
+     * Constructor for a seeded source, giving reproducible shuffles
+     * @param seed The seed every Table's generator is derived from
+     */
+    public RandomSource(long seed){
+        this.mode = SEEDED;
+        this.root = new SplittableRandom(seed);
+    }
+
+    /**
+     * Creates the generator for a newly opened Table
+     * @return A generator used only by that Table
+     */
+    public synchronized ShuffleRandom newTableRandom(){
+        switch (mode){
+            case SECURE:
+                return new SecureRandom()::nextInt;
+            case SEEDED:
+                return root.split()::nextInt;
+            default:
+                return new SplittableRandom()::nextInt;
+        }
+    }
+
+    /**
+     * Returns a generator using the calling thread's ThreadLocalRandom, for shoes made outside of a Table
+     * @return A generator which may be used from any thread
+     */
+    public static ShuffleRandom threadLocal(){
+        return bound -> ThreadLocalRandom.current().nextInt(bound);
+    }
+
+    /**
+     * Returns the name of the source's mode
+     * @return FAST, SECURE or SEEDED
+     */
+    public String getMode(){
+        return mode;
+    }
+}
@@ -0,0 +1,63 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * A ring of the most recent game messages sent to a client, numbered from 1 in the order they were sent. When a client
+ * resumes its session it says how many messages it received, and everything after that is sent again. The messages are
+ * kept already encoded, so messages shared by every player at a table are not copied.
+ *
+ * Not thread safe, the Player only touches it while holding its output lock.
+ */
+public class ReplayBuffer {
+
+    private final byte[][] messages;    //Encoded messages, the message numbered n is held at n % capacity
+    private long lastSequence = 0;      //Number of the last message added
+
+    /**
+     * Constructor to create an empty buffer
+     * @param capacity The most messages kept
+     */
+    public ReplayBuffer(int capacity){
+        this.messages = new byte[capacity][];
+    }
+
+    /**
+     * Records a message sent to the client, pushing out the oldest message once full
+     * @param message The encoded message
+     */
+    public void add(byte[] message){
+        lastSequence++;
+        messages[(int) (lastSequence % messages.length)] = message;
+    }
+
+    /**
+     * Checks that every message after the one given is still held
+     * @param received The number of messages the client received
+     * @return True if the client can be brought up to date
+     */
+    public boolean canReplayAfter(long received){
+        return received >= 0 && received <= lastSequence && lastSequence - received <= messages.length;
+    }
+
+    /**
+     * Sends the client every message after the last one it received
+     * @param received      The number of messages the client received
+     * @param connection    The connection to send the messages on
+     */
+    public void replayAfter(long received, ClientConnection connection){
+        for(long sequence = received + 1; sequence <= lastSequence; sequence++){
+            connection.send(messages[(int) (sequence % messages.length)]);
+        }
+    }
+
+    /**
+     * Returns the number of the last message sent
+     * @return Number of messages sent since the session opened
+     */
+    public long getLastSequence(){
+        return lastSequence;
+    }
+}
@@ -0,0 +1,504 @@
+package com.amarasapps;
+
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Replays the rounds a Table recorded in its RoundJournal, from the seed the server was started with. The Table's
+ * generator is rebuilt from the seed and the Table's id, so every shoe is shuffled again in the same order, and each
+ * round is played again following the Table and Player rules step by step on one thread, with no clients, sockets or
+ * latches. Only the decisions are taken from the journal: the seats taken and left, bets, insurance and play choices.
+ * Every card dealt, payout and balance the replay works out is checked against the one the journal recorded, and the
+ * replay stops at the first which differs, so a difference in how the server played a round shows up where it began.
+ *
+ * A replay can stop after any round, leaving the hands, balances and shoe as they were when that round was paid out.
+ * The Table must have been played with the same decks, shuffle, cut card and minimum bet as the replay is given.
+ */
+public class ReplayEngine {
+
+    private final TableSettings settings;           //Decks, cut card, minimum bet and shuffle the Table was played with
+    private final ShuffleRandom random;             //The Table's generator, rebuilt from the seed
+    private final Path directory;                   //Folder holding the journal's segment files
+    private final int tableId;                      //Id of the Table replayed
+    private JournalReader reader;                   //Reads the journal, positioned at the next record to replay
+    private boolean hasRecord;                      //Whether the reader is at a record, false at the end of the journal
+    private CardShoe cardShoe;                      //The shoe being dealt from
+    private CardShoe nextShoe;                      //The shoe swapped in at the cut card, null for a continuous shuffle
+    private final TreeMap<Integer, Seat> seats = new TreeMap<>();  //Players in the game by seat, in the order the Table plays them
+    private final BJHand dealersHand = new BJHand();    //The dealer's hand
+    private long round = 0;                         //Number of the round being replayed
+    private long roundsReplayed = 0;                //Rounds replayed to the end
+    private String stopReason;                      //Why the replay stopped before the end of the journal, null if it did not
+
+    /**
+     * Constructor to open a Table's journal and rebuild its generator, ready to replay from its first round
+     * @param settings  The settings the Table was played with
+     * @param seed      The seed the server was started with
+     * @param journal   Any segment file of the Table's journal, the others being found alongside it
+     * @throws IOException If the journal cannot be read
+     */
+    public ReplayEngine(TableSettings settings, long seed, Path journal) throws IOException {
+        this.settings = settings;
+        JournalReader segment = new JournalReader(journal);
+        this.tableId = segment.getTableId();
+        this.directory = journal.toAbsolutePath().getParent();
+        this.reader = segment.getSegmentNumber() == 1 ? segment
+                : new JournalReader(directory.resolve(MappedRoundJournal.segmentName(tableId, 1)));
+
+        RandomSource randomSource = new RandomSource(seed);
+        ShuffleRandom tableRandom = null;
+        for(int i = 0; i < tableId; i++){
+            tableRandom = randomSource.newTableRandom();    //Tables are given their generators in the order they open
+        }
+        this.random = tableRandom;
+        this.cardShoe = new CardShoe(settings.getDecksUsed(), random);
+        if(!settings.isContinuousShuffle()){
+            this.nextShoe = new CardShoe(settings.getDecksUsed(), random);
+        }
+        this.hasRecord = advance();
+    }
+
+    /**
+     * Replays rounds until the end of the journal, the given round, or the first difference from the journal
+     * @param lastRound The round to stop after, 0 to replay the whole journal
+     * @throws IOException If the journal cannot be read
+     */
+    public void replay(long lastRound) throws IOException {
+        try{
+            while(true){
+                seatPlayers();
+                if(!hasRecord){
+                    return;
+                }
+                playRound();
+                roundsReplayed++;
+                if(round == lastRound){
+                    return;
+                }
+                List<Integer> leavers = readLeavers();
+                if(!hasRecord){
+                    return;     //The journal ends with this round, which is left on the Table to print
+                }
+                resetTable(leavers);
+            }
+        }catch (ReplayStopped e){
+            stopReason = e.getMessage();
+        }
+    }
+
+    //**Rounds**//
+
+    /**
+     * Seats every Player who sat down before the next round, with the balance of any account they have claimed
+     */
+    private void seatPlayers() throws IOException {
+        while(hasRecord && (reader.getType() == RoundJournal.SEAT || reader.getType() == RoundJournal.ACCOUNT)){
+            if(reader.getType() == RoundJournal.SEAT){
+                seats.put(reader.getSeat(), new Seat(reader.getSeat(), reader.getValue()));
+            }else{
+                seat(reader.getSeat()).balance = reader.getValue();
+            }
+            hasRecord = advance();
+        }
+    }
+
+    /**
+     * Plays a round in the order Table.playGame does, up to paying out every hand
+     */
+    private void playRound() throws IOException {
+        if(reader.getType() != RoundJournal.ROUND){
+            throw new ReplayStopped("Expected the start of round " + (round + 1) + " but the journal has "
+                    + describeRecord());
+        }
+        round = reader.getValue();
+        hasRecord = advance();
+        for(Seat seat: seats.values()){
+            seat.newRound();
+        }
+
+        while(hasRecord && (reader.getType() == RoundJournal.BET || reader.getType() == RoundJournal.ACCOUNT)){
+            if(reader.getType() == RoundJournal.BET){
+                seat(reader.getSeat()).hands.get(0).setHandBet(reader.getValue());
+            }else{
+                seat(reader.getSeat()).balance = reader.getValue();     //Claimed before their first bet
+            }
+            hasRecord = advance();
+        }
+        for(int i = 0; i < 2; i++){
+            for(Seat seat: seats.values()){
+                dealTo(seat, seat.hands.get(0));
+            }
+            dealersHand.addCard(dealDealerCard());
+        }
+
+        if(dealersHand.getCard(0).isAce()){
+            settleInsurance();
+            if(dealersHand.hasBlackjack()){
+                return;
+            }
+        }
+        for(Seat seat: seats.values()){
+            playTurn(seat);
+        }
+        RoundEngine.playDealersHand(dealersHand, this::dealDealerCard);
+        for(Seat seat: seats.values()){
+            payout(seat);
+        }
+    }
+
+    /**
+     * Offers insurance to each seat which can afford it and settles it, as Player.informInsuranceOutcome does
+     */
+    private void settleInsurance() throws IOException {
+        for(Seat seat: seats.values()){
+            seat.askedForInsurance = RoundEngine.canInsure(seat.balance, seat.hands.get(0).getHandBet());
+        }
+        while(hasRecord && reader.getType() == RoundJournal.INSURANCE){
+            Seat seat = seat(reader.getSeat());
+            if(!seat.askedForInsurance){
+                throw new ReplayStopped(String.format("Round %d: Seat %d was not offered insurance but the journal has %s",
+                        round, seat.number, describeRecord()));
+            }
+            seat.tookInsurance = reader.getValue() != 0;
+            hasRecord = advance();
+        }
+
+        for(Seat seat: seats.values()){
+            long bet = seat.hands.get(0).getHandBet();
+            if(dealersHand.hasBlackjack()){
+                if(seat.tookInsurance){
+                    long insuranceWin = RoundEngine.insurancePayout(bet);
+                    seat.balance -= bet - insuranceWin;
+                    expectPayout(seat, RoundJournal.INSURANCE_HAND, insuranceWin);
+                    expectPayout(seat, 1, -bet);
+                }else{
+                    seat.balance -= bet;
+                    expectPayout(seat, 1, -bet);
+                }
+                expectBalance(seat);
+            }else if(seat.tookInsurance){
+                long insuranceAmount = RoundEngine.insuranceBet(bet);
+                seat.balance -= insuranceAmount;
+                expectPayout(seat, RoundJournal.INSURANCE_HAND, -insuranceAmount);
+            }
+        }
+    }
+
+    /**
+     * Plays a seat's turn with the choices recorded in the journal, as Player.sendPlayOptions and Player.playChoice
+     * do. A turn ends without a choice on a blackjack, bust or 21, even with split hands still to play, and when the
+     * journal has no more choices for the seat, which is a stand at the deadline.
+     * @param seat The seat taking its turn
+     */
+    private void playTurn(Seat seat) throws IOException {
+        if(dealersHand.getCard(0).isAce() && !seat.askedForInsurance){
+            return;     //The Player is offered insurance again instead of their options, and stands at the deadline
+        }
+        int handIndex = 0;
+        while(true){
+            BJHand hand = seat.hands.get(handIndex);
+            if(hand.hasBlackjack() || hand.isBust() || hand.handValue() == 21){
+                return;
+            }
+            if(!hasRecord || reader.getType() != RoundJournal.PLAY || reader.getSeat() != seat.number){
+                return;
+            }
+            if(reader.getHandNumber() != handIndex + 1){
+                throw new ReplayStopped(String.format("Round %d: Seat %d is playing hand %d but the journal has %s",
+                        round, seat.number, handIndex + 1, describeRecord()));
+            }
+            char choice = (char) reader.getValue();
+            hasRecord = advance();
+            switch (choice){
+                case 'H':
+                    dealTo(seat, hand);
+                    break;
+                case 'S':
+                    if(handIndex == seat.hands.size() - 1){
+                        return;
+                    }
+                    handIndex++;
+                    break;
+                case 'D':
+                    dealTo(seat, hand);
+                    hand.setDoubledDown();
+                    if(handIndex == seat.hands.size() - 1){
+                        return;
+                    }
+                    handIndex++;
+                    break;
+                case 'P':
+                    BJHand newHand = new BJHand();
+                    newHand.addCard(hand.removeCard(1));
+                    newHand.setHandBet(hand.getHandBet());
+                    seat.hands.add(handIndex + 1, newHand);
+                    dealTo(seat, hand);
+                    dealTo(seat, newHand);
+                    break;
+                default:
+                    throw new ReplayStopped(String.format("Round %d: Unknown play choice %c", round, choice));
+            }
+        }
+    }
+
+    /**
+     * Settles each of a seat's hands against the dealer's, as Player.processPayout does
+     * @param seat The seat to pay out
+     */
+    private void payout(Seat seat) throws IOException {
+        int dealerOutcome = HandEvaluator.evaluate(dealersHand);
+        for(int i = 0; i < seat.hands.size(); i++){
+            BJHand hand = seat.hands.get(i);
+            int settlement = HandEvaluator.settle(HandEvaluator.evaluate(hand), dealerOutcome);
+            long payout = RoundEngine.payout(settlement, hand.getHandBet());
+            expectPayout(seat, i + 1, payout);
+            if(payout < 0){
+                seat.balance += payout;
+            }else if(settlement != HandEvaluator.PUSH){
+                seat.balance += payout;
+            }
+        }
+        expectBalance(seat);
+    }
+
+    /**
+     * Reads the Players who left after a round, leaving them seated until the Table is reset
+     * @return The seats of the Players who left
+     */
+    private List<Integer> readLeavers() throws IOException {
+        List<Integer> leavers = new ArrayList<>();
+        while(hasRecord && reader.getType() == RoundJournal.LEAVE){
+            leavers.add(seat(reader.getSeat()).number);
+            hasRecord = advance();
+        }
+        return leavers;
+    }
+
+    /**
+     * Clears the Table for the next round as Table.resetTable does, returning the cards or changing shoes, and
+     * removes the Players who left
+     * @param leavers The seats of the Players who left
+     */
+    private void resetTable(List<Integer> leavers){
+        if(settings.isContinuousShuffle()){
+            for(Seat seat: seats.values()){
+                for(BJHand hand: seat.hands){
+                    returnHandToShoe(hand);
+                }
+            }
+            returnHandToShoe(dealersHand);
+        }else if(cardShoe.cardsLeft() <= settings.getCardsBeforeShuffle()){
+            cardShoe = nextShoe;
+            nextShoe = new CardShoe(settings.getDecksUsed(), random);
+        }
+
+        for(int leaver: leavers){
+            seats.remove(leaver);
+        }
+        for(Seat seat: seats.values()){
+            if(seat.balance < settings.getMinimumBet()){
+                throw new ReplayStopped(String.format("Round %d: Seat %d has %s, less than the minimum bet, but did not leave",
+                        round, seat.number, Money.format(seat.balance)));
+            }
+        }
+        dealersHand.clear();
+    }
+
+    /**
+     * Puts the cards of a single hand back into the continuously shuffled shoe
+     * @param hand The hand whose cards are returned
+     */
+    private void returnHandToShoe(BJHand hand){
+        for(int i = 0; i < hand.size(); i++){
+            cardShoe.returnCard(hand.getCode(i));
+        }
+    }
+
+    //**Dealing**//
+
+    /**
+     * Deals the next card in the shoe to one of a seat's hands, checking the journal dealt the same card
+     * @param seat  The seat dealt to
+     * @param hand  The hand the card is added to
+     */
+    private void dealTo(Seat seat, BJHand hand) throws IOException {
+        Card card = cardShoe.dealCard();
+        hand.addCard(card);
+        expect(RoundJournal.CARD, seat.number, seat.hands.indexOf(hand) + 1, card.getCode());
+    }
+
+    /**
+     * Deals the next card in the shoe to the dealer, checking the journal dealt the same card
+     * @return The card dealt
+     */
+    private Card dealDealerCard(){
+        Card card = cardShoe.dealCard();
+        try{
+            expect(RoundJournal.CARD, RoundJournal.DEALER_SEAT, 1, card.getCode());
+        }catch (IOException e){
+            throw new ReplayStopped("Unable to read the journal: " + e.getMessage());
+        }
+        return card;
+    }
+
+    //**Checking the Journal**//
+
+    private void expectPayout(Seat seat, int handNumber, long change) throws IOException {
+        expect(RoundJournal.PAYOUT, seat.number, handNumber, change);
+    }
+
+    private void expectBalance(Seat seat) throws IOException {
+        expect(RoundJournal.BALANCE, seat.number, 0, seat.balance);
+    }
+
+    /**
+     * Checks the next record in the journal is the one the replay worked out, and moves past it
+     * @param type          The type of record expected
+     * @param seat          The seat expected
+     * @param handNumber    The hand number expected
+     * @param value         The value expected
+     * @throws ReplayStopped If the journal has a different record, or has ended
+     */
+    private void expect(byte type, int seat, int handNumber, long value) throws IOException {
+        if(!hasRecord){
+            throw new ReplayStopped(String.format("Round %d: The journal ends part way through the round", round));
+        }
+        if(reader.getType() != type || reader.getSeat() != seat || reader.getHandNumber() != handNumber
+                || reader.getValue() != value){
+            throw new ReplayStopped(String.format("Round %d: Replay has %s but the journal has %s", round,
+                    JournalReader.describe(type, seat, handNumber, value), describeRecord()));
+        }
+        hasRecord = advance();
+    }
+
+    /**
+     * Finds a seat the journal refers to
+     * @param number    The seat's number
+     * @return The seat
+     * @throws ReplayStopped If no Player is in that seat
+     */
+    private Seat seat(int number){
+        Seat seat = seats.get(number);
+        if(seat == null){
+            throw new ReplayStopped(String.format("Round %d: Nobody is in seat %d but the journal has %s",
+                    round, number, describeRecord()));
+        }
+        return seat;
+    }
+
+    /**
+     * Moves the reader on to the next record, continuing into the next segment at the end of each one
+     * @return True if there is another record, false at the end of the journal
+     */
+    private boolean advance() throws IOException {
+        while(!reader.next()){
+            Path next = directory.resolve(MappedRoundJournal.segmentName(tableId, reader.getSegmentNumber() + 1));
+            if(!Files.exists(next)){
+                return false;
+            }
+            reader = new JournalReader(next);
+        }
+        return true;
+    }
+
+    private String describeRecord(){
+        return hasRecord ? JournalReader.describe(reader.getType(), reader.getSeat(), reader.getHandNumber(),
+                reader.getValue()) : "nothing more";
+    }
+
+    //**Results**//
+
+    /**
+     * Prints how far the replay got, why it stopped if it did not reach the end, and the state of the Table after
+     * the last round replayed: the dealer's hand, each seat's hands and balance, and the cards left in the shoe
+     * @param seconds How long the replay took
+     */
+    public void print(double seconds){
+        System.out.println(String.format("Replayed Table %d: %d Rounds in %.2fs (%.0f Rounds/s)",
+                tableId, roundsReplayed, seconds, roundsReplayed / Math.max(seconds, 1e-9)));
+        if(stopReason != null){
+            System.out.println("Stopped: " + stopReason);
+        }else{
+            System.out.println("Every card, payout and balance matched the journal");
+        }
+        System.out.println(String.format("Round %d", round));
+        System.out.println(String.format("\tDealer: %s", describeHand(dealersHand)));
+        for(Seat seat: seats.values()){
+            System.out.println(String.format("\tSeat %d: Balance %s", seat.number, Money.format(seat.balance)));
+            for(int i = 0; i < seat.hands.size(); i++){
+                BJHand hand = seat.hands.get(i);
+                System.out.println(String.format("\t\tHand %d: %s, Bet %s%s", i + 1, describeHand(hand),
+                        Money.format(hand.getHandBet()), hand.isDoubledDown() ? ", Doubled Down" : ""));
+            }
+        }
+        System.out.println(String.format("\tShoe: %d Cards Left", cardShoe.cardsLeft()));
+    }
+
+    /**
+     * Describes a hand's cards and value
+     * @param hand  The hand
+     * @return The cards followed by the value in brackets
+     */
+    private static String describeHand(BJHand hand){
+        StringBuilder cards = new StringBuilder();
+        for(int i = 0; i < hand.size(); i++){
+            cards.append(hand.getCard(i).toString().trim()).append(' ');
+        }
+        return cards.append('(').append(hand.size() == 0 ? 0 : hand.handValue()).append(')').toString();
+    }
+
+    public long getRoundsReplayed(){
+        return roundsReplayed;
+    }
+
+    /**
+     * Returns why the replay stopped before the end of the journal
+     * @return The first difference from the journal, or null if there was none
+     */
+    public String getStopReason(){
+        return stopReason;
+    }
+
+    /**
+     * A Player as the replay knows them: their balance, and their hands and insurance this round
+     */
+    private static class Seat {
+        final int number;                   //The seat the Table gave the Player
+        long balance;                       //The Player's balance, in cents
+        final List<BJHand> hands = new ArrayList<>();   //The Player's hands this round, more than one once split
+        boolean askedForInsurance;          //Whether the Player could afford the insurance offered this round
+        boolean tookInsurance;              //Whether the Player took insurance this round
+
+        Seat(int number, long balance){
+            this.number = number;
+            this.balance = balance;
+        }
+
+        void newRound(){
+            hands.clear();
+            hands.add(new BJHand());
+            askedForInsurance = false;
+            tookInsurance = false;
+        }
+    }
+
+    /**
+     * Stops the replay where it first differs from the journal
+     */
+    private static class ReplayStopped extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ReplayStopped(String message){
+            super(message);
+        }
+    }
+}
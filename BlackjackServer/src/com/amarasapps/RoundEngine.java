@@ -0,0 +1,292 @@
+package com.amarasapps;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Plays rounds of Blackjack with no clients, sockets or latches, each seat's decisions coming from a PlayStrategy.
+ * The rules the Table and Player share with it are the static methods here, alongside HandEvaluator and BJHand, so a
+ * simulated round is dealt, played, resolved and paid out exactly as a round at a Table would be.
+ *
+ * Simulated seats bet the minimum on every hand and have an unlimited bankroll, so they may always double down, split
+ * and take insurance. An engine is used by one thread only, with its own shoe and generator. Unlike a Table it draws a
+ * fresh shoe if the cards run out part way through a round, which only happens with very few decks and many seats.
+ */
+public class RoundEngine {
+
+    private final TableSettings settings;           //Decks, cut card, minimum bet and shuffle the rounds are played with
+    private final ShuffleRandom random;             //The engine's own generator for shuffling its shoes
+    private final PlayStrategy strategy;            //Makes every seat's decisions
+    private final List<List<BJHand>> seats;         //Hands of each seat this round, more than one once split
+    private final boolean[] insured;                //Whether each seat took insurance this round
+    private final BJHand dealersHand = new BJHand();    //The dealer's hand
+    private CardShoe cardShoe;                      //The shoe being dealt from
+
+    /**
+     * Constructor to set up an engine with an empty seat for each simulated player
+     * @param settings  The settings a Table would be opened with
+     * @param seatCount The number of seats played each round
+     * @param strategy  The strategy every seat plays
+     * @param random    The generator used only by this engine
+     */
+    public RoundEngine(TableSettings settings, int seatCount, PlayStrategy strategy, ShuffleRandom random){
+        this.settings = settings;
+        this.random = random;
+        this.strategy = strategy;
+        this.seats = new ArrayList<>(seatCount);
+        for(int i = 0; i < seatCount; i++){
+            seats.add(new ArrayList<>());
+        }
+        this.insured = new boolean[seatCount];
+        this.cardShoe = new CardShoe(settings.getDecksUsed(), random);
+    }
+
+    /**
+     * Plays a single round for every seat
+     * @param result The totals the round's hands are added to
+     */
+    public void playRound(SimulationResult result){
+        long bet = settings.getMinimumBet();
+        for(List<BJHand> hands: seats){
+            BJHand hand = new BJHand();
+            hand.setHandBet(bet);
+            hands.add(hand);
+        }
+        dealInitialCards();
+        result.roundPlayed(seats.size(), bet);
+
+        if(dealersHand.getCard(0).isAce() && settleInsurance(result)){
+            finishRound();
+            return;
+        }
+        for(List<BJHand> hands: seats){
+            playHands(hands);
+        }
+        playDealersHand(dealersHand, this::dealCard);
+
+        int dealerOutcome = HandEvaluator.evaluate(dealersHand);
+        for(List<BJHand> hands: seats){
+            for(BJHand hand: hands){
+                int settlement = HandEvaluator.settle(HandEvaluator.evaluate(hand), dealerOutcome);
+                result.handSettled(settlement, hand, payout(settlement, hand.getHandBet()));
+            }
+        }
+        finishRound();
+    }
+
+    /**
+     * Deals every seat and the dealer their initial 2 cards, in the order a Table deals them
+     */
+    private void dealInitialCards(){
+        for(int i = 0; i < 2; i++){
+            for(List<BJHand> hands: seats){
+                hands.get(0).addCard(dealCard());
+            }
+            dealersHand.addCard(dealCard());
+        }
+    }
+
+    /**
+     * Offers every seat insurance against the dealer's Ace, then settles it
+     * @param result The totals the insurance bets are added to
+     * @return True if the dealer has Blackjack, which ends the round with every hand settled
+     */
+    private boolean settleInsurance(SimulationResult result){
+        for(int i = 0; i < seats.size(); i++){
+            BJHand hand = seats.get(i).get(0);
+            insured[i] = strategy.takeInsurance(hand);
+            if(insured[i]){
+                result.insuranceTaken(insuranceBet(hand.getHandBet()));
+            }
+        }
+        boolean dealerBlackjack = dealersHand.hasBlackjack();
+        for(int i = 0; i < seats.size(); i++){
+            BJHand hand = seats.get(i).get(0);
+            if(dealerBlackjack){
+                result.handSettled(HandEvaluator.LOSE, hand, -hand.getHandBet());
+                if(insured[i]){
+                    result.insuranceWon(insurancePayout(hand.getHandBet()));
+                }
+            }else if(insured[i]){
+                result.insuranceLost(insuranceBet(hand.getHandBet()));
+            }
+        }
+        return dealerBlackjack;
+    }
+
+    /**
+     * Plays each of a seat's hands in turn, including any split from it, until each is finished
+     * @param hands The seat's hands
+     */
+    private void playHands(List<BJHand> hands){
+        Card dealerUpCard = dealersHand.getCard(0);
+        for(int h = 0; h < hands.size(); h++){
+            BJHand hand = hands.get(h);
+            boolean standing = false;
+            while(!standing && !hand.isDoubledDown()){
+                int outcome = HandEvaluator.evaluate(hand);
+                if(HandEvaluator.isBust(outcome) || HandEvaluator.value(outcome) == 21){
+                    break;
+                }
+                boolean canDouble = hand.canDouble(Long.MAX_VALUE, totalHandBet(hands));
+                boolean canSplit = canSplit(hand, Long.MAX_VALUE, totalHandBet(hands));
+                PlayStrategy.Play play = strategy.play(hand, dealerUpCard, canDouble, canSplit);
+                if((play == PlayStrategy.Play.DOUBLE && !canDouble) || (play == PlayStrategy.Play.SPLIT && !canSplit)){
+                    play = PlayStrategy.Play.HIT;
+                }
+                switch (play){
+                    case HIT:
+                        hand.addCard(dealCard());
+                        break;
+                    case STAND:
+                        standing = true;
+                        break;
+                    case DOUBLE:
+                        hand.addCard(dealCard());
+                        hand.setDoubledDown();
+                        break;
+                    case SPLIT:
+                        BJHand newHand = new BJHand();
+                        newHand.addCard(hand.removeCard(1));
+                        newHand.setHandBet(hand.getHandBet());
+                        hand.addCard(dealCard());
+                        newHand.addCard(dealCard());
+                        hands.add(h + 1, newHand);
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Clears the round's hands, returning their cards to a continuously shuffled shoe or changing shoes at the cut card
+     */
+    private void finishRound(){
+        if(settings.isContinuousShuffle()){
+            for(List<BJHand> hands: seats){
+                for(BJHand hand: hands){
+                    returnHandToShoe(hand);
+                }
+            }
+            returnHandToShoe(dealersHand);
+        }else if(cardShoe.cardsLeft() <= settings.getCardsBeforeShuffle()){
+            cardShoe = new CardShoe(settings.getDecksUsed(), random);
+        }
+        for(List<BJHand> hands: seats){
+            hands.clear();
+        }
+        dealersHand.clear();
+    }
+
+    /**
+     * Puts the cards of a single hand back into the shoe
+     * @param hand The hand whose cards are returned
+     */
+    private void returnHandToShoe(BJHand hand){
+        for(int i = 0; i < hand.size(); i++){
+            cardShoe.returnCard(hand.getCode(i));
+        }
+    }
+
+    /**
+     * Deals the next card, drawing a fresh shoe if this one has run out
+     * @return The dealt card
+     */
+    private Card dealCard(){
+        if(cardShoe.cardsLeft() == 0){
+            cardShoe = new CardShoe(settings.getDecksUsed(), random);
+        }
+        return cardShoe.dealCard();
+    }
+
+    /**
+     * Gets the total amount bet across all of a seat's hands
+     * @param hands The seat's hands
+     * @return The total bet
+     */
+    private static long totalHandBet(List<BJHand> hands){
+        long totalBet = 0;
+        for(BJHand hand: hands){
+            totalBet += hand.getHandBet();
+        }
+        return totalBet;
+    }
+
+    //**Shared Rules**//
+
+    /**
+     * Draws the dealer's cards, the dealer hitting until the hand is worth 17 or more
+     * @param dealersHand   The dealer's hand
+     * @param deck          Deals the next card from the shoe
+     */
+    public static void playDealersHand(BJHand dealersHand, Supplier<Card> deck){
+        while(HandEvaluator.dealerHits(HandEvaluator.evaluate(dealersHand))){
+            dealersHand.addCard(deck.get());
+        }
+    }
+
+    /**
+     * Checks if a player can afford to take insurance
+     * @param balance   The player's balance, in cents
+     * @param bet       The bet on the player's hand, in cents
+     * @return True if the player has enough money to take insurance
+     */
+    public static boolean canInsure(long balance, long bet){
+        return 2 * balance >= 3 * bet;     //Enough for the bet and half of it again
+    }
+
+    /**
+     * Returns the insurance bet taken out against a hand
+     * @param bet The bet on the hand, in cents
+     * @return The insurance bet, half the hand's bet rounded down to the cent
+     */
+    public static long insuranceBet(long bet){
+        return bet / 2;
+    }
+
+    /**
+     * Returns the amount won by insurance when the dealer has Blackjack, paid at 2:1 on the insurance bet. This covers
+     * the hand's lost bet, all but one cent of it when the bet is an odd number of cents.
+     * @param bet The bet on the hand, in cents
+     * @return The amount won, in cents
+     */
+    public static long insurancePayout(long bet){
+        return 2 * insuranceBet(bet);
+    }
+
+    /**
+     * Checks if a hand can be split, the player being able to cover a second bet of the same amount
+     * @param hand      The hand to split
+     * @param balance   The player's balance
+     * @param totalBets The amount bet across all of the player's hands
+     * @return True if the hand can be split
+     */
+    public static boolean canSplit(BJHand hand, long balance, long totalBets){
+        return hand.canSplit() && totalBets + hand.getHandBet() <= balance;
+    }
+
+    /**
+     * Returns the change to a player's balance once a hand is settled
+     * @param settlement    The result from HandEvaluator.settle
+     * @param bet           The bet on the hand, in cents
+     * @return The amount won in cents, negative if the bet was lost. Blackjack pays 3 to 2, rounded down to the cent.
+     */
+    public static long payout(int settlement, long bet){
+        switch (settlement){
+            case HandEvaluator.BLACKJACK_WIN:
+                return bet * 3 / 2;
+            case HandEvaluator.WIN:
+                return bet;
+            case HandEvaluator.PUSH:
+                return 0;
+            default:
+                return -bet;
+        }
+    }
+}
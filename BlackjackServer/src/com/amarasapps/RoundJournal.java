@@ -0,0 +1,154 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * An append-only record of everything that happens at a Table, kept for audits and settling disputes. Each event is
+ * written as one binary record, a type byte followed by its values, big-endian:
+ *   ROUND      round number (long), start time in epoch milliseconds (long)
+ *   SEAT       seat (int), starting balance in cents (long), session token length (byte), session token (ASCII)
+ *   LEAVE      seat (int)
+ *   BET        seat (int), bet in cents (long)
+ *   CARD       seat (int), hand number (byte), card code (byte)
+ *   PLAY       seat (int), hand number (byte), choice (byte): H, S, D or P for hit, stand, double down or split
+ *   INSURANCE  seat (int), whether insurance was taken (byte)
+ *   PAYOUT     seat (int), hand number (byte), change in balance in cents (long)
+ *   BALANCE    seat (int), balance in cents (long)
+ *   ACCOUNT    seat (int), account balance in cents (long), account name length (byte), account name (ASCII)
+ *
+ * Seats are numbered by the Table from 1 as it seats each Player, so a seat is never reused. The dealer's cards are
+ * recorded at DEALER_SEAT, and insurance is paid out on hand number 0. A Player who names their account after
+ * taking their seat, before their first bet, has an ACCOUNT record giving the balance they play with from then on. A type of 0 marks the end of the records.
+ */
+public interface RoundJournal {
+
+    //Types of record
+    byte ROUND = 1;
+    byte SEAT = 2;
+    byte LEAVE = 3;
+    byte BET = 4;
+    byte CARD = 5;
+    byte PLAY = 6;
+    byte INSURANCE = 7;
+    byte PAYOUT = 8;
+    byte BALANCE = 9;
+    byte ACCOUNT = 10;
+
+    int DEALER_SEAT = 0;        //Seat the dealer's cards are recorded at
+    int INSURANCE_HAND = 0;     //Hand number insurance is paid out on
+
+    RoundJournal NONE = new RoundJournal() {
+        @Override
+        public void roundStarted(long round) {}
+
+        @Override
+        public void seated(int seat, long balance, String sessionToken) {}
+
+        @Override
+        public void left(int seat) {}
+
+        @Override
+        public void bet(int seat, long amount) {}
+
+        @Override
+        public void cardDealt(int seat, int handNumber, Card card) {}
+
+        @Override
+        public void played(int seat, int handNumber, char choice) {}
+
+        @Override
+        public void insurance(int seat, boolean taken) {}
+
+        @Override
+        public void payout(int seat, int handNumber, long change) {}
+
+        @Override
+        public void balance(int seat, long balance) {}
+
+        @Override
+        public void account(int seat, long balance, String account) {}
+
+        @Override
+        public void close() {}
+    };
+
+    /**
+     * Records the start of a round
+     * @param round The number of the round at its Table, starting at 1
+     */
+    void roundStarted(long round);
+
+    /**
+     * Records a Player taking a seat, to be dealt in from the next round
+     * @param seat          The seat the Table gave the Player
+     * @param balance       The Player's balance as they sit down, in cents
+     * @param sessionToken  The token of the Player's session, linking the seat to its client, null if sessions are off
+     */
+    void seated(int seat, long balance, String sessionToken);
+
+    /**
+     * Records a Player leaving the Table
+     * @param seat The Player's seat
+     */
+    void left(int seat);
+
+    /**
+     * Records the bet a Player placed, including the one placed for them at the deadline
+     * @param seat      The Player's seat
+     * @param amount    The amount bet, in cents
+     */
+    void bet(int seat, long amount);
+
+    /**
+     * Records a card dealt from the shoe
+     * @param seat          The seat of the Player dealt the card, or DEALER_SEAT
+     * @param handNumber    The number of the hand the card was added to, starting at 1
+     * @param card          The card dealt
+     */
+    void cardDealt(int seat, int handNumber, Card card);
+
+    /**
+     * Records a play decision made by a Player
+     * @param seat          The Player's seat
+     * @param handNumber    The number of the hand played, starting at 1
+     * @param choice        H, S, D or P for hit, stand, double down or split
+     */
+    void played(int seat, int handNumber, char choice);
+
+    /**
+     * Records whether a Player took the insurance offered to them
+     * @param seat  The Player's seat
+     * @param taken True if insurance was taken
+     */
+    void insurance(int seat, boolean taken);
+
+    /**
+     * Records a hand, or insurance, being settled
+     * @param seat          The Player's seat
+     * @param handNumber    The number of the hand settled, or INSURANCE_HAND
+     * @param change        The amount won in cents, negative if lost
+     */
+    void payout(int seat, int handNumber, long change);
+
+    /**
+     * Records a Player's balance once their bets for the round are settled
+     * @param seat      The Player's seat
+     * @param balance   The Player's balance, in cents
+     */
+    void balance(int seat, long balance);
+
+    /**
+     * Records a seated Player claiming their account, whose balance replaces the one they sat down with
+     * @param seat      The Player's seat
+     * @param balance   The account's balance, in cents
+     * @param account   The name of the account
+     */
+    void account(int seat, long balance, String account);
+
+    /**
+     * Finishes the journal once its Table has closed
+     */
+    void close();
+}
@@ -0,0 +1,31 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Told how long each stage of every round takes, used to measure a running server. Each Table calls its observer from
+ * its own thread, so an observer shared by many Tables must be safe to call from all of them at once.
+ */
+public interface RoundObserver {
+
+    RoundObserver NONE = new RoundObserver() {
+        @Override
+        public void phaseEnded(int tableId, RoundPhase phase, long nanos) {}
+    };
+
+    /**
+     * Called as a Table finishes a stage of the round
+     * @param tableId   The id of the Table
+     * @param phase     The stage which has finished
+     * @param nanos     The time the stage took in nanoseconds
+     */
+    void phaseEnded(int tableId, RoundPhase phase, long nanos);
+
+    /**
+     * Called once a Table has finished a round, after its last stage
+     * @param tableId   The id of the Table
+     */
+    default void roundEnded(int tableId){}
+}
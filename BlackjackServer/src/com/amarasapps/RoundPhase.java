@@ -0,0 +1,17 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * The stages a Table takes each round through, in the order they are played, timed for a RoundObserver
+ */
+public enum RoundPhase {
+    BET,        //Asking for bets until every Player has bet or the deadline passes
+    DEAL,       //Dealing the first two cards to every Player and the dealer
+    INSURANCE,  //Offering insurance when the dealer shows an Ace and telling each Player the outcome
+    PLAY,       //Every Player's turn, one after the other
+    DEALER,     //Playing out the dealer's hand and paying out every hand
+    RESET       //Asking to play again and clearing the Table for the next round
+}
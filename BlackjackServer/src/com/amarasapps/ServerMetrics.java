@@ -0,0 +1,79 @@
+package com.amarasapps;
+
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Counters shared by every Table on the server. Tables on many threads update them, so each is a LongAdder which
+ * never makes those threads contend with each other.
+ */
+public class ServerMetrics implements ServerMetricsMBean {
+
+    public static final ServerMetrics INSTANCE = new ServerMetrics();
+
+    private final LongAdder expiredBets = new LongAdder();                  //Bets placed by default at the deadline
+    private final LongAdder expiredInsuranceDecisions = new LongAdder();    //Insurance declined by default at the deadline
+    private final LongAdder expiredPlayDecisions = new LongAdder();         //Turns stood by default at the deadline
+    private final LongAdder expiredPlayAgainDecisions = new LongAdder();    //Players removed by default at the deadline
+
+    private ServerMetrics(){}
+
+    /**
+     * Publishes the metrics over JMX
+     */
+    public void register(){
+        try{
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("com.amarasapps:type=ServerMetrics"));
+        }catch (JMException e){
+            System.out.println("Unable to publish server metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Counts a decision which a client did not make before its deadline
+     * @param decision The stage the Table stopped waiting on
+     */
+    public void decisionExpired(GameState decision){
+        switch (decision){
+            case WAITINGBET:
+                expiredBets.increment();
+                break;
+            case OFFERINSURANCE:
+                expiredInsuranceDecisions.increment();
+                break;
+            case PLAYING:
+                expiredPlayDecisions.increment();
+                break;
+            case PLAYAGAIN:
+                expiredPlayAgainDecisions.increment();
+                break;
+        }
+    }
+
+    @Override
+    public long getExpiredBets() {
+        return expiredBets.sum();
+    }
+
+    @Override
+    public long getExpiredInsuranceDecisions() {
+        return expiredInsuranceDecisions.sum();
+    }
+
+    @Override
+    public long getExpiredPlayDecisions() {
+        return expiredPlayDecisions.sum();
+    }
+
+    @Override
+    public long getExpiredPlayAgainDecisions() {
+        return expiredPlayAgainDecisions.sum();
+    }
+}
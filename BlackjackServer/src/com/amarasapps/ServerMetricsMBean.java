@@ -0,0 +1,19 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * The server counters published over JMX, viewable with jconsole or any JMX client under com.amarasapps:type=ServerMetrics
+ */
+public interface ServerMetricsMBean {
+
+    long getExpiredBets();
+
+    long getExpiredInsuranceDecisions();
+
+    long getExpiredPlayDecisions();
+
+    long getExpiredPlayAgainDecisions();
+}
@@ -0,0 +1,53 @@
+package com.amarasapps;
+
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Creates the ThreadFactory used to run Players and Tables, either as platform threads or as virtual threads.
+ * Virtual threads are looked up at runtime so the server still builds and runs on Java versions without them.
+ */
+public final class ServerThreads {
+
+    private ServerThreads(){}
+
+    /**
+     * Returns a factory which creates ordinary platform threads
+     * @return A platform ThreadFactory
+     */
+    public static ThreadFactory platformThreads(){
+        return Thread::new;
+    }
+
+    /**
+     * Returns a factory which creates virtual threads, equivalent to Thread.ofVirtual().factory()
+     * @return A virtual ThreadFactory
+     * @throws UnsupportedOperationException If the running JVM does not support virtual threads
+     */
+    public static ThreadFactory virtualThreads(){
+        try{
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        }catch (ReflectiveOperationException e){
+            throw new UnsupportedOperationException("Virtual threads need Java 21 or newer", e);
+        }
+    }
+
+    /**
+     * Returns the factory for the named thread mode
+     * @param mode Either PLATFORM or VIRTUAL
+     * @return The matching ThreadFactory
+     */
+    public static ThreadFactory forMode(String mode){
+        if(mode.equals("VIRTUAL")){
+            return virtualThreads();
+        }
+        return platformThreads();
+    }
+}
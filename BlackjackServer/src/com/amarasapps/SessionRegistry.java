@@ -0,0 +1,96 @@
+package com.amarasapps;
+
+
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Hands every Player a session token when it connects, so a client whose connection drops can reconnect and take its
+ * seat back. A Player whose connection is lost keeps its seat for the grace period, after which it is treated as
+ * having left. A grace period of 0 turns sessions off, and a lost connection ends the Player straight away.
+ */
+public class SessionRegistry {
+
+    public static final long DEFAULT_GRACE_PERIOD = 30000;  //Milliseconds a lost connection can be resumed within
+    public static final int REPLAY_CAPACITY = 256;          //Messages kept per session to replay after a reconnect
+
+    private static final int TOKEN_BYTES = 16;              //Random bytes in a session token
+
+    private final long gracePeriod;     //Milliseconds a lost connection can be resumed within, 0 if sessions are off
+    private final ConcurrentHashMap<String, Player> sessions = new ConcurrentHashMap<>();   //Open sessions by token
+    private final SecureRandom tokenSource = new SecureRandom();    //Makes tokens another client cannot guess
+    private final ScheduledExecutorService graceTimer;  //Ends sessions whose grace period has run out
+
+    /**
+     * Constructor to create a registry with no open sessions
+     * @param gracePeriod Milliseconds a lost connection can be resumed within, 0 to turn sessions off
+     */
+    public SessionRegistry(long gracePeriod){
+        this.gracePeriod = gracePeriod;
+        this.graceTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Session-Grace-Timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Whether a client whose connection is lost is given the chance to resume its session
+     * @return True if sessions are on
+     */
+    public boolean allowsResume(){
+        return gracePeriod > 0;
+    }
+
+    /**
+     * Opens a session for a newly connected Player
+     * @param player The Player the session belongs to
+     * @return The token the client uses to resume the session
+     */
+    public String open(Player player){
+        byte[] random = new byte[TOKEN_BYTES];
+        tokenSource.nextBytes(random);
+        StringBuilder token = new StringBuilder(2 * TOKEN_BYTES);
+        for(byte b: random){
+            token.append(String.format("%02x", b));
+        }
+        sessions.put(token.toString(), player);
+        return token.toString();
+    }
+
+    /**
+     * Finds the Player holding a session
+     * @param token The token sent by the client
+     * @return The Player, or null if there is no such session
+     */
+    public Player find(String token){
+        return sessions.get(token);
+    }
+
+    /**
+     * Closes a session once its Player has left, so it can no longer be resumed
+     * @param token The session's token
+     */
+    public void close(String token){
+        if(token != null){
+            sessions.remove(token);
+        }
+    }
+
+    /**
+     * Runs the given task once the grace period has passed
+     * @param expiry The task ending the session if it has not been resumed
+     * @return The scheduled task, to be cancelled if the session is resumed in time
+     */
+    public ScheduledFuture<?> scheduleExpiry(Runnable expiry){
+        return graceTimer.schedule(expiry, gracePeriod, TimeUnit.MILLISECONDS);
+    }
+}
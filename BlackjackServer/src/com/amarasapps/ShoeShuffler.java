@@ -0,0 +1,39 @@
+package com.amarasapps;
+
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Builds and shuffles card shoes in the background, on a small pool of threads shared by every Table. A Table asks for
+ * its next shoe as soon as it starts dealing from the current one, so it is ready to swap in when the cut card is
+ * reached and the players never wait on a shuffle.
+ */
+public final class ShoeShuffler {
+
+    private static final AtomicInteger threadCount = new AtomicInteger();    //Numbers the shuffler threads
+    private static final ExecutorService SHUFFLERS = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors())), runnable -> {
+                Thread thread = new Thread(runnable, "Shoe-Shuffler-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private ShoeShuffler(){}
+
+    /**
+     * Starts building and shuffling a new shoe in the background
+     * @param deckCount The number of decks in the shoe
+     * @param random    The Table's generator, not used by the Table until the shoe is ready
+     * @return The shoe, once it has been shuffled
+     */
+    public static CompletableFuture<CardShoe> prepare(int deckCount, ShuffleRandom random){
+        return CompletableFuture.supplyAsync(() -> new CardShoe(deckCount, random), SHUFFLERS);
+    }
+}
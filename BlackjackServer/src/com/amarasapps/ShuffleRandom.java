@@ -0,0 +1,19 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * The source of randomness used to shuffle a Table's shoes. Each Table is given its own by the RandomSource, so
+ * Tables never contend on a shared generator. It is only used by one thread at a time, so it need not be thread safe.
+ */
+public interface ShuffleRandom {
+
+    /**
+     * Returns a random number between 0 (inclusive) and the bound (exclusive)
+     * @param bound The upper bound, greater than 0
+     * @return The random number
+     */
+    int nextInt(int bound);
+}
@@ -0,0 +1,99 @@
+package com.amarasapps;
+
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Plays a large number of rounds with no clients, to check rule changes and the house edge. The rounds are split into
+ * simulated tables of TABLE_ROUNDS rounds each, and the tables are shared across every core with fork/join. Each table
+ * is played by its own RoundEngine with its own shoe and a generator taken from the RandomSource up front, in table
+ * order, so a SEEDED simulation gives the same result however many cores run it.
+ */
+public class Simulation extends RecursiveTask<SimulationResult> {
+
+    private static final long serialVersionUID = 1L;
+    public static final int TABLE_ROUNDS = 50000;   //Rounds played by each simulated table
+
+    private final TableSettings settings;       //Settings each simulated table is played with
+    private final int seats;                    //Seats at each simulated table
+    private final PlayStrategy strategy;        //Strategy every seat plays
+    private final ShuffleRandom[] generators;   //Generator of each simulated table
+    private final long rounds;                  //Rounds to play across every table
+    private final int firstTable;               //First table played by this task
+    private final int lastTable;                //Table after the last one played by this task
+
+    /**
+     * Constructor for a task playing a range of the simulated tables
+     * @param settings      Settings each simulated table is played with
+     * @param seats         Seats at each simulated table
+     * @param strategy      Strategy every seat plays
+     * @param generators    Generator of each simulated table
+     * @param rounds        Rounds to play across every table
+     * @param firstTable    First table played by this task
+     * @param lastTable     Table after the last one played by this task
+     */
+    private Simulation(TableSettings settings, int seats, PlayStrategy strategy, ShuffleRandom[] generators, long rounds,
+                       int firstTable, int lastTable){
+        this.settings = settings;
+        this.seats = seats;
+        this.strategy = strategy;
+        this.generators = generators;
+        this.rounds = rounds;
+        this.firstTable = firstTable;
+        this.lastTable = lastTable;
+    }
+
+    /**
+     * Plays the given number of rounds on every core
+     * @param settings      Settings each simulated table is played with
+     * @param seats         Seats at each simulated table
+     * @param strategy      Strategy every seat plays
+     * @param randomSource  Gives each simulated table its generator
+     * @param rounds        Rounds to play
+     * @return The totals across every round
+     */
+    public static SimulationResult run(TableSettings settings, int seats, PlayStrategy strategy, RandomSource randomSource,
+                                       long rounds){
+        int tables = (int) ((rounds + TABLE_ROUNDS - 1) / TABLE_ROUNDS);
+        if(tables == 0){
+            return new SimulationResult();
+        }
+        ShuffleRandom[] generators = new ShuffleRandom[tables];
+        for(int i = 0; i < tables; i++){
+            generators[i] = randomSource.newTableRandom();
+        }
+        return ForkJoinPool.commonPool().invoke(new Simulation(settings, seats, strategy, generators, rounds, 0, tables));
+    }
+
+    @Override
+    protected SimulationResult compute(){
+        if(lastTable - firstTable == 1){
+            return playTable(firstTable);
+        }
+        int middle = (firstTable + lastTable) >>> 1;
+        Simulation second = new Simulation(settings, seats, strategy, generators, rounds, middle, lastTable);
+        second.fork();
+        SimulationResult result = new Simulation(settings, seats, strategy, generators, rounds, firstTable, middle).compute();
+        return result.merge(second.join());
+    }
+
+    /**
+     * Plays every round of one simulated table
+     * @param table The table's position
+     * @return The table's totals
+     */
+    private SimulationResult playTable(int table){
+        long tableRounds = Math.min(TABLE_ROUNDS, rounds - (long) table * TABLE_ROUNDS);
+        RoundEngine engine = new RoundEngine(settings, seats, strategy, generators[table]);
+        SimulationResult result = new SimulationResult();
+        for(long i = 0; i < tableRounds; i++){
+            engine.playRound(result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,147 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Running totals of the rounds played by a simulation, from the players' side of the table. Each worker keeps its own
+ * and they are merged once every worker has finished.
+ */
+public class SimulationResult {
+
+    private long rounds;            //Rounds dealt
+    private long hands;             //Hands settled, including those split off another
+    private long wins;              //Hands which beat the dealer, not counting blackjacks
+    private long blackjacks;        //Hands paid 3:2
+    private long pushes;            //Hands which kept their bet
+    private long losses;            //Hands which lost their bet
+    private long doubles;           //Hands doubled down
+    private long initialBets;       //Total of the bets placed before any cards were dealt, in cents
+    private long totalBets;         //Total staked, including doubles, splits and insurance, in cents
+    private long net;               //Total won by the players in cents, negative when the house is ahead
+
+    /**
+     * Records a round being dealt
+     * @param seats The number of seats dealt in
+     * @param bet   The bet placed by each seat, in cents
+     */
+    public void roundPlayed(int seats, long bet){
+        rounds++;
+        initialBets += seats * bet;
+    }
+
+    /**
+     * Records a hand being settled against the dealer
+     * @param settlement    The result from HandEvaluator.settle
+     * @param hand          The settled hand
+     * @param payout        The amount won in cents, negative if the bet was lost
+     */
+    public void handSettled(int settlement, BJHand hand, long payout){
+        hands++;
+        totalBets += hand.getHandBet();
+        net += payout;
+        if(hand.isDoubledDown()){
+            doubles++;
+        }
+        switch (settlement){
+            case HandEvaluator.BLACKJACK_WIN:
+                blackjacks++;
+                break;
+            case HandEvaluator.WIN:
+                wins++;
+                break;
+            case HandEvaluator.PUSH:
+                pushes++;
+                break;
+            default:
+                losses++;
+        }
+    }
+
+    /**
+     * Records an insurance bet being placed
+     * @param amount The insurance bet, in cents
+     */
+    public void insuranceTaken(long amount){
+        totalBets += amount;
+    }
+
+    /**
+     * Records an insurance bet being won, the dealer having Blackjack
+     * @param amount The amount won, in cents
+     */
+    public void insuranceWon(long amount){
+        net += amount;
+    }
+
+    /**
+     * Records an insurance bet being lost, the dealer not having Blackjack
+     * @param amount The insurance bet, in cents
+     */
+    public void insuranceLost(long amount){
+        net -= amount;
+    }
+
+    /**
+     * Adds another worker's totals to these
+     * @param other The totals to add
+     * @return These totals
+     */
+    public SimulationResult merge(SimulationResult other){
+        rounds += other.rounds;
+        hands += other.hands;
+        wins += other.wins;
+        blackjacks += other.blackjacks;
+        pushes += other.pushes;
+        losses += other.losses;
+        doubles += other.doubles;
+        initialBets += other.initialBets;
+        totalBets += other.totalBets;
+        net += other.net;
+        return this;
+    }
+
+    /**
+     * Returns the house edge, the share of the initial bets the house keeps
+     * @return The house edge as a fraction, negative if the players came out ahead
+     */
+    public double houseEdge(){
+        return initialBets == 0 ? 0 : -(double) net / initialBets;
+    }
+
+    public long getRounds() {
+        return rounds;
+    }
+
+    public long getHands() {
+        return hands;
+    }
+
+    public long getNet() {
+        return net;
+    }
+
+    /**
+     * Prints a summary of the totals
+     * @param seconds The time the simulation took
+     */
+    public void print(double seconds){
+        System.out.println(String.format("Simulated %d Rounds, %d Hands in %.2fs (%.0f Rounds/s)",
+                rounds, hands, seconds, rounds / Math.max(seconds, 1e-9)));
+        System.out.println(String.format("\tWins: %.2f%%\tBlackjacks: %.2f%%\tPushes: %.2f%%\tLosses: %.2f%%\tDoubles: %.2f%%",
+                percent(wins), percent(blackjacks), percent(pushes), percent(losses), percent(doubles)));
+        System.out.println(String.format("\tInitial Bets: %s\tTotal Staked: %s\tPlayer Net: %s",
+                Money.format(initialBets), Money.format(totalBets), Money.format(net)));
+        System.out.println(String.format("\tHouse Edge: %.3f%% of Initial Bets", 100 * houseEdge()));
+    }
+
+    /**
+     * Returns a count as a percentage of the hands settled
+     * @param count The count of hands
+     * @return The percentage
+     */
+    private double percent(long count){
+        return hands == 0 ? 0 : 100.0 * count / hands;
+    }
+}
@@ -0,0 +1,73 @@
+package com.amarasapps;
+
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * A connection to a client over a blocking Socket, used when each Player reads from its client on its own thread
+ */
+public class SocketConnection implements ClientConnection {
+
+    private static final int OUTPUT_BUFFER_SIZE = 2048; //Bytes buffered before a write is forced, several stages' worth
+
+    private final Socket socket;        //Socket Connecting to Client
+    private final OutputStream output;  //Output Stream to Client
+    private final ReentrantLock outputLock = new ReentrantLock();  //Keeps messages from different threads whole
+
+    /**
+     * Constructor to wrap a connected client Socket
+     * @param socket The Socket to Communicate with the Client
+     * @throws IOException If the Socket's output stream cannot be opened
+     */
+    public SocketConnection(Socket socket) throws IOException {
+        this.socket = socket;
+        this.socket.setTcpNoDelay(true);    //Output is already batched per stage, so Nagle would only add delay
+        this.output = new BufferedOutputStream(socket.getOutputStream(), OUTPUT_BUFFER_SIZE);
+    }
+
+    @Override
+    public void send(byte[] message) {
+        outputLock.lock();
+        try{
+            output.write(message);
+        }catch (IOException ignored){   //A failed write is noticed as a disconnect by the reading thread
+        }finally {
+            outputLock.unlock();
+        }
+    }
+
+    @Override
+    public void flush() {
+        outputLock.lock();
+        try{
+            output.flush();
+        }catch (IOException ignored){
+        }finally {
+            outputLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        try{
+            socket.close();
+        }catch (IOException ignored){}
+    }
+
+    @Override
+    public void attach(Player player) {}    //The Player's own thread does the reading
+
+    @Override
+    public String describe() {
+        return String.format("%s:%d", socket.getInetAddress().getHostAddress(), socket.getPort());
+    }
+}
@@ -1,8 +1,16 @@
 package com.amarasapps;
 
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
@@ -12,16 +20,35 @@ import java.util.stream.Collectors;
  *
  * Class which stores all the data regarding the execution of gameplay, runs as a thread controlling gameplay
  * Also spins of multiple threads for each player
+ *
+ * Players join through a waiting room and are seated at the start of the next round, so seats freed by players who
+ * leave are filled without the Table stopping. The Table closes once a round ends with nobody seated or waiting.
  */
 
 public class Table implements Runnable {
 
-    private ArrayList<Player> players;          //List of Players in the Game
+    private final int tableId;                  //Id of the Table, used to tell Tables apart in the log
+    private List<Player> players;               //List of Players in the Game, only changed by the Table's own thread
+    private final ArrayDeque<Player> waitingRoom = new ArrayDeque<>();  //Players who will be seated at the next round
+    private final ReentrantLock seatingLock = new ReentrantLock();     //Guards the waiting room, reserved seats and closing
+    private final Condition seatingChanged = seatingLock.newCondition();   //Signalled when a reservation is resolved
+    private int reservedSeats = 0;              //Seats promised to players who are not yet seated
+    private boolean closed = false;             //Whether the Table has stopped playing and seats no one else
     private CardShoe cardShoe;                  //The CardShoe holding all the Decks for the Table
-    private double minimumBet;                  //Minimum Bet That Can Be Placed
+    private CompletableFuture<CardShoe> nextShoe;   //The shoe swapped in at the cut card, shuffled in the background
+    private final ShuffleRandom random;         //The Table's own generator for shuffling its shoes
+    private long minimumBet;                    //Minimum Bet That Can Be Placed, in cents
     private int decksUsed;                      //Decks Kept in the Shoe
     private int cardsBeforeShuffle;             //Card Limit Before Shoe is Reshuffled
+    private final boolean continuousShuffle;    //Whether each round's cards go back in the shoe rather than using a cut card
+    private final TableSettings settings;       //Settings the Table was opened with, including decision deadlines
+    private final RoundObserver observer;       //Told how long each stage of the round takes
+    private final RoundJournal journal;         //Records every bet, card, decision and payout at the Table
+    private long roundsPlayed = 0;              //Rounds started at the Table
+    private int nextSeat = 1;                   //Seat given to the next Player seated, numbering them in the journal
     private BJHand dealersHand = new BJHand();  //The hand that represents the dealers hand
+    private Broadcast dealerUpCardMessage;      //This round's dealer hand with the hole card hidden, sent to every Player
+    private Broadcast dealerHandMessage;        //This round's dealer hand once revealed, sent to every Player
 
     private CountDownLatch betsPlacedLatch;      //Count of Players Who've Place their Bets
     private CountDownLatch playAgainLatch;      //Count of Players who are being asked to play again
@@ -30,15 +57,33 @@ public class Table implements Runnable {
 
     /**
      * Constructor to initialise the Playing Table where all the program logic is executed
-     * @param minBet    The minimum bet that a player can place
-     * @param decksUsed The number of decks to be stored in a card show
-     * @param cardsBeforeShuffle The max number of cards left in Shoe before it is re-shuffled
+     * @param tableId   The id the Lobby has given this Table
+     * @param settings  The minimum bet, decks used and reshuffle limit for the Table
+     * @param random    The generator the Table shuffles its shoes with
+     */
+    public Table(int tableId, TableSettings settings, ShuffleRandom random){
+        this(tableId, settings, random, RoundObserver.NONE, RoundJournal.NONE);
+    }
+
+    /**
+     * Constructor to initialise the Playing Table where all the program logic is executed
+     * @param tableId   The id the Lobby has given this Table
+     * @param settings  The minimum bet, decks used and reshuffle limit for the Table
+     * @param random    The generator the Table shuffles its shoes with
+     * @param observer  Told how long each stage of every round takes
+     * @param journal   Records every round played at the Table, closed once the Table has finished
      */
-    public Table(double minBet, int decksUsed, int cardsBeforeShuffle){
-        this.minimumBet = minBet;
-        this.decksUsed = decksUsed;
-        this.cardsBeforeShuffle = cardsBeforeShuffle;
-        players = new ArrayList<>();
+    public Table(int tableId, TableSettings settings, ShuffleRandom random, RoundObserver observer, RoundJournal journal){
+        this.tableId = tableId;
+        this.observer = observer;
+        this.journal = journal;
+        this.random = random;
+        this.minimumBet = settings.getMinimumBet();
+        this.decksUsed = settings.getDecksUsed();
+        this.cardsBeforeShuffle = settings.getCardsBeforeShuffle();
+        this.continuousShuffle = settings.isContinuousShuffle();
+        this.settings = settings;
+        players = new CopyOnWriteArrayList<>();     //Read by Player threads while the Table thread seats and removes
     }
 
     /**
@@ -46,51 +91,117 @@ public class Table implements Runnable {
      */
     @Override
     public void run() {
-        System.out.println("Table Thread has Started");
-        cardShoe = new CardShoe(decksUsed);
+        System.out.printf("Table %d: Thread has Started\n", tableId);
+        cardShoe = new CardShoe(decksUsed, random);
+        if(!continuousShuffle){
+            nextShoe = ShoeShuffler.prepare(decksUsed, random);
+        }
 
-        do{
-            System.out.println("Playing a New Game");
-            System.out.println("Player Count: " + playerCount());
+        while(seatWaitingPlayers()){
+            System.out.printf("Table %d: Playing a New Game\n", tableId);
+            System.out.printf("Table %d: Player Count: %d\n", tableId, playerCount());
             playGame();
-        }while(playerCount() > 0);
+        }
+        journal.close();
+    }
+
+    /**
+     * Seats everyone in the waiting room before a new round, closing the Table if no one is left to play. With nobody
+     * seated but seats still reserved, waits for those players to be added or their reservations cancelled.
+     * @return True if there are players for another round
+     */
+    private boolean seatWaitingPlayers(){
+        seatingLock.lock();
+        try{
+            while(true){
+                Player player;
+                while((player = waitingRoom.poll()) != null){
+                    reservedSeats--;
+                    if(!player.hasChosenToQuit()){      //Skip anyone who disconnected while waiting
+                        player.takeSeat(nextSeat++);
+                        players.add(player);
+                    }else{
+                        player.releaseAccount();
+                    }
+                }
+                if(!players.isEmpty()){
+                    return true;
+                }
+                if(reservedSeats == 0){
+                    closed = true;
+                    return false;
+                }
+                seatingChanged.awaitUninterruptibly();
+            }
+        }finally {
+            seatingLock.unlock();
+        }
     }
 
     /**
      * Execute a Single Round of the Game
      */
     private void playGame(){
+        long phaseStart = System.nanoTime();
+        journal.roundStarted(++roundsPlayed);
         betsPlacedLatch = new CountDownLatch(players.size());
 
         for(Player player: players){
             player.setGetBetState();
         }
+        flushPlayers();
         try{
-            betsPlacedLatch.await();
+            if(!awaitDecisions(betsPlacedLatch, settings.getBetTimeout())){
+                expireDecisions(players, GameState.WAITINGBET);
+            }
         }catch(InterruptedException e){
             e.printStackTrace();
         }
-        System.out.println("Dealing Cards");
+        phaseStart = phaseEnded(RoundPhase.BET, phaseStart);
+        System.out.printf("Table %d: Dealing Cards\n", tableId);
         dealInitialCards();
+        phaseStart = phaseEnded(RoundPhase.DEAL, phaseStart);
         if(getDealerUpCard().isAce()){
             handleInsuranceBets();
             informInsuranceOutcome();
+            phaseStart = phaseEnded(RoundPhase.INSURANCE, phaseStart);
             if(dealersHand.hasBlackjack()){
                 resetTable();
+                phaseEnded(RoundPhase.RESET, phaseStart);
+                observer.roundEnded(tableId);
                 return;
             }
         }
         for (Player player : players) {
             player.setPlayGameState();
             player.handlePlayStage();
+            player.flush();
             try {
-                player.waitPlayHandLatch();
+                if(!player.waitPlayHandLatch(settings.getPlayTimeout()) && player.expireDecision(GameState.PLAYING)){
+                    decisionExpired(GameState.PLAYING);
+                }
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
         }
+        phaseStart = phaseEnded(RoundPhase.PLAY, phaseStart);
         dealersTurn();
+        phaseStart = phaseEnded(RoundPhase.DEALER, phaseStart);
         resetTable();
+        phaseEnded(RoundPhase.RESET, phaseStart);
+        observer.roundEnded(tableId);
+    }
+
+    /**
+     * Tells the observer a stage of the round has finished
+     * @param phase The stage which has finished
+     * @param start When the stage started, from System.nanoTime
+     * @return When the stage finished, which is when the next stage starts
+     */
+    private long phaseEnded(RoundPhase phase, long start){
+        long end = System.nanoTime();
+        observer.phaseEnded(tableId, phase, end - start);
+        return end;
     }
 
     /**
@@ -101,8 +212,11 @@ public class Table implements Runnable {
         for(Player player: players){
             player.handlePlayStage();
         }
+        flushPlayers();
         try{
-            insuranceBetLatch.await();
+            if(!awaitDecisions(insuranceBetLatch, settings.getInsuranceTimeout())){
+                expireDecisions(players, GameState.OFFERINSURANCE);
+            }
         }catch(InterruptedException ignored){}
     }
 
@@ -110,24 +224,66 @@ public class Table implements Runnable {
      * Tell each player the outcome of the Insurance, payout or not
      */
     private void informInsuranceOutcome(){
+        if(dealersHand.hasBlackjack()){
+            revealDealersHand();
+        }
         for(Player player: players){
             player.informInsuranceOutcome();
         }
+        flushPlayers();
+    }
+
+    /**
+     * Replaces the shoe once the cut card is reached with the one shuffled in the background, and starts shuffling
+     * the shoe after it. The next shoe is normally ready long before it is needed.
+     */
+    private void swapShoe(){
+        try{
+            cardShoe = nextShoe.join();
+        }catch (CompletionException e){
+            System.out.printf("Table %d: Background Shuffle Failed, Shuffling Here\n", tableId);
+            cardShoe = new CardShoe(decksUsed, random);
+        }
+        nextShoe = ShoeShuffler.prepare(decksUsed, random);
+    }
+
+    /**
+     * Puts every card dealt this round, to the players and the dealer, back into the continuously shuffled shoe
+     */
+    private void returnCardsToShoe(){
+        for(Player player: players){
+            for(BJHand hand: player.getHands()){
+                returnHandToShoe(hand);
+            }
+        }
+        returnHandToShoe(dealersHand);
+    }
+
+    /**
+     * Puts the cards of a single hand back into the shoe
+     * @param hand The hand whose cards are returned
+     */
+    private void returnHandToShoe(BJHand hand){
+        for(int i = 0; i < hand.size(); i++){
+            cardShoe.returnCard(hand.getCode(i));
+        }
     }
 
     /**
      * Resets the State of the Table for a new Game
      */
     private void resetTable(){
-        System.out.println("Table Setup");
-        if(cardShoe.cardsLeft() <= cardsBeforeShuffle){
-            this.cardShoe = new CardShoe(decksUsed);
+        System.out.printf("Table %d: Table Setup\n", tableId);
+        if(continuousShuffle){
+            returnCardsToShoe();
+        }else if(cardShoe.cardsLeft() <= cardsBeforeShuffle){
+            swapShoe();
         }
 
         ArrayList<Player> inelligiblePlayers = getInelligiblePlayers();
         ArrayList<Player> elligiblePlayers = getElligiblePlayers();
         playAgainLatch = new CountDownLatch(elligiblePlayers.size());
-        System.out.printf("Inelligible Count: %d\tElligible Count: %d\n", inelligiblePlayers.size(), elligiblePlayers.size());
+        System.out.printf("Table %d: Inelligible Count: %d\tElligible Count: %d\n", tableId, inelligiblePlayers.size(), elligiblePlayers.size());
 
         for(Player player: inelligiblePlayers){
             player.informLowBalance();
@@ -136,10 +292,13 @@ public class Table implements Runnable {
 
         for(Player player: elligiblePlayers){
             player.setPlayAgainState();
+            player.flush();
         }
         if(elligiblePlayers.size() > 0){
             try{
-                playAgainLatch.await();
+                if(!awaitDecisions(playAgainLatch, settings.getPlayAgainTimeout())){
+                    expireDecisions(elligiblePlayers, GameState.PLAYAGAIN);
+                }
             }catch (InterruptedException ignored){}
             for(Player player: elligiblePlayers){
                 if(player.hasChosenToQuit()){
@@ -166,28 +325,123 @@ public class Table implements Runnable {
     private void dealInitialCards(){
         for(int i = 0; i < 2; i++){
             for(Player p: players){
-                p.getCurrentHand().addCard(cardShoe.dealCard());
+                Card card = cardShoe.dealCard();
+                p.getCurrentHand().addCard(card);
+                journal.cardDealt(p.getSeat(), 1, card);
             }
-            dealersHand.addCard(cardShoe.dealCard());
+            dealersHand.addCard(dealDealerCard());
         }
+        int visibleValue = getDealerVisibleValue();
+        dealerUpCardMessage = new Broadcast(protocol -> protocol.encodeDealerHand(visibleValue, dealersHand, true));
     }
 
+    /**
+     * Encodes the dealer's finished hand once, ready to be sent to every player
+     */
+    private void revealDealersHand(){
+        dealerHandMessage = new Broadcast(protocol -> protocol.encodeDealerHand(dealersHand.handValue(), dealersHand, false));
+    }
+
+    /**
+     * Plays out the dealer's hand, then shows it to each player and pays out their hands
+     */
     private void dealersTurn(){
-        while(!dealersHand.hasBlackjack() && !dealersHand.isBust() && dealersHand.handValue() < 17){
-            dealersHand.addCard(cardShoe.dealCard());
-        }
+        RoundEngine.playDealersHand(dealersHand, this::dealDealerCard);
+        revealDealersHand();
 
         for(Player player: players){
             player.sendDealerHandState();
             player.processPayout();
         }
+        flushPlayers();
+    }
+
+    /**
+     * Waits for every Player to make a decision, giving up once the deadline for the stage has passed
+     * @param latch     The latch counting down the Players' decisions
+     * @param timeout   Milliseconds allowed for the stage, 0 to wait forever
+     * @return True if every Player decided in time
+     */
+    private boolean awaitDecisions(CountDownLatch latch, long timeout) throws InterruptedException {
+        if(timeout <= 0){
+            latch.await();
+            return true;
+        }
+        return latch.await(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Takes the default choice for every Player who has not made a decision before the deadline
+     * @param waitingOn The Players who were asked for the decision
+     * @param decision  The stage whose deadline has passed
+     */
+    private void expireDecisions(List<Player> waitingOn, GameState decision){
+        for(Player player: waitingOn){
+            if(player.expireDecision(decision)){
+                decisionExpired(decision);
+            }
+        }
+    }
+
+    /**
+     * Records a decision which was not made before its deadline
+     * @param decision The stage whose deadline has passed
+     */
+    private void decisionExpired(GameState decision){
+        ServerMetrics.INSTANCE.decisionExpired(decision);
+        System.out.printf("Table %d: Deadline Passed for %s, Default Choice Taken\n", tableId, decision);
+    }
+
+    /**
+     * Sends every Player's client the messages buffered during the stage of the round that has just finished
+     */
+    private void flushPlayers(){
+        for(Player player: players){
+            player.flush();
+        }
+    }
+    /**
+     * Reserves a seat for a player about to join, if the Table is still open and has one free
+     * @return True if a seat was reserved, in which case addPlayer or cancelReservation must follow
+     */
+    public boolean reserveSeat(){
+        seatingLock.lock();
+        try{
+            if(closed || players.size() + reservedSeats >= settings.getSeatsPerTable()){
+                return false;
+            }
+            reservedSeats++;
+            return true;
+        }finally {
+            seatingLock.unlock();
+        }
     }
+
     /**
-     * Adds a new Player to the Playing Table
-     * @param player    The new Player to be added to the Table
+     * Gives back a seat reserved for a player who could not be seated after all
+     */
+    public void cancelReservation(){
+        seatingLock.lock();
+        try{
+            reservedSeats--;
+            seatingChanged.signal();
+        }finally {
+            seatingLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a new Player to the waiting room, they will be seated at the start of the next round
+     * @param player    The new Player to be added to the Table, who must have a reserved seat
      */
     public void addPlayer(Player player){
-        players.add(player);
+        seatingLock.lock();
+        try{
+            waitingRoom.add(player);
+            seatingChanged.signal();
+        }finally {
+            seatingLock.unlock();
+        }
     }
 
     /**
@@ -196,6 +450,8 @@ public class Table implements Runnable {
      */
     private void removePlayer(Player player){
         players.remove(player);
+        journal.left(player.getSeat());
+        player.releaseAccount();
     }
 
     //**Latch Countdown**//
@@ -223,6 +479,14 @@ public class Table implements Runnable {
 
     //**Getters**//
 
+    /**
+     * Returns the id the Lobby gave this Table
+     * @return The Table's id
+     */
+    public int getTableId(){
+        return tableId;
+    }
+
     /**
      * Gets all the hand which represents the dealer
      * @return The hand that represents the dealer
@@ -231,6 +495,22 @@ public class Table implements Runnable {
         return dealersHand;
     }
 
+    /**
+     * Gets this round's dealer hand with the hole card hidden, encoded for every protocol
+     * @return The dealer's up card message
+     */
+    public Broadcast getDealerUpCardMessage(){
+        return dealerUpCardMessage;
+    }
+
+    /**
+     * Gets this round's revealed dealer hand, encoded for every protocol
+     * @return The dealer's hand message
+     */
+    public Broadcast getDealerHandMessage(){
+        return dealerHandMessage;
+    }
+
     /**
      * Gets the Card from the Dealer which the Player can "see"
      * @return The first card in the dealer's hand
@@ -259,6 +539,24 @@ public class Table implements Runnable {
         return cardShoe.dealCard();
     }
 
+    /**
+     * Deals the next card in the card shoe to the dealer, recording it in the journal
+     * @return The card dealt
+     */
+    private Card dealDealerCard(){
+        Card card = cardShoe.dealCard();
+        journal.cardDealt(RoundJournal.DEALER_SEAT, 1, card);
+        return card;
+    }
+
+    /**
+     * Gets the journal recording the rounds played at the Table
+     * @return The Table's journal
+     */
+    public RoundJournal getJournal(){
+        return journal;
+    }
+
     /**
      * Gets a list of all the player's who are still elligible for another round
      * @return  A list of all elligible players
@@ -280,10 +578,37 @@ public class Table implements Runnable {
      * Returns the minimum bet allowed for the Table
      * @return minimum bet allowed to play
      */
-    public double getMinimumBet(){
+    public long getMinimumBet(){
         return  this.minimumBet;
     }
 
+    /**
+     * Returns the number of seats taken, by players in the game, players waiting for the next round and players
+     * still being greeted
+     * @return Number of taken seats
+     */
+    public int takenSeats(){
+        seatingLock.lock();
+        try{
+            return players.size() + reservedSeats;
+        }finally {
+            seatingLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of players added to the Table, those in the game and those waiting for the next round
+     * @return Number of players added
+     */
+    public int joinedPlayers(){
+        seatingLock.lock();
+        try{
+            return players.size() + waitingRoom.size();
+        }finally {
+            seatingLock.unlock();
+        }
+    }
+
     /**
      * Returns the Number of Players Still in the Game
      * @return Number of Players Left in Game
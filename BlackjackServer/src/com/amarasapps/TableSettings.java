@@ -0,0 +1,138 @@
+package com.amarasapps;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * Holds the configuration shared by every Table the server opens, built once from the command line options
+ */
+public class TableSettings {
+
+    //Default time given to a client for each decision, in milliseconds
+    public static final long DEFAULT_BET_TIMEOUT = 30000;
+    public static final long DEFAULT_INSURANCE_TIMEOUT = 15000;
+    public static final long DEFAULT_PLAY_TIMEOUT = 30000;
+    public static final long DEFAULT_PLAY_AGAIN_TIMEOUT = 30000;
+
+    private final long minimumBet;              //Minimum Allowed Bet, in cents
+    private final int decksUsed;                //Decks Kept in the Shoe
+    private final int cardsBeforeShuffle;       //Cards remaining in the shoe before a re-shuffle
+    private final int playersPerTable;          //Players needed before a Table starts
+    private final int seatsPerTable;            //Most players a Table seats, including those waiting for the next round
+    private final long startingMoney;           //Money that each new Player starts with, in cents
+    private final long betTimeout;              //Time allowed to place a bet, 0 to wait forever
+    private final long insuranceTimeout;        //Time allowed to answer the offer of insurance, 0 to wait forever
+    private final long playTimeout;             //Time allowed for each play decision, 0 to wait forever
+    private final long playAgainTimeout;        //Time allowed to choose whether to play again, 0 to wait forever
+    private final boolean continuousShuffle;    //Whether discards go straight back into the shoe, with no cut card
+
+    /**
+     * Constructor to store the settings used for each new Table
+     * @param minimumBet            The minimum bet that a player can place, in cents
+     * @param decksUsed             The number of decks stored in each card shoe
+     * @param cardsBeforeShuffle    The max number of cards left in the Shoe before it is re-shuffled
+     * @param playersPerTable       The number of players seated before a Table starts playing
+     * @param startingMoney         How much money each Player starts with, in cents
+     */
+    public TableSettings(long minimumBet, int decksUsed, int cardsBeforeShuffle, int playersPerTable, long startingMoney){
+        this(minimumBet, decksUsed, cardsBeforeShuffle, playersPerTable, playersPerTable, startingMoney,
+                DEFAULT_BET_TIMEOUT, DEFAULT_INSURANCE_TIMEOUT, DEFAULT_PLAY_TIMEOUT, DEFAULT_PLAY_AGAIN_TIMEOUT);
+    }
+
+    /**
+     * Constructor to store the settings used for each new Table, including how long clients have for each decision
+     * @param minimumBet            The minimum bet that a player can place, in cents
+     * @param decksUsed             The number of decks stored in each card shoe
+     * @param cardsBeforeShuffle    The max number of cards left in the Shoe before it is re-shuffled
+     * @param playersPerTable       The number of players seated before a Table starts playing
+     * @param seatsPerTable         The most players a Table seats once it is playing
+     * @param startingMoney         How much money each Player starts with, in cents
+     * @param betTimeout            Milliseconds allowed to place a bet before the minimum is bet
+     * @param insuranceTimeout      Milliseconds allowed to answer the offer of insurance before it is declined
+     * @param playTimeout           Milliseconds allowed for each play decision before the player stands
+     * @param playAgainTimeout      Milliseconds allowed to choose to play again before the player leaves
+     */
+    public TableSettings(long minimumBet, int decksUsed, int cardsBeforeShuffle, int playersPerTable, int seatsPerTable,
+                         long startingMoney, long betTimeout, long insuranceTimeout, long playTimeout, long playAgainTimeout){
+        this(minimumBet, decksUsed, cardsBeforeShuffle, playersPerTable, seatsPerTable, startingMoney,
+                betTimeout, insuranceTimeout, playTimeout, playAgainTimeout, false);
+    }
+
+    /**
+     * Constructor to store the settings used for each new Table, including how its shoe is shuffled
+     * @param minimumBet            The minimum bet that a player can place, in cents
+     * @param decksUsed             The number of decks stored in each card shoe
+     * @param cardsBeforeShuffle    The max number of cards left in the Shoe before it is re-shuffled
+     * @param playersPerTable       The number of players seated before a Table starts playing
+     * @param seatsPerTable         The most players a Table seats once it is playing
+     * @param startingMoney         How much money each Player starts with, in cents
+     * @param betTimeout            Milliseconds allowed to place a bet before the minimum is bet
+     * @param insuranceTimeout      Milliseconds allowed to answer the offer of insurance before it is declined
+     * @param playTimeout           Milliseconds allowed for each play decision before the player stands
+     * @param playAgainTimeout      Milliseconds allowed to choose to play again before the player leaves
+     * @param continuousShuffle     True to model a continuous shuffling machine, returning every round's cards to the
+     *                              shoe, false to deal down to the cut card and then swap in a freshly shuffled shoe
+     */
+    public TableSettings(long minimumBet, int decksUsed, int cardsBeforeShuffle, int playersPerTable, int seatsPerTable,
+                         long startingMoney, long betTimeout, long insuranceTimeout, long playTimeout, long playAgainTimeout,
+                         boolean continuousShuffle){
+        this.minimumBet = minimumBet;
+        this.decksUsed = decksUsed;
+        this.cardsBeforeShuffle = cardsBeforeShuffle;
+        this.playersPerTable = playersPerTable;
+        this.seatsPerTable = Math.max(seatsPerTable, playersPerTable);
+        this.startingMoney = startingMoney;
+        this.betTimeout = betTimeout;
+        this.insuranceTimeout = insuranceTimeout;
+        this.playTimeout = playTimeout;
+        this.playAgainTimeout = playAgainTimeout;
+        this.continuousShuffle = continuousShuffle;
+    }
+
+    //**Getters**//
+
+    public long getMinimumBet() {
+        return minimumBet;
+    }
+
+    public int getDecksUsed() {
+        return decksUsed;
+    }
+
+    public int getCardsBeforeShuffle() {
+        return cardsBeforeShuffle;
+    }
+
+    public int getPlayersPerTable() {
+        return playersPerTable;
+    }
+
+    public int getSeatsPerTable() {
+        return seatsPerTable;
+    }
+
+    public long getStartingMoney() {
+        return startingMoney;
+    }
+
+    public long getBetTimeout() {
+        return betTimeout;
+    }
+
+    public long getInsuranceTimeout() {
+        return insuranceTimeout;
+    }
+
+    public long getPlayTimeout() {
+        return playTimeout;
+    }
+
+    public long getPlayAgainTimeout() {
+        return playAgainTimeout;
+    }
+
+    public boolean isContinuousShuffle() {
+        return continuousShuffle;
+    }
+}
@@ -0,0 +1,90 @@
+package com.amarasapps;
+
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Multiplayer Blackjack Game
+ * @author Aiden Meikle
+ * Github: AMeikle99
+ *
+ * The original protocol, where every message is a line of hyphen separated values. Amounts of money are written with
+ * two decimal places, straight from the cents they are held in.
+ */
+public class TextProtocol implements Protocol {
+
+    public static final TextProtocol INSTANCE = new TextProtocol();
+    public static final int MAX_LINE_LENGTH = 256;  //Longest line a client may send, in UTF-8 bytes
+
+    private final byte[][] encodedOpcodes;  //Messages which carry no values, encoded once by opcode ordinal
+
+    private TextProtocol(){
+        encodedOpcodes = new byte[Opcode.values().length][];
+        for(Opcode opcode: Opcode.values()){
+            encodedOpcodes[opcode.ordinal()] = line(opcode.getText());
+        }
+    }
+
+    @Override
+    public int getVersion() {
+        return TEXT_VERSION;
+    }
+
+    @Override
+    public byte[] encode(Opcode opcode) {
+        return encodedOpcodes[opcode.ordinal()];
+    }
+
+    @Override
+    public byte[] encodeHandNumber(Opcode opcode, int handNumber) {
+        return line(String.format("%s-%d", opcode.getText(), handNumber));
+    }
+
+    @Override
+    public byte[] encodeMoney(Opcode opcode, long amount) {
+        StringBuilder message = new StringBuilder(opcode.getText()).append('-');
+        return line(Money.append(message, amount).toString());
+    }
+
+    @Override
+    public byte[] encodeMoney(Opcode opcode, long first, long second) {
+        StringBuilder message = new StringBuilder(opcode.getText()).append('-');
+        Money.append(message, first).append('-');
+        return line(Money.append(message, second).toString());
+    }
+
+    @Override
+    public byte[] encodePlayerHand(int handNumber, BJHand hand) {
+        StringBuilder playerHandState = new StringBuilder();
+        playerHandState.append(String.format("%s-%d-%d", Opcode.PLAYERHAND.getText(), handNumber, hand.handValue()));
+
+        for(int i = 0; i<hand.size(); i++){
+            playerHandState.append('-').append(hand.getCard(i));
+        }
+        return line(playerHandState.toString());
+    }
+
+    @Override
+    public byte[] encodeDealerHand(int handValue, BJHand hand, boolean hideHoleCard) {
+        StringBuilder dealerHandState = new StringBuilder();
+        dealerHandState.append(String.format("%s-%d", Opcode.DEALERHAND.getText(), handValue));
+
+        if(hideHoleCard){
+            dealerHandState.append('-').append(hand.getCard(0)).append("-XX");
+        }else{
+            for(int i = 0; i<hand.size(); i++){
+                dealerHandState.append('-').append(hand.getCard(i));
+            }
+        }
+        return line(dealerHandState.toString());
+    }
+
+    /**
+     * Terminates a message and converts it to the bytes sent to the client
+     * @param message The message without a line terminator
+     * @return The bytes of the message line
+     */
+    static byte[] line(String message){
+        return (message + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+}